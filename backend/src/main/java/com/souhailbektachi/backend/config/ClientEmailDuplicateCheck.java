@@ -0,0 +1,39 @@
+package com.souhailbektachi.backend.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Reports the emails shared by several clients. The V2 migration only adds the uk_client_email
+ * unique key when there are none, so such databases run with a plain index until the clients are
+ * merged and the key is added by hand.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ClientEmailDuplicateCheck implements CommandLineRunner {
+
+    private static final int REPORTED_EMAILS = 20;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        List<String> emails = jdbcTemplate.queryForList(
+                "SELECT email FROM client WHERE email IS NOT NULL GROUP BY email HAVING COUNT(*) > 1 ORDER BY email",
+                String.class);
+        if (emails.isEmpty()) {
+            return;
+        }
+        log.warn("{} emails are shared by several clients, so client.email has no unique key: {}{}. "
+                        + "Merge these clients, then run: ALTER TABLE client DROP INDEX idx_client_email, "
+                        + "ADD CONSTRAINT uk_client_email UNIQUE (email)",
+                emails.size(), emails.subList(0, Math.min(emails.size(), REPORTED_EMAILS)),
+                emails.size() > REPORTED_EMAILS ? " (first " + REPORTED_EMAILS + ")" : "");
+    }
+}
@@ -0,0 +1,156 @@
+package com.souhailbektachi.backend.config;
+
+import com.souhailbektachi.backend.entities.*;
+import com.souhailbektachi.backend.repositories.CreditRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Compares the Credit inheritance mappings at startup, then rolls everything back.
+ *
+ * Inserts {@code benchmark.inheritance.credits} credits of the three types, then times id lookups,
+ * status/id range pages and the per-type aggregate over them. Run it once per mapping:
+ * {@code --spring.profiles.active=inheritance-benchmark} (JOINED) and
+ * {@code --spring.profiles.active=single-table,inheritance-benchmark}
+ * (with {@code --spring.jpa.show-sql=false} so that statement logging does not dominate the timing).
+ */
+@Component
+@Profile("inheritance-benchmark")
+@RequiredArgsConstructor
+@Slf4j
+public class InheritanceBenchmark implements CommandLineRunner {
+
+    private static final int LOOKUPS = 10000;
+    private static final int PAGES = 200;
+    private static final int PAGE_SIZE = 500;
+
+    private final TransactionTemplate transactionTemplate;
+    private final CreditRepository creditRepository;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${benchmark.inheritance.credits:1000000}")
+    private int credits;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:1}")
+    private int batchSize;
+
+    @Override
+    public void run(String... args) {
+        String strategy = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel().getEntityDescriptor(Credit.class).getClass().getSimpleName();
+        long[] elapsed = new long[4];
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Client client = new Client();
+            client.setNom("Inheritance benchmark");
+            client.setEmail("inheritance-benchmark@example.com");
+            entityManager.persist(client);
+            entityManager.flush();
+
+            // Inserts
+            long start = System.nanoTime();
+            Long firstId = null;
+            Long lastId = null;
+            for (int i = 0; i < credits; i++) {
+                Credit credit = newCredit(i);
+                credit.setClient(entityManager.getReference(Client.class, client.getId()));
+                entityManager.persist(credit);
+                if (firstId == null) {
+                    firstId = credit.getId();
+                }
+                lastId = credit.getId();
+                if ((i + 1) % batchSize == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+            elapsed[0] = System.nanoTime() - start;
+
+            // Polymorphic lookups by id
+            Random random = new Random(42);
+            start = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                creditRepository.findById(firstId + random.nextInt((int) (lastId - firstId + 1)));
+                if ((i + 1) % PAGE_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+            elapsed[1] = System.nanoTime() - start;
+            entityManager.clear();
+
+            // Polymorphic pages in id order
+            start = System.nanoTime();
+            long cursor = firstId - 1;
+            for (int i = 0; i < PAGES; i++) {
+                var page = creditRepository.findByIdGreaterThan(cursor, PageRequest.of(0, PAGE_SIZE));
+                if (page.isEmpty()) {
+                    break;
+                }
+                cursor = page.get(page.size() - 1).getId();
+                entityManager.clear();
+            }
+            elapsed[2] = System.nanoTime() - start;
+
+            // Aggregate by concrete type
+            start = System.nanoTime();
+            creditRepository.aggregateByTypeAndStatut();
+            elapsed[3] = System.nanoTime() - start;
+
+            // Leave the database as it was
+            status.setRollbackOnly();
+        });
+
+        log.info("Inheritance benchmark [{}, batch_size={}]: {} inserts in {} ms ({} rows/s), {} id lookups in {} ms, "
+                        + "{} pages of {} in {} ms, aggregate by type in {} ms",
+                strategy, batchSize, credits, elapsed[0] / 1_000_000, Math.round(credits / (elapsed[0] / 1e9)),
+                LOOKUPS, elapsed[1] / 1_000_000, PAGES, PAGE_SIZE, elapsed[2] / 1_000_000, elapsed[3] / 1_000_000);
+    }
+
+    // Helper methods
+
+    private static Credit newCredit(int i) {
+        Credit credit;
+        switch (i % 3) {
+            case 0 -> {
+                CreditPersonnel personnel = new CreditPersonnel();
+                personnel.setMotif("Benchmark");
+                credit = personnel;
+            }
+            case 1 -> {
+                CreditImmobilier immobilier = new CreditImmobilier();
+                immobilier.setTypeBienFinance(TypeBienImmobilier.APPARTEMENT);
+                credit = immobilier;
+            }
+            default -> {
+                CreditProfessionnel professionnel = new CreditProfessionnel();
+                professionnel.setMotif("Benchmark");
+                professionnel.setRaisonSocialeEntreprise("Benchmark SARL");
+                credit = professionnel;
+            }
+        }
+        credit.setDateDemande(LocalDate.now().minusDays(i % 365));
+        credit.setStatut(StatutCredit.values()[i % StatutCredit.values().length]);
+        credit.setMontant(10000.0 + i % 1000);
+        credit.setDureeRemboursement(120);
+        credit.setTauxInteret(3.5);
+        return credit;
+    }
+}
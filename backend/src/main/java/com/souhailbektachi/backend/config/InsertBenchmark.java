@@ -0,0 +1,92 @@
+package com.souhailbektachi.backend.config;
+
+import com.souhailbektachi.backend.entities.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+/**
+ * Measures the repayment insert throughput at startup, then rolls everything back.
+ *
+ * Run it once with the default id strategy and once with pooled ids to compare:
+ * {@code --spring.profiles.active=insert-benchmark} and
+ * {@code --spring.profiles.active=pooled-ids,insert-benchmark}
+ * (with {@code --spring.jpa.show-sql=false} so that statement logging does not dominate the timing).
+ */
+@Component
+@Profile("insert-benchmark")
+@RequiredArgsConstructor
+@Slf4j
+public class InsertBenchmark implements CommandLineRunner {
+
+    private final TransactionTemplate transactionTemplate;
+    private final Environment environment;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${benchmark.insert.rows:100000}")
+    private int rows;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:1}")
+    private int batchSize;
+
+    @Override
+    public void run(String... args) {
+        long[] elapsed = new long[1];
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Client client = new Client();
+            client.setNom("Insert benchmark");
+            client.setEmail("insert-benchmark@example.com");
+            entityManager.persist(client);
+
+            CreditPersonnel credit = new CreditPersonnel();
+            credit.setClient(client);
+            credit.setDateDemande(LocalDate.now());
+            credit.setStatut(StatutCredit.ACCEPTE);
+            credit.setDateAcception(LocalDate.now());
+            credit.setMontant(1000000.0);
+            credit.setDureeRemboursement(rows);
+            credit.setTauxInteret(3.0);
+            credit.setMotif("Insert benchmark");
+            entityManager.persist(credit);
+            entityManager.flush();
+
+            long start = System.nanoTime();
+            for (int i = 0; i < rows; i++) {
+                Remboursement remboursement = new Remboursement();
+                remboursement.setCredit(credit);
+                remboursement.setDate(LocalDate.now());
+                remboursement.setMontant(100.0);
+                remboursement.setType(TypeRemboursement.MENSUALITE);
+                entityManager.persist(remboursement);
+
+                if ((i + 1) % batchSize == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                    credit = entityManager.getReference(CreditPersonnel.class, credit.getId());
+                }
+            }
+            entityManager.flush();
+            elapsed[0] = System.nanoTime() - start;
+
+            // Leave the database as it was
+            status.setRollbackOnly();
+        });
+
+        double seconds = elapsed[0] / 1_000_000_000.0;
+        log.info("Insert benchmark [profiles={}, batch_size={}]: {} repayments in {} ms ({} rows/s)",
+                String.join(",", environment.getActiveProfiles()), batchSize, rows,
+                Math.round(seconds * 1000), Math.round(rows / seconds));
+    }
+}
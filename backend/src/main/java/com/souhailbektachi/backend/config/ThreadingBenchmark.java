@@ -0,0 +1,86 @@
+package com.souhailbektachi.backend.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures request throughput against a slow database at startup.
+ *
+ * Each simulated request borrows a connection and runs {@code SELECT SLEEP(latency)}, the way a
+ * request blocked on MySQL would. Requests run on a pool shaped like Tomcat's
+ * ({@code server.tomcat.threads.max} platform threads) or on one virtual thread each. Run it once
+ * per mode to compare:
+ * {@code --spring.profiles.active=threading-benchmark} and
+ * {@code --spring.profiles.active=virtual-threads,threading-benchmark} (Java 21), adding
+ * {@code -Djdk.tracePinnedThreads=short} to the JVM options of the second run to report pinning.
+ * Both modes are capped by the connection pool: the thread model only shows once
+ * {@code spring.datasource.hikari.maximum-pool-size} exceeds the platform thread count.
+ */
+@Component
+@Profile("threading-benchmark")
+@RequiredArgsConstructor
+@Slf4j
+public class ThreadingBenchmark implements CommandLineRunner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Environment environment;
+
+    @Value("${benchmark.threading.requests:5000}")
+    private int requests;
+
+    @Value("${benchmark.threading.db-latency-ms:50}")
+    private int dbLatencyMs;
+
+    @Value("${server.tomcat.threads.max:200}")
+    private int platformThreads;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int connections;
+
+    @Override
+    public void run(String... args) throws Exception {
+        boolean virtual = Threading.VIRTUAL.isActive(environment);
+        double latencySeconds = dbLatencyMs / 1000.0;
+        AtomicLong maxWaitNanos = new AtomicLong();
+
+        ExecutorService executor = virtual
+                ? Executors.newCachedThreadPool(new VirtualThreadTaskExecutor("benchmark-").getVirtualThreadFactory())
+                : Executors.newFixedThreadPool(platformThreads);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>(requests);
+            for (int i = 0; i < requests; i++) {
+                long submitted = System.nanoTime();
+                futures.add(executor.submit(() -> {
+                    jdbcTemplate.queryForObject("SELECT SLEEP(?)", Integer.class, latencySeconds);
+                    maxWaitNanos.accumulateAndGet(System.nanoTime() - submitted, Math::max);
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            log.info("Threading benchmark [threads={}, connections={}, db latency={} ms]: {} requests in {} ms ({} requests/s, max latency {} ms)",
+                    virtual ? "virtual" : platformThreads + " platform", connections, dbLatencyMs, requests,
+                    Math.round(seconds * 1000), Math.round(requests / seconds), maxWaitNanos.get() / 1_000_000);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.souhailbektachi.backend.dtos;
+
+import com.souhailbektachi.backend.entities.StatutCredit;
+import io.swagger.v3.oas.annotations.Parameter;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Optional filters of the credit search; the given ones are all applied
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreditSearchCriteria {
+    @Parameter(description = "Minimum amount")
+    private Double minAmount;
+
+    @Parameter(description = "Maximum amount")
+    private Double maxAmount;
+
+    @Parameter(description = "Earliest application date")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate startDate;
+
+    @Parameter(description = "Latest application date")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate endDate;
+
+    @Parameter(description = "Credit status")
+    private StatutCredit statut;
+
+    @Parameter(description = "Credit type (PERSONNEL, IMMOBILIER, PROFESSIONNEL)")
+    private String type;
+
+    @Parameter(description = "Client ID")
+    private Long clientId;
+}
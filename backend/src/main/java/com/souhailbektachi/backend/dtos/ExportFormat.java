@@ -0,0 +1,36 @@
+package com.souhailbektachi.backend.dtos;
+
+import com.souhailbektachi.backend.exceptions.BadRequestException;
+
+/**
+ * Output formats supported by the streaming exports
+ */
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static ExportFormat of(String format) {
+        for (ExportFormat value : values()) {
+            if (value.name().equalsIgnoreCase(format)) {
+                return value;
+            }
+        }
+        throw new BadRequestException("Invalid export format: " + format);
+    }
+}
@@ -0,0 +1,17 @@
+package com.souhailbektachi.backend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.YearMonth;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlyCashFlowDTO {
+    private YearMonth mois;
+    private double montantTotal;
+    private double montantPrincipal;
+    private double montantInteret;
+}
@@ -0,0 +1,19 @@
+package com.souhailbektachi.backend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentScheduleEntryDTO {
+    private int numeroPaiement;
+    private LocalDate datePaiement;
+    private double montantTotal;
+    private double montantPrincipal;
+    private double montantInteret;
+    private double soldeRestant;
+}
@@ -0,0 +1,15 @@
+package com.souhailbektachi.backend.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDTO {
+    private SuggestionType type;
+    private String label;
+    // The client itself, or the client borrowing for the company
+    private Long clientId;
+}
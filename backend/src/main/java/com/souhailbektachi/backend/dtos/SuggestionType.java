@@ -0,0 +1,9 @@
+package com.souhailbektachi.backend.dtos;
+
+/**
+ * What a typeahead suggestion names
+ */
+public enum SuggestionType {
+    CLIENT,
+    ENTREPRISE
+}
@@ -0,0 +1,26 @@
+package com.souhailbektachi.backend.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Second-level cache entry written by one instance, to be evicted by the others
+ */
+@Entity
+@Table(name = "l2_cache_invalidation", indexes = @Index(name = "idx_l2_cache_invalidation_created_at", columnList = "createdAt"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    private String region;
+    private Long entityId;
+    private Instant createdAt;
+}
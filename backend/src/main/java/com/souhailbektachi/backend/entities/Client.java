@@ -1,14 +1,23 @@
 package com.souhailbektachi.backend.entities;
 
+import com.souhailbektachi.backend.entities.listeners.ReportingDataChangeListener;
+import com.souhailbektachi.backend.entities.listeners.SearchIndexChangeListener;
+import com.souhailbektachi.backend.entities.listeners.SecondLevelCacheChangeListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_client_email", columnNames = "email"))
+@EntityListeners({ReportingDataChangeListener.class, SecondLevelCacheChangeListener.class, SearchIndexChangeListener.class})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "client")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -21,5 +30,6 @@ public class Client {
     private String email;
     
     @OneToMany(mappedBy = "client", cascade = CascadeType.ALL)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "client-credits")
     private List<Credit> credits = new ArrayList<>();
 }
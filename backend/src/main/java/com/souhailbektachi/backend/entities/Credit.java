@@ -1,15 +1,27 @@
 package com.souhailbektachi.backend.entities;
 
+import com.souhailbektachi.backend.entities.listeners.ReportingDataChangeListener;
+import com.souhailbektachi.backend.entities.listeners.SearchIndexChangeListener;
+import com.souhailbektachi.backend.entities.listeners.SecondLevelCacheChangeListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_credit_statut_date_demande", columnList = "statut, dateDemande"),
+        @Index(name = "idx_credit_client_statut", columnList = "client_id, statut")
+})
+@EntityListeners({ReportingDataChangeListener.class, SecondLevelCacheChangeListener.class, SearchIndexChangeListener.class})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "credit")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -29,7 +41,7 @@ public abstract class Credit {
     private Integer dureeRemboursement;
     private Double tauxInteret;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "client_id")
     private Client client;
     
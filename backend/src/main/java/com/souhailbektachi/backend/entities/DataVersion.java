@@ -0,0 +1,21 @@
+package com.souhailbektachi.backend.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Version of a data set shared by all instances, incremented by every committed change to it
+ */
+@Entity
+@Table(name = "data_version")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DataVersion {
+    @Id
+    private String name;
+    
+    private long version;
+}
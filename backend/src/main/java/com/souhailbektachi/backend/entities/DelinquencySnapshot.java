@@ -0,0 +1,41 @@
+package com.souhailbektachi.backend.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Materialized row of the delinquent loans report, rebuilt daily from credits and repayments
+ */
+@Entity
+@Table(name = "delinquency_snapshot",
+       uniqueConstraints = @UniqueConstraint(name = "uk_delinquency_snapshot_credit", columnNames = "creditId"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DelinquencySnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    private Long creditId;
+    
+    private String creditType;
+    private Double montant;
+    private LocalDate dateDemande;
+    private LocalDate dateAcception;
+    
+    private Long clientId;
+    private String clientName;
+    private String clientEmail;
+    
+    private Long expectedPayments;
+    private Long actualPayments;
+    private Long missedPayments;
+    private LocalDate lastPaymentDate;
+    
+    private LocalDate snapshotDate;
+}
@@ -0,0 +1,32 @@
+package com.souhailbektachi.backend.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Progress of one partition of a month-end installment run, committed together with each chunk
+ * so that an interrupted run resumes after the last credit it processed
+ */
+@Entity
+@Table(name = "installment_run_checkpoint",
+       uniqueConstraints = @UniqueConstraint(name = "uk_installment_run_checkpoint", columnNames = {"runDate", "partitionIndex", "partitionCount"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InstallmentRunCheckpoint {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    private LocalDate runDate;
+    private Integer partitionIndex;
+    private Integer partitionCount;
+    
+    private Long lastCreditId;
+    private Long postedCount;
+    private Boolean completed;
+}
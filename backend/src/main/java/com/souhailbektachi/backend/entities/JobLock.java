@@ -0,0 +1,25 @@
+package com.souhailbektachi.backend.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Cluster-wide lock of a job: the job runs on the instance that claimed the row, until that
+ * instance releases it or the lease expires (an instance dying in the middle of a run)
+ */
+@Entity
+@Table(name = "job_lock")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobLock {
+    @Id
+    private String name;
+    
+    private String lockedBy;
+    private Instant lockedUntil;
+}
@@ -1,5 +1,6 @@
 package com.souhailbektachi.backend.entities;
 
+import com.souhailbektachi.backend.entities.listeners.ReportingDataChangeListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -8,6 +9,12 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDate;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_remboursement_credit_date", columnList = "credit_id, date"),
+        @Index(name = "idx_remboursement_type", columnList = "type, date")
+}, uniqueConstraints = @UniqueConstraint(name = "uk_remboursement_installment",
+                                         columnNames = {"credit_id", "type", "moisEcheance"}))
+@EntityListeners(ReportingDataChangeListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,7 +29,23 @@ public class Remboursement {
     @Enumerated(EnumType.STRING)
     private TypeRemboursement type;
     
-    @ManyToOne
+    // First day of the month of a MENSUALITE, null for other repayments: one installment per credit and month
+    private LocalDate moisEcheance;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "credit_id")
     private Credit credit;
+    
+    @PrePersist
+    @PreUpdate
+    void updateMoisEcheance() {
+        moisEcheance = installmentMonth(type, date);
+    }
+    
+    /**
+     * Month a repayment is the installment of, or null if it is not a MENSUALITE
+     */
+    public static LocalDate installmentMonth(TypeRemboursement type, LocalDate date) {
+        return type == TypeRemboursement.MENSUALITE && date != null ? date.withDayOfMonth(1) : null;
+    }
 }
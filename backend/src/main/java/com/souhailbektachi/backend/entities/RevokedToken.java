@@ -0,0 +1,32 @@
+package com.souhailbektachi.backend.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Revoked JWT ({@code jti:<id>}) or revoked tokens of a user ({@code user:<username>}, every
+ * token issued up to {@code revokedAt}), kept until the last token it covers has expired
+ */
+@Entity
+@Table(name = "revoked_token",
+       uniqueConstraints = @UniqueConstraint(name = "uk_revoked_token_key", columnNames = "revocationKey"),
+       indexes = @Index(name = "idx_revoked_token_revoked_at", columnList = "revokedAt"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String revocationKey;
+    
+    private String username;
+    private Instant revokedAt;
+    private Instant expiresAt;
+}
@@ -0,0 +1,26 @@
+package com.souhailbektachi.backend.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Client or professional credit written by one instance, to be re-indexed by the others
+ */
+@Entity
+@Table(name = "search_index_change", indexes = @Index(name = "idx_search_index_change_created_at", columnList = "createdAt"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchIndexChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    private String entityType;
+    private Long entityId;
+    private Instant createdAt;
+}
@@ -0,0 +1,26 @@
+package com.souhailbektachi.backend.entities.listeners;
+
+import com.souhailbektachi.backend.services.impl.ReportCache;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA entity listener invalidating the cached reports whenever a reported entity is written.
+ * Instantiated by Hibernate through the Spring bean container; the cache is resolved on use
+ * because it depends on the entity manager factory that instantiates this listener.
+ */
+@RequiredArgsConstructor
+public class ReportingDataChangeListener {
+
+    private final ObjectProvider<ReportCache> reportCache;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        reportCache.getObject().markChanged();
+    }
+}
@@ -0,0 +1,26 @@
+package com.souhailbektachi.backend.entities.listeners;
+
+import com.souhailbektachi.backend.services.impl.SearchIndexSync;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA entity listener publishing the written clients and credits to the search indexes of the
+ * other instances. The sync component is resolved on use: it depends on the entity manager
+ * factory that instantiates this listener.
+ */
+@RequiredArgsConstructor
+public class SearchIndexChangeListener {
+
+    private final ObjectProvider<SearchIndexSync> searchIndexSync;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        searchIndexSync.getObject().entityChanged(entity);
+    }
+}
@@ -0,0 +1,26 @@
+package com.souhailbektachi.backend.entities.listeners;
+
+import com.souhailbektachi.backend.services.impl.SecondLevelCacheSync;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA entity listener publishing the second-level cache entries of written entities to the other
+ * instances. The sync component is resolved on use: it depends on the entity manager factory
+ * that instantiates this listener.
+ */
+@RequiredArgsConstructor
+public class SecondLevelCacheChangeListener {
+
+    private final ObjectProvider<SecondLevelCacheSync> secondLevelCacheSync;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        secondLevelCacheSync.getObject().entityChanged(entity);
+    }
+}
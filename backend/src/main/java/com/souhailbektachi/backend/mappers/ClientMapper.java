@@ -5,22 +5,26 @@ import com.souhailbektachi.backend.dtos.ClientRequestDTO;
 import com.souhailbektachi.backend.dtos.ClientSummaryDTO;
 import com.souhailbektachi.backend.dtos.CreditSummaryDTO;
 import com.souhailbektachi.backend.entities.Client;
-import com.souhailbektachi.backend.entities.Credit;
+import com.souhailbektachi.backend.repositories.ClientRepository;
+import com.souhailbektachi.backend.repositories.projections.ClientCreditCount;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Component
 public class ClientMapper {
 
     private final CreditMapper creditMapper;
+    private final ClientRepository clientRepository;
 
     @Autowired
-    public ClientMapper(CreditMapper creditMapper) {
+    public ClientMapper(CreditMapper creditMapper, ClientRepository clientRepository) {
         this.creditMapper = creditMapper;
+        this.clientRepository = clientRepository;
     }
 
     /**
@@ -57,16 +61,9 @@ public class ClientMapper {
             return null;
         }
 
-        ClientSummaryDTO dto = new ClientSummaryDTO();
-        dto.setId(client.getId());
-        dto.setNom(client.getNom());
-        dto.setEmail(client.getEmail());
-        
-        // Count the number of credits
-        int creditCount = (client.getCredits() != null) ? client.getCredits().size() : 0;
-        dto.setNombreCredits(creditCount);
-        
-        return dto;
+        // Count the number of credits in the database rather than initializing the collection
+        long creditCount = client.getId() != null ? clientRepository.countCreditsByClientId(client.getId()) : 0;
+        return toSummaryDto(client, creditCount);
     }
 
     /**
@@ -120,12 +117,28 @@ public class ClientMapper {
      * Convert a list of Client entities to ClientSummaryDTOs
      */
     public List<ClientSummaryDTO> toSummaryDtoList(List<Client> clients) {
-        if (clients == null) {
+        if (clients == null || clients.isEmpty()) {
             return Collections.emptyList();
         }
         
+        // One count query for the whole list instead of one per client
+        List<Long> ids = clients.stream()
+                .map(Client::getId)
+                .collect(Collectors.toList());
+        Map<Long, Long> creditCounts = clientRepository.countCreditsByClientIds(ids).stream()
+                .collect(Collectors.toMap(ClientCreditCount::getClientId, ClientCreditCount::getCreditCount));
+        
         return clients.stream()
-                .map(this::toSummaryDto)
+                .map(client -> toSummaryDto(client, creditCounts.getOrDefault(client.getId(), 0L)))
                 .collect(Collectors.toList());
     }
+
+    private ClientSummaryDTO toSummaryDto(Client client, long creditCount) {
+        ClientSummaryDTO dto = new ClientSummaryDTO();
+        dto.setId(client.getId());
+        dto.setNom(client.getNom());
+        dto.setEmail(client.getEmail());
+        dto.setNombreCredits((int) creditCount);
+        return dto;
+    }
 }
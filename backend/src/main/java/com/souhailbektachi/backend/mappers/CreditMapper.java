@@ -47,8 +47,8 @@ public class CreditMapper {
             clientSummary.setId(credit.getClient().getId());
             clientSummary.setNom(credit.getClient().getNom());
             clientSummary.setEmail(credit.getClient().getEmail());
-            clientSummary.setNombreCredits(credit.getClient().getCredits() != null ? 
-                    credit.getClient().getCredits().size() : 0);
+            // Counted in the database rather than by initializing the client's credit collection
+            clientSummary.setNombreCredits((int) clientRepository.countCreditsByClientId(credit.getClient().getId()));
             baseDto.setClient(clientSummary);
         }
         
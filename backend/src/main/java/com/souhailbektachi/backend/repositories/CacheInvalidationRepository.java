@@ -0,0 +1,20 @@
+package com.souhailbektachi.backend.repositories;
+
+import com.souhailbektachi.backend.entities.CacheInvalidation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface CacheInvalidationRepository extends JpaRepository<CacheInvalidation, Long> {
+    List<CacheInvalidation> findByCreatedAtGreaterThanEqualOrderById(Instant since);
+
+    @Modifying
+    @Query("DELETE FROM CacheInvalidation i WHERE i.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") Instant before);
+}
@@ -1,15 +1,53 @@
 package com.souhailbektachi.backend.repositories;
 
 import com.souhailbektachi.backend.entities.Client;
+import com.souhailbektachi.backend.repositories.projections.ClientCreditCount;
+import com.souhailbektachi.backend.repositories.projections.ClientSearchEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ClientRepository extends JpaRepository<Client, Long> {
+    List<Client> findByIdGreaterThan(Long id, Pageable pageable);
     Optional<Client> findByEmail(String email);
-    List<Client> findByNomContainingIgnoreCase(String keyword);
-    List<Client> findByEmailContainingIgnoreCase(String email);
+    List<Client> findByNomContainingIgnoreCase(String keyword, Pageable pageable);
+    List<Client> findByEmailContainingIgnoreCase(String email, Pageable pageable);
+    List<Client> findByNomStartingWithIgnoreCase(String prefix, Pageable pageable);
+    
+    /**
+     * Searchable fields of the clients after {@code afterId}, in id order (keyset pagination)
+     */
+    @Query("SELECT c.id AS id, c.nom AS nom, c.email AS email FROM Client c WHERE c.id > :afterId ORDER BY c.id")
+    List<ClientSearchEntry> findSearchEntries(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * Searchable fields of the given clients
+     */
+    @Query("SELECT c.id AS id, c.nom AS nom, c.email AS email FROM Client c WHERE c.id IN :ids")
+    List<ClientSearchEntry> findSearchEntriesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * A client together with its credits, loaded in a single statement
+     */
+    @EntityGraph(attributePaths = {"credits"})
+    Optional<Client> findWithCreditsById(Long id);
+    
+    @Query("SELECT COUNT(cr) FROM Credit cr WHERE cr.client.id = :clientId")
+    long countCreditsByClientId(@Param("clientId") Long clientId);
+    
+    /**
+     * Number of credits of each given client (clients without credits included), computed with a
+     * COUNT subquery so that a list of clients needs one statement instead of one per client
+     */
+    @Query("SELECT c.id AS clientId, (SELECT COUNT(cr) FROM Credit cr WHERE cr.client = c) AS creditCount " +
+           "FROM Client c WHERE c.id IN :clientIds")
+    List<ClientCreditCount> countCreditsByClientIds(@Param("clientIds") Collection<Long> clientIds);
 }
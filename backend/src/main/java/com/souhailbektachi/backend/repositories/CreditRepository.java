@@ -5,18 +5,42 @@ import com.souhailbektachi.backend.entities.CreditImmobilier;
 import com.souhailbektachi.backend.entities.CreditPersonnel;
 import com.souhailbektachi.backend.entities.CreditProfessionnel;
 import com.souhailbektachi.backend.entities.StatutCredit;
+import com.souhailbektachi.backend.repositories.projections.CompanyNameEntry;
+import com.souhailbektachi.backend.repositories.projections.CreditPerformanceAggregate;
+import com.souhailbektachi.backend.repositories.projections.CreditStatusAggregate;
+import com.souhailbektachi.backend.repositories.projections.CreditTerms;
+import com.souhailbektachi.backend.repositories.projections.CreditTypeStatusAggregate;
+import com.souhailbektachi.backend.repositories.projections.DelinquencyCandidate;
+import com.souhailbektachi.backend.repositories.projections.InstallmentCandidate;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface CreditRepository extends JpaRepository<Credit, Long> {
+public interface CreditRepository extends JpaRepository<Credit, Long>, JpaSpecificationExecutor<Credit> {
+    List<Credit> findByIdGreaterThan(Long id, Pageable pageable);
     List<Credit> findByClientId(Long clientId);
     List<Credit> findByStatut(StatutCredit statut);
     
+    /**
+     * A credit together with its client and repayments, loaded in a single statement
+     */
+    @EntityGraph(attributePaths = {"client", "remboursements"})
+    Optional<Credit> findWithClientAndRemboursementsById(Long id);
+    
     @Query("SELECT c FROM CreditPersonnel c")
     List<Credit> findCreditPersonnel();
     
@@ -26,11 +50,109 @@ public interface CreditRepository extends JpaRepository<Credit, Long> {
     @Query("SELECT c FROM CreditProfessionnel c")
     List<Credit> findCreditProfessionnel();
     
-    List<Credit> findByMontantBetween(Double minAmount, Double maxAmount);
-    List<Credit> findByMontantGreaterThanEqual(Double minAmount);
-    List<Credit> findByMontantLessThanEqual(Double maxAmount);
-    
     List<Credit> findByDateDemandeBetween(LocalDate startDate, LocalDate endDate);
-    List<Credit> findByDateDemandeGreaterThanEqual(LocalDate startDate);
-    List<Credit> findByDateDemandeLessThanEqual(LocalDate endDate);
+    
+    long countByDateDemandeGreaterThanEqual(LocalDate startDate);
+    
+    // Aggregate projections used by reporting (computed by the database, no entity is loaded)
+    
+    @Query("SELECT c.statut AS statut, COUNT(c) AS count, COALESCE(SUM(c.montant), 0) AS totalAmount " +
+           "FROM Credit c GROUP BY c.statut")
+    List<CreditStatusAggregate> aggregateByStatut();
+    
+    @Query("SELECT TYPE(c) AS creditType, c.statut AS statut, COUNT(c) AS count, " +
+           "COALESCE(SUM(c.montant), 0) AS totalAmount " +
+           "FROM Credit c GROUP BY TYPE(c), c.statut")
+    List<CreditTypeStatusAggregate> aggregateByTypeAndStatut();
+    
+    @Query("SELECT TYPE(c) AS creditType, COUNT(c) AS totalCount, " +
+           "SUM(CASE WHEN c.statut = com.souhailbektachi.backend.entities.StatutCredit.ACCEPTE THEN 1 ELSE 0 END) AS acceptedCount, " +
+           "SUM(CASE WHEN c.statut = com.souhailbektachi.backend.entities.StatutCredit.REJETE THEN 1 ELSE 0 END) AS rejectedCount, " +
+           "COALESCE(SUM(c.montant), 0) AS totalAmount, AVG(c.montant) AS averageAmount, " +
+           "AVG(c.dureeRemboursement) AS averageDuration, AVG(c.tauxInteret) AS averageInterestRate " +
+           "FROM Credit c GROUP BY TYPE(c)")
+    List<CreditPerformanceAggregate> aggregatePerformanceByType();
+    
+    /**
+     * Accepted credits with an id greater than {@code afterId}, in id order, each with its number of
+     * monthly installments and its last repayment date (one row per credit, a single statement per chunk)
+     */
+    @Query("SELECT c.id AS creditId, TYPE(c) AS creditType, c.montant AS montant, c.dateDemande AS dateDemande, " +
+           "c.dateAcception AS dateAcception, c.dureeRemboursement AS dureeRemboursement, " +
+           "cl.id AS clientId, cl.nom AS clientName, cl.email AS clientEmail, " +
+           "SUM(CASE WHEN r.type = com.souhailbektachi.backend.entities.TypeRemboursement.MENSUALITE THEN 1 ELSE 0 END) AS monthlyPayments, " +
+           "MAX(r.date) AS lastPaymentDate " +
+           "FROM Credit c LEFT JOIN c.client cl LEFT JOIN c.remboursements r " +
+           "WHERE c.statut = com.souhailbektachi.backend.entities.StatutCredit.ACCEPTE " +
+           "AND c.dateAcception IS NOT NULL AND c.id > :afterId " +
+           "GROUP BY c.id, TYPE(c), c.montant, c.dateDemande, c.dateAcception, c.dureeRemboursement, " +
+           "cl.id, cl.nom, cl.email " +
+           "ORDER BY c.id")
+    List<DelinquencyCandidate> findDelinquencyCandidates(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * Repayment terms of the accepted credits with an id greater than {@code afterId}, in id order
+     */
+    @Query("SELECT c.id AS creditId, c.montant AS montant, c.tauxInteret AS tauxInteret, " +
+           "c.dureeRemboursement AS dureeRemboursement, c.dateAcception AS dateAcception " +
+           "FROM Credit c " +
+           "WHERE c.statut = com.souhailbektachi.backend.entities.StatutCredit.ACCEPTE " +
+           "AND c.dateAcception IS NOT NULL AND c.id > :afterId " +
+           "ORDER BY c.id")
+    List<CreditTerms> findAcceptedCreditTerms(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * Company names of the professional credits with an id greater than {@code afterId}, in id order
+     */
+    @Query("SELECT c.id AS creditId, c.client.id AS clientId, c.raisonSocialeEntreprise AS raisonSocialeEntreprise " +
+           "FROM CreditProfessionnel c " +
+           "WHERE c.raisonSocialeEntreprise IS NOT NULL AND c.id > :afterId " +
+           "ORDER BY c.id")
+    List<CompanyNameEntry> findCompanyNames(@Param("afterId") Long afterId, Pageable pageable);
+    
+    /**
+     * Company names of the given credits (only the professional credits naming a company)
+     */
+    @Query("SELECT c.id AS creditId, c.client.id AS clientId, c.raisonSocialeEntreprise AS raisonSocialeEntreprise " +
+           "FROM CreditProfessionnel c " +
+           "WHERE c.raisonSocialeEntreprise IS NOT NULL AND c.id IN :ids")
+    List<CompanyNameEntry> findCompanyNamesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Accepted credits of one partition ({@code id mod partitionCount = partitionIndex}) with an id greater
+     * than {@code afterId}, in id order, that still owe installments and have no MENSUALITE yet between
+     * {@code monthStart} and {@code monthEnd}. Credits already posted are excluded, so a rerun never posts twice.
+     * Each candidate carries its number of MENSUALITE posted so far, so the last one can be told apart.
+     */
+    @Query("SELECT c.id AS creditId, c.montant AS montant, c.tauxInteret AS tauxInteret, " +
+           "c.dureeRemboursement AS dureeRemboursement, " +
+           "(SELECT COUNT(r) FROM Remboursement r WHERE r.credit = c " +
+           "AND r.type = com.souhailbektachi.backend.entities.TypeRemboursement.MENSUALITE) AS installmentsPosted " +
+           "FROM Credit c " +
+           "WHERE c.statut = com.souhailbektachi.backend.entities.StatutCredit.ACCEPTE " +
+           "AND c.dateAcception <= :acceptedBefore AND c.id > :afterId " +
+           "AND MOD(c.id, :partitionCount) = :partitionIndex " +
+           "AND (SELECT COUNT(r) FROM Remboursement r WHERE r.credit = c " +
+           "AND r.type = com.souhailbektachi.backend.entities.TypeRemboursement.MENSUALITE) < c.dureeRemboursement " +
+           "AND NOT EXISTS (SELECT r FROM Remboursement r WHERE r.credit = c " +
+           "AND r.type = com.souhailbektachi.backend.entities.TypeRemboursement.MENSUALITE " +
+           "AND r.date BETWEEN :monthStart AND :monthEnd) " +
+           "ORDER BY c.id")
+    List<InstallmentCandidate> findInstallmentCandidates(@Param("afterId") Long afterId,
+                                                         @Param("partitionCount") int partitionCount,
+                                                         @Param("partitionIndex") int partitionIndex,
+                                                         @Param("acceptedBefore") LocalDate acceptedBefore,
+                                                         @Param("monthStart") LocalDate monthStart,
+                                                         @Param("monthEnd") LocalDate monthEnd,
+                                                         Pageable pageable);
+    
+    /**
+     * All credits in id order for streaming exports
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c FROM Credit c ORDER BY c.id")
+    Stream<Credit> streamAllForExport();
 }
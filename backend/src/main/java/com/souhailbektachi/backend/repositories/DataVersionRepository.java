@@ -0,0 +1,31 @@
+package com.souhailbektachi.backend.repositories;
+
+import com.souhailbektachi.backend.entities.DataVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DataVersionRepository extends JpaRepository<DataVersion, String> {
+    
+    /**
+     * {@link #increment} as a plain JDBC statement, for callers running inside Hibernate's commit
+     */
+    String INCREMENT_SQL = "INSERT INTO data_version (name, version) VALUES (?, 1) " +
+                           "ON DUPLICATE KEY UPDATE version = version + 1";
+    
+    /**
+     * {@link #findVersion} as a plain JDBC statement
+     */
+    String VERSION_SQL = "SELECT version FROM data_version WHERE name = ?";
+    
+    @Query("SELECT d.version FROM DataVersion d WHERE d.name = :name")
+    Long findVersion(@Param("name") String name);
+    
+    @Modifying
+    @Query(value = "INSERT INTO data_version (name, version) VALUES (:name, 1) " +
+                   "ON DUPLICATE KEY UPDATE version = version + 1", nativeQuery = true)
+    void increment(@Param("name") String name);
+}
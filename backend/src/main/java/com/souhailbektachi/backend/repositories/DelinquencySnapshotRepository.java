@@ -0,0 +1,18 @@
+package com.souhailbektachi.backend.repositories;
+
+import com.souhailbektachi.backend.entities.DelinquencySnapshot;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DelinquencySnapshotRepository extends JpaRepository<DelinquencySnapshot, Long> {
+    List<DelinquencySnapshot> findByCreditIdGreaterThanOrderByCreditIdAsc(Long creditId, Pageable pageable);
+    
+    @Query("SELECT MAX(s.snapshotDate) FROM DelinquencySnapshot s")
+    LocalDate findLatestSnapshotDate();
+}
@@ -0,0 +1,14 @@
+package com.souhailbektachi.backend.repositories;
+
+import com.souhailbektachi.backend.entities.InstallmentRunCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface InstallmentRunCheckpointRepository extends JpaRepository<InstallmentRunCheckpoint, Long> {
+    Optional<InstallmentRunCheckpoint> findByRunDateAndPartitionIndexAndPartitionCount(
+            LocalDate runDate, Integer partitionIndex, Integer partitionCount);
+}
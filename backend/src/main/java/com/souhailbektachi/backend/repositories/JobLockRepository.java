@@ -0,0 +1,32 @@
+package com.souhailbektachi.backend.repositories;
+
+import com.souhailbektachi.backend.entities.JobLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface JobLockRepository extends JpaRepository<JobLock, String> {
+    
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO job_lock (name) VALUES (:name)", nativeQuery = true)
+    void createIfMissing(@Param("name") String name);
+    
+    /**
+     * Claim the lock if it is free or its lease has expired. The row is locked by the UPDATE,
+     * so of several instances claiming it at once exactly one gets 1.
+     */
+    @Modifying
+    @Query("UPDATE JobLock l SET l.lockedBy = :owner, l.lockedUntil = :until " +
+           "WHERE l.name = :name AND (l.lockedUntil IS NULL OR l.lockedUntil < :now)")
+    int claim(@Param("name") String name, @Param("owner") String owner,
+              @Param("now") Instant now, @Param("until") Instant until);
+    
+    @Modifying
+    @Query("UPDATE JobLock l SET l.lockedBy = NULL, l.lockedUntil = NULL WHERE l.name = :name AND l.lockedBy = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner);
+}
@@ -1,15 +1,25 @@
 package com.souhailbektachi.backend.repositories;
 
+import com.souhailbektachi.backend.dtos.RemboursementDTO;
 import com.souhailbektachi.backend.entities.Remboursement;
 import com.souhailbektachi.backend.entities.TypeRemboursement;
+import com.souhailbektachi.backend.repositories.projections.RemboursementTypeAggregate;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface RemboursementRepository extends JpaRepository<Remboursement, Long> {
+    List<Remboursement> findByIdGreaterThan(Long id, Pageable pageable);
     List<Remboursement> findByCreditId(Long creditId);
     List<Remboursement> findByType(TypeRemboursement type);
     
@@ -20,4 +30,34 @@ public interface RemboursementRepository extends JpaRepository<Remboursement, Lo
     List<Remboursement> findByMontantBetween(Double minAmount, Double maxAmount);
     List<Remboursement> findByMontantGreaterThanEqual(Double minAmount);
     List<Remboursement> findByMontantLessThanEqual(Double maxAmount);
+    
+    long countByDateGreaterThanEqual(LocalDate startDate);
+    
+    /**
+     * Whether the credit already has its installment of the given month, other than the repayment {@code excludedId}
+     */
+    @Query("SELECT COUNT(r) > 0 FROM Remboursement r WHERE r.credit.id = :creditId " +
+           "AND r.type = com.souhailbektachi.backend.entities.TypeRemboursement.MENSUALITE " +
+           "AND r.moisEcheance = :month AND (:excludedId IS NULL OR r.id <> :excludedId)")
+    boolean existsInstallment(@Param("creditId") Long creditId, @Param("month") LocalDate month,
+                              @Param("excludedId") Long excludedId);
+    
+    @Query("SELECT COALESCE(SUM(r.montant), 0) FROM Remboursement r")
+    Double sumMontant();
+    
+    @Query("SELECT r.type AS type, COUNT(r) AS count, COALESCE(SUM(r.montant), 0) AS totalAmount " +
+           "FROM Remboursement r GROUP BY r.type")
+    List<RemboursementTypeAggregate> aggregateByType();
+    
+    /**
+     * All repayments in id order for streaming exports, projected straight into DTOs so that
+     * no entity is loaded into the persistence context
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.souhailbektachi.backend.dtos.RemboursementDTO(r.id, r.date, r.montant, r.type, r.credit.id) " +
+           "FROM Remboursement r ORDER BY r.id")
+    Stream<RemboursementDTO> streamAllForExport();
 }
@@ -0,0 +1,27 @@
+package com.souhailbektachi.backend.repositories;
+
+import com.souhailbektachi.backend.entities.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+    Optional<RevokedToken> findByRevocationKey(String revocationKey);
+
+    @Query("SELECT r.revocationKey FROM RevokedToken r WHERE r.expiresAt > :now")
+    List<String> findActiveRevocationKeys(@Param("now") Instant now);
+
+    @Query("SELECT r.revocationKey FROM RevokedToken r WHERE r.revokedAt >= :since AND r.expiresAt > :now")
+    List<String> findRevocationKeysSince(@Param("since") Instant since, @Param("now") Instant now);
+
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,20 @@
+package com.souhailbektachi.backend.repositories;
+
+import com.souhailbektachi.backend.entities.SearchIndexChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface SearchIndexChangeRepository extends JpaRepository<SearchIndexChange, Long> {
+    List<SearchIndexChange> findByCreatedAtGreaterThanEqualOrderById(Instant since);
+
+    @Modifying
+    @Query("DELETE FROM SearchIndexChange c WHERE c.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") Instant before);
+}
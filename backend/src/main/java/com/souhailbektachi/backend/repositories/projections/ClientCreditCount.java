@@ -0,0 +1,9 @@
+package com.souhailbektachi.backend.repositories.projections;
+
+/**
+ * Number of credits held by a client
+ */
+public interface ClientCreditCount {
+    Long getClientId();
+    Long getCreditCount();
+}
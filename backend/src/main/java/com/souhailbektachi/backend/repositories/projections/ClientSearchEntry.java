@@ -0,0 +1,10 @@
+package com.souhailbektachi.backend.repositories.projections;
+
+/**
+ * Searchable fields of a client
+ */
+public interface ClientSearchEntry {
+    Long getId();
+    String getNom();
+    String getEmail();
+}
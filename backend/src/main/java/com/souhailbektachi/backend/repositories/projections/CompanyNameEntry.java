@@ -0,0 +1,10 @@
+package com.souhailbektachi.backend.repositories.projections;
+
+/**
+ * Company named by a professional credit
+ */
+public interface CompanyNameEntry {
+    Long getCreditId();
+    Long getClientId();
+    String getRaisonSocialeEntreprise();
+}
@@ -0,0 +1,15 @@
+package com.souhailbektachi.backend.repositories.projections;
+
+/**
+ * Aggregated performance metrics for a credit type
+ */
+public interface CreditPerformanceAggregate {
+    Class<?> getCreditType();
+    Long getTotalCount();
+    Long getAcceptedCount();
+    Long getRejectedCount();
+    Double getTotalAmount();
+    Double getAverageAmount();
+    Double getAverageDuration();
+    Double getAverageInterestRate();
+}
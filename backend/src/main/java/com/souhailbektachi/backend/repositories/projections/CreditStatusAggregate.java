@@ -0,0 +1,12 @@
+package com.souhailbektachi.backend.repositories.projections;
+
+import com.souhailbektachi.backend.entities.StatutCredit;
+
+/**
+ * Aggregated credit figures for a single status
+ */
+public interface CreditStatusAggregate {
+    StatutCredit getStatut();
+    Long getCount();
+    Double getTotalAmount();
+}
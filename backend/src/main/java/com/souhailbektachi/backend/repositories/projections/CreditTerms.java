@@ -0,0 +1,14 @@
+package com.souhailbektachi.backend.repositories.projections;
+
+import java.time.LocalDate;
+
+/**
+ * Repayment terms of an accepted credit
+ */
+public interface CreditTerms {
+    Long getCreditId();
+    Double getMontant();
+    Double getTauxInteret();
+    Integer getDureeRemboursement();
+    LocalDate getDateAcception();
+}
@@ -0,0 +1,13 @@
+package com.souhailbektachi.backend.repositories.projections;
+
+import com.souhailbektachi.backend.entities.StatutCredit;
+
+/**
+ * Aggregated credit figures for a (credit type, status) pair
+ */
+public interface CreditTypeStatusAggregate {
+    Class<?> getCreditType();
+    StatutCredit getStatut();
+    Long getCount();
+    Double getTotalAmount();
+}
@@ -0,0 +1,20 @@
+package com.souhailbektachi.backend.repositories.projections;
+
+import java.time.LocalDate;
+
+/**
+ * An accepted credit with its repayment figures, as needed to evaluate delinquency
+ */
+public interface DelinquencyCandidate {
+    Long getCreditId();
+    Class<?> getCreditType();
+    Double getMontant();
+    LocalDate getDateDemande();
+    LocalDate getDateAcception();
+    Integer getDureeRemboursement();
+    Long getClientId();
+    String getClientName();
+    String getClientEmail();
+    Long getMonthlyPayments();
+    LocalDate getLastPaymentDate();
+}
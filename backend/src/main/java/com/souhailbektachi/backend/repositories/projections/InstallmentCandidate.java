@@ -0,0 +1,12 @@
+package com.souhailbektachi.backend.repositories.projections;
+
+/**
+ * Terms of an accepted credit whose monthly installment is due
+ */
+public interface InstallmentCandidate {
+    Long getCreditId();
+    Double getMontant();
+    Double getTauxInteret();
+    Integer getDureeRemboursement();
+    Long getInstallmentsPosted();
+}
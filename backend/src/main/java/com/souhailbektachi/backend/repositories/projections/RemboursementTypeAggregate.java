@@ -0,0 +1,12 @@
+package com.souhailbektachi.backend.repositories.projections;
+
+import com.souhailbektachi.backend.entities.TypeRemboursement;
+
+/**
+ * Aggregated repayment figures for a single repayment type
+ */
+public interface RemboursementTypeAggregate {
+    TypeRemboursement getType();
+    Long getCount();
+    Double getTotalAmount();
+}
@@ -0,0 +1,52 @@
+package com.souhailbektachi.backend.repositories.specifications;
+
+import com.souhailbektachi.backend.entities.Credit;
+import com.souhailbektachi.backend.entities.StatutCredit;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+/**
+ * Composable credit search criteria. Each factory returns null for a null value, which
+ * {@link Specification#where} and {@link Specification#and} ignore, so optional filters can be
+ * chained without branching and only the given ones end up in the WHERE clause.
+ */
+public final class CreditSpecifications {
+
+    private CreditSpecifications() {
+    }
+
+    public static Specification<Credit> montantAtLeast(Double minAmount) {
+        return minAmount == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("montant"), minAmount);
+    }
+
+    public static Specification<Credit> montantAtMost(Double maxAmount) {
+        return maxAmount == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.get("montant"), maxAmount);
+    }
+
+    public static Specification<Credit> demandeFrom(LocalDate startDate) {
+        return startDate == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("dateDemande"), startDate);
+    }
+
+    public static Specification<Credit> demandeUntil(LocalDate endDate) {
+        return endDate == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.get("dateDemande"), endDate);
+    }
+
+    public static Specification<Credit> hasStatut(StatutCredit statut) {
+        return statut == null ? null : (root, query, cb) -> cb.equal(root.get("statut"), statut);
+    }
+
+    /**
+     * Credits of the given subclass (a discriminator or joined-table test, depending on the mapping)
+     */
+    public static Specification<Credit> ofType(Class<? extends Credit> type) {
+        return type == null ? null : (root, query, cb) -> cb.equal(root.type(), type);
+    }
+
+    /**
+     * Credits of the given client, compared on the foreign key without joining the client table
+     */
+    public static Specification<Credit> ofClient(Long clientId) {
+        return clientId == null ? null : (root, query, cb) -> cb.equal(root.get("client").get("id"), clientId);
+    }
+}
@@ -1,5 +1,8 @@
 package com.souhailbektachi.backend.security;
 
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.souhailbektachi.backend.entities.Role;
+import com.souhailbektachi.backend.entities.User;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,11 +26,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final JwtConfig jwtConfig;
     private final CustomUserDetailsService userDetailsService; // Using our own service to break circular dependency
+    private final UserStatusCache userStatusCache;
+    private final TokenRevocationStore tokenRevocationStore;
 
-    public JwtAuthenticationFilter(JwtService jwtService, JwtConfig jwtConfig, CustomUserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtService jwtService, JwtConfig jwtConfig, CustomUserDetailsService userDetailsService,
+                                   UserStatusCache userStatusCache, TokenRevocationStore tokenRevocationStore) {
         this.jwtService = jwtService;
         this.jwtConfig = jwtConfig;
         this.userDetailsService = userDetailsService;
+        this.userStatusCache = userStatusCache;
+        this.tokenRevocationStore = tokenRevocationStore;
     }
 
     @Override
@@ -45,15 +53,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             
             String jwt = authHeader.replace(jwtConfig.getTokenPrefix(), "").trim();
             
-            if (jwt.isEmpty() || !jwtService.validateToken(jwt)) {
+            // Verified once, then served from the verified token cache
+            DecodedJWT decodedJwt = jwt.isEmpty() ? null : jwtService.decodeValidToken(jwt);
+            if (decodedJwt == null || tokenRevocationStore.isRevoked(decodedJwt)) {
                 filterChain.doFilter(request, response);
                 return;
             }
             
-            String username = jwtService.getUsernameFromToken(jwt);
+            String username = decodedJwt.getSubject();
             
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                UserDetails userDetails = jwtConfig.isStateless()
+                        ? fromClaims(decodedJwt)
+                        : userDetailsService.loadUserByUsername(username);
+                if (userDetails == null) {
+                    filterChain.doFilter(request, response);
+                    return;
+                }
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -65,4 +81,28 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
+
+    // Helper methods
+
+    /**
+     * Build the principal from the subject and role claims instead of loading the user,
+     * or return null if the account was disabled
+     */
+    private UserDetails fromClaims(DecodedJWT decodedJwt) {
+        String role = decodedJwt.getClaim("role").asString();
+        if (role == null || !userStatusCache.isEnabled(decodedJwt.getSubject())) {
+            return null;
+        }
+
+        // Same principal type as the stateful mode, without the password
+        User user = new User();
+        user.setId(decodedJwt.getClaim(JwtService.USER_ID_CLAIM).asLong());
+        user.setUsername(decodedJwt.getSubject());
+        try {
+            user.setRole(Role.valueOf(role));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return user;
+    }
 }
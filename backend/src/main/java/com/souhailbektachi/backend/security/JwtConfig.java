@@ -11,6 +11,8 @@ public class JwtConfig {
     private String tokenPrefix;
     private String headerString;
     private String issuer;
+    private int verifiedTokenCacheSize = 10000;
+    private boolean stateless;
 
     public String getSecret() {
         return secret;
@@ -51,4 +53,20 @@ public class JwtConfig {
     public void setIssuer(String issuer) {
         this.issuer = issuer;
     }
+
+    public int getVerifiedTokenCacheSize() {
+        return verifiedTokenCacheSize;
+    }
+
+    public void setVerifiedTokenCacheSize(int verifiedTokenCacheSize) {
+        this.verifiedTokenCacheSize = verifiedTokenCacheSize;
+    }
+
+    public boolean isStateless() {
+        return stateless;
+    }
+
+    public void setStateless(boolean stateless) {
+        this.stateless = stateless;
+    }
 }
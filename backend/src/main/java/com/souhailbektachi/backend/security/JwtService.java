@@ -1,42 +1,69 @@
 package com.souhailbektachi.backend.security;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.souhailbektachi.backend.entities.User;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @RequiredArgsConstructor
 public class JwtService {
     
+    // Id of the user, so that ownership checks need no lookup
+    public static final String USER_ID_CLAIM = "uid";
+
     private final JwtConfig jwtConfig;
 
+    // Built once: the algorithm and the verifier are immutable and thread-safe
+    private Algorithm algorithm;
+    private JWTVerifier verifier;
+
+    // Recently verified tokens, so that a token is verified once and then only looked up until it expires
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        algorithm = Algorithm.HMAC512(jwtConfig.getSecret());
+        verifier = JWT.require(algorithm)
+                .withIssuer(jwtConfig.getIssuer())
+                .build();
+    }
+
     public String generateToken(Authentication authentication) {
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
         return JWT.create()
                 .withSubject(userDetails.getUsername())
+                .withClaim(USER_ID_CLAIM, userDetails instanceof User user ? user.getId() : null)
                 .withClaim("role", userDetails.getAuthorities().iterator().next().getAuthority())
                 .withIssuedAt(new Date())
                 .withExpiresAt(new Date(System.currentTimeMillis() + jwtConfig.getTokenExpirationMs()))
                 .withIssuer(jwtConfig.getIssuer())
-                .sign(Algorithm.HMAC512(jwtConfig.getSecret()));
+                .withJWTId(UUID.randomUUID().toString())
+                .sign(algorithm);
     }
 
     public String generateToken(User user) {
         return JWT.create()
                 .withSubject(user.getUsername())
+                .withClaim(USER_ID_CLAIM, user.getId())
                 .withClaim("role", user.getRole().name())
                 .withIssuedAt(new Date())
                 .withExpiresAt(new Date(System.currentTimeMillis() + jwtConfig.getTokenExpirationMs()))
                 .withIssuer(jwtConfig.getIssuer())
-                .sign(Algorithm.HMAC512(jwtConfig.getSecret()));
+                .withJWTId(UUID.randomUUID().toString())
+                .sign(algorithm);
     }
 
     public String getUsernameFromToken(String token) {
@@ -45,22 +72,67 @@ public class JwtService {
     }
 
     public DecodedJWT verifyToken(String token) {
+        DecodedJWT jwt = decodeValidToken(token);
+        if (jwt == null) {
+            throw new RuntimeException("Invalid JWT token");
+        }
+        return jwt;
+    }
+
+    /**
+     * Decoded claims of a valid token, or null if the token is invalid or expired.
+     * The signature is only verified the first time a token is seen; afterwards the
+     * decoded token is served from memory until its expiration.
+     */
+    public DecodedJWT decodeValidToken(String token) {
+        long now = System.currentTimeMillis();
+        VerifiedToken cached = verifiedTokens.get(token);
+        if (cached != null) {
+            if (now < cached.expiresAt) {
+                return cached.jwt;
+            }
+            verifiedTokens.remove(token);
+            return null;
+        }
+
+        DecodedJWT jwt;
         try {
-            return JWT.require(Algorithm.HMAC512(jwtConfig.getSecret()))
-                    .withIssuer(jwtConfig.getIssuer())
-                    .build()
-                    .verify(token);
+            jwt = verifier.verify(token);
         } catch (JWTVerificationException exception) {
-            throw new RuntimeException("Invalid JWT token", exception);
+            return null;
         }
+
+        // Tokens without expiration are not cached
+        if (jwt.getExpiresAt() != null) {
+            cacheVerifiedToken(token, jwt, now);
+        }
+        return jwt;
     }
 
     public boolean validateToken(String token) {
-        try {
-            verifyToken(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+        return decodeValidToken(token) != null;
+    }
+
+    // Helper methods
+
+    private void cacheVerifiedToken(String token, DecodedJWT jwt, long now) {
+        if (verifiedTokens.size() >= jwtConfig.getVerifiedTokenCacheSize()) {
+            verifiedTokens.values().removeIf(entry -> entry.expiresAt <= now);
+            if (verifiedTokens.size() >= jwtConfig.getVerifiedTokenCacheSize()) {
+                // Still full of live tokens: start over rather than track recency on the hot path
+                verifiedTokens.clear();
+            }
+        }
+        verifiedTokens.put(token, new VerifiedToken(jwt, jwt.getExpiresAt().getTime()));
+    }
+
+    private static final class VerifiedToken {
+        private final DecodedJWT jwt;
+        private final long expiresAt;
+
+        private VerifiedToken(DecodedJWT jwt, long expiresAt) {
+            this.jwt = jwt;
+            this.expiresAt = expiresAt;
         }
     }
 }
@@ -0,0 +1,156 @@
+package com.souhailbektachi.backend.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token-bucket limits on login attempts, per client IP and per username, checked before any
+ * password is hashed. Registrations hash a password too and take from the same IP buckets.
+ * Each bucket holds {@code capacity} attempts and refills continuously at
+ * {@code refill-per-minute}; buckets that are full again are dropped periodically.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final Map<String, TokenBucket> ipBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> usernameBuckets = new ConcurrentHashMap<>();
+
+    private final int ipCapacity;
+    private final double ipRefillPerNano;
+    private final int usernameCapacity;
+    private final double usernameRefillPerNano;
+
+    private final AtomicLong allowed = new AtomicLong();
+    private final AtomicLong rejectedByIp = new AtomicLong();
+    private final AtomicLong rejectedByUsername = new AtomicLong();
+
+    public LoginRateLimiter(@Value("${auth.login.rate-limit.ip.capacity:20}") int ipCapacity,
+                            @Value("${auth.login.rate-limit.ip.refill-per-minute:20}") int ipRefillPerMinute,
+                            @Value("${auth.login.rate-limit.username.capacity:5}") int usernameCapacity,
+                            @Value("${auth.login.rate-limit.username.refill-per-minute:5}") int usernameRefillPerMinute) {
+        this.ipCapacity = ipCapacity;
+        this.ipRefillPerNano = ipRefillPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.usernameCapacity = usernameCapacity;
+        this.usernameRefillPerNano = usernameRefillPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+    }
+
+    /**
+     * Take one login attempt from the buckets of the IP and of the username
+     *
+     * @return 0 if the attempt is allowed, otherwise the number of seconds to wait before retrying
+     */
+    public long tryAcquire(String username, String ip) {
+        long now = System.nanoTime();
+
+        long ipWait = tryConsumeIp(ip, now);
+        if (ipWait > 0) {
+            return toSeconds(ipWait);
+        }
+
+        String user = username.toLowerCase(Locale.ROOT);
+        long usernameWait = usernameBuckets.computeIfAbsent(user, key -> new TokenBucket(usernameCapacity, usernameRefillPerNano, now))
+                .tryConsume(now);
+        if (usernameWait > 0) {
+            rejectedByUsername.incrementAndGet();
+            return toSeconds(usernameWait);
+        }
+
+        allowed.incrementAndGet();
+        return 0;
+    }
+
+    /**
+     * Take one attempt from the bucket of the IP only (registrations, which have no username yet)
+     *
+     * @return 0 if the attempt is allowed, otherwise the number of seconds to wait before retrying
+     */
+    public long tryAcquire(String ip) {
+        long ipWait = tryConsumeIp(ip, System.nanoTime());
+        if (ipWait > 0) {
+            return toSeconds(ipWait);
+        }
+        allowed.incrementAndGet();
+        return 0;
+    }
+
+    @Scheduled(fixedDelayString = "${auth.login.rate-limit.purge-interval-ms:60000}")
+    public void purgeIdleBuckets() {
+        long now = System.nanoTime();
+        ipBuckets.values().removeIf(bucket -> bucket.isFull(now));
+        usernameBuckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    /**
+     * Rate limiting statistics (tracked buckets, allowed and rejected attempts)
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("trackedIps", ipBuckets.size());
+        stats.put("trackedUsernames", usernameBuckets.size());
+        stats.put("allowed", allowed.get());
+        stats.put("rejectedByIp", rejectedByIp.get());
+        stats.put("rejectedByUsername", rejectedByUsername.get());
+        return stats;
+    }
+
+    // Helper methods
+
+    private long tryConsumeIp(String ip, long now) {
+        long wait = ipBuckets.computeIfAbsent(ip, key -> new TokenBucket(ipCapacity, ipRefillPerNano, now))
+                .tryConsume(now);
+        if (wait > 0) {
+            rejectedByIp.incrementAndGet();
+        }
+        return wait;
+    }
+
+    private static long toSeconds(long nanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    static final class TokenBucket {
+        private final int capacity;
+        private final double refillPerNano;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(int capacity, double refillPerNano, long now) {
+            this.capacity = capacity;
+            this.refillPerNano = refillPerNano;
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        /**
+         * @return 0 if a token was taken, otherwise the nanoseconds until the next token
+         */
+        synchronized long tryConsume(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return refillPerNano > 0 ? (long) Math.ceil((1 - tokens) / refillPerNano) : Long.MAX_VALUE;
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+
+        private void refill(long now) {
+            if (now > lastRefill) {
+                tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+                lastRefill = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.souhailbektachi.backend.security;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool running the BCrypt work of the authentication endpoints off the servlet threads.
+ *
+ * At most {@code threads} hashes run at once and {@code queue-capacity} wait; beyond that tasks
+ * are rejected immediately, so a flood of logins can neither starve the request threads used by
+ * the rest of the API nor build an unbounded backlog.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalQueueWaitNanos = new AtomicLong();
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+
+    public PasswordHashingExecutor(@Value("${auth.hashing.threads:4}") int threads,
+                                   @Value("${auth.hashing.queue-capacity:64}") int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Run {@code task} on the hashing pool
+     *
+     * @throws RejectedExecutionException if the pool and its queue are full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long submitted = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long wait = System.nanoTime() - submitted;
+                totalQueueWaitNanos.addAndGet(wait);
+                maxQueueWaitNanos.accumulateAndGet(wait, Math::max);
+                return task.get();
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Pool saturation statistics (threads, queue, completed and rejected tasks, queue wait)
+     */
+    public Map<String, Object> getStats() {
+        long completed = executor.getCompletedTaskCount();
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("threads", executor.getMaximumPoolSize());
+        stats.put("activeThreads", executor.getActiveCount());
+        stats.put("queuedTasks", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("completedTasks", completed);
+        stats.put("rejectedTasks", rejected.get());
+        stats.put("averageQueueWaitMs", completed > 0 ? totalQueueWaitNanos.get() / completed / 1_000_000.0 : 0.0);
+        stats.put("maxQueueWaitMs", maxQueueWaitNanos.get() / 1_000_000.0);
+        return stats;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
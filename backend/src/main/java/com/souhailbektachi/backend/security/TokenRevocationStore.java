@@ -0,0 +1,233 @@
+package com.souhailbektachi.backend.security;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.souhailbektachi.backend.entities.RevokedToken;
+import com.souhailbektachi.backend.repositories.RevokedTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Revoked tokens, stored in the revoked_token table and fronted by an in-memory Bloom filter.
+ *
+ * Every authenticated request checks the filter for the token id and for its user; only a
+ * possible hit (a revoked token, or a false positive about 1% of the time) reads the table.
+ * The filter is rebuilt periodically from the unexpired revocations, which drops the expired
+ * ones. Revocations made by other instances are added by a shorter poll of the recent ones:
+ * until then (poll-interval-ms, 5 seconds by default) a token revoked on another instance is
+ * still accepted here.
+ *
+ * JWT issue times have a precision of one second, so revocation times are truncated to the
+ * second and a user revocation covers every token issued up to the end of that second.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationStore {
+
+    private static final String TOKEN_PREFIX = "jti:";
+    private static final String USER_PREFIX = "user:";
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int MIN_CAPACITY = 1024;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final JwtConfig jwtConfig;
+    private final TransactionTemplate transactionTemplate;
+
+    // Covers the commit delay of a revocation and the clock skew between instances
+    @Value("${auth0.jwt.revocation.poll-overlap-ms:10000}")
+    private long pollOverlapMs;
+
+    // Null until the first rebuild: every check then reads the table
+    private volatile BloomFilter filter;
+    // Not a monitor: the rebuild queries the database while holding it, which would pin a virtual thread
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile Instant lastPoll;
+
+    /**
+     * Whether the token, or every token of its user, was revoked
+     */
+    public boolean isRevoked(DecodedJWT jwt) {
+        BloomFilter current = filter;
+
+        String tokenId = jwt.getId();
+        if (tokenId != null && (current == null || current.mightContain(TOKEN_PREFIX, tokenId))
+                && revokedTokenRepository.findByRevocationKey(TOKEN_PREFIX + tokenId).isPresent()) {
+            return true;
+        }
+
+        String username = jwt.getSubject();
+        if (username != null && (current == null || current.mightContain(USER_PREFIX, username))) {
+            Date issuedAt = jwt.getIssuedAt();
+            return revokedTokenRepository.findByRevocationKey(USER_PREFIX + username)
+                    .map(revocation -> issuedAt == null
+                            || issuedAt.toInstant().getEpochSecond() <= revocation.getRevokedAt().getEpochSecond())
+                    .orElse(false);
+        }
+        return false;
+    }
+
+    /**
+     * Revoke a single token until its expiration (tokens without an id cannot be revoked individually)
+     */
+    public void revokeToken(DecodedJWT jwt) {
+        if (jwt.getId() == null || jwt.getExpiresAt() == null) {
+            return;
+        }
+        save(TOKEN_PREFIX + jwt.getId(), jwt.getSubject(), Instant.now().truncatedTo(ChronoUnit.SECONDS),
+                jwt.getExpiresAt().toInstant());
+    }
+
+    /**
+     * Revoke every token issued to {@code username} so far
+     */
+    public void revokeUser(String username) {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        save(USER_PREFIX + username, username, now, now.plusMillis(jwtConfig.getTokenExpirationMs()));
+    }
+
+    @Scheduled(fixedDelayString = "${auth0.jwt.revocation.rebuild-interval-ms:300000}")
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            Instant now = Instant.now();
+            lastPoll = now;
+            List<String> keys = transactionTemplate.execute(status -> {
+                revokedTokenRepository.deleteExpired(now);
+                return revokedTokenRepository.findActiveRevocationKeys(now);
+            });
+
+            BloomFilter rebuilt = new BloomFilter(Math.max(MIN_CAPACITY, keys.size() * 2), FALSE_POSITIVE_RATE);
+            for (String key : keys) {
+                rebuilt.add("", key);
+            }
+            filter = rebuilt;
+            log.debug("Token revocation filter rebuilt with {} revocations", keys.size());
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Add the revocations made since the previous poll, on this instance or another one
+     */
+    @Scheduled(fixedDelayString = "${auth0.jwt.revocation.poll-interval-ms:5000}")
+    public void pollRecent() {
+        Instant since = lastPoll;
+        if (since == null || filter == null) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<String> keys = revokedTokenRepository.findRevocationKeysSince(since.minusMillis(pollOverlapMs), now);
+        keys.forEach(this::addToFilter);
+        lastPoll = now;
+    }
+
+    // Helper methods
+
+    private void save(String key, String username, Instant revokedAt, Instant expiresAt) {
+        RevokedToken revocation = revokedTokenRepository.findByRevocationKey(key).orElseGet(RevokedToken::new);
+        revocation.setRevocationKey(key);
+        revocation.setUsername(username);
+        revocation.setRevokedAt(revokedAt);
+        revocation.setExpiresAt(expiresAt);
+        revokedTokenRepository.save(revocation);
+
+        // Add to the filter once the row is visible, so that a concurrent rebuild cannot miss it
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addToFilter(key);
+                }
+            });
+        } else {
+            addToFilter(key);
+        }
+    }
+
+    private void addToFilter(String key) {
+        rebuildLock.lock();
+        try {
+            BloomFilter current = filter;
+            if (current != null) {
+                current.add("", key);
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Fixed-size Bloom filter over strings. A key is hashed as the concatenation of a prefix and
+     * a value, so lookups do not build the key string and allocate nothing.
+     */
+    static final class BloomFilter {
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+
+        BloomFilter(int capacity, double falsePositiveRate) {
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int words = (int) ((optimalBits + 63) / 64);
+            bits = new AtomicLongArray(words);
+            bitCount = words * 64L;
+            hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+        }
+
+        void add(String prefix, String value) {
+            long h1 = hash(prefix, value, 0xcbf29ce484222325L);
+            long h2 = hash(prefix, value, 0x84222325cbf29ce4L);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = bits.get(word);
+                } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String prefix, String value) {
+            long h1 = hash(prefix, value, 0xcbf29ce484222325L);
+            long h2 = hash(prefix, value, 0x84222325cbf29ce4L);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // FNV-1a over the characters of prefix + value, followed by a 64-bit finalizer
+        private static long hash(String prefix, String value, long seed) {
+            long h = seed;
+            for (int i = 0; i < prefix.length(); i++) {
+                h = (h ^ prefix.charAt(i)) * 0x100000001b3L;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                h = (h ^ value.charAt(i)) * 0x100000001b3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.souhailbektachi.backend.security;
 
+import com.souhailbektachi.backend.entities.User;
 import com.souhailbektachi.backend.repositories.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
@@ -18,6 +19,12 @@ public class UserSecurity {
             return false;
         }
 
+        // The principal carries the user id (loaded user or "uid" claim): compare in memory
+        if (authentication.getPrincipal() instanceof User user && user.getId() != null) {
+            return user.getId().equals(userId);
+        }
+
+        // Tokens issued before the "uid" claim existed
         String currentUsername = authentication.getName();
         return userRepository.findById(userId)
                 .map(user -> user.getUsername().equals(currentUsername))
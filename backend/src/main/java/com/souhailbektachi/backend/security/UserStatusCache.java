@@ -0,0 +1,59 @@
+package com.souhailbektachi.backend.security;
+
+import com.souhailbektachi.backend.repositories.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Account status used by the stateless authentication, so that requests do not read the users table.
+ *
+ * The enabled flag of each user is cached for a short time. Accounts disabled, deleted or changed
+ * also have their tokens revoked through {@link TokenRevocationStore}, which takes effect immediately
+ * without waiting for the cached flag to expire.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserStatusCache {
+
+    private final UserRepository userRepository;
+
+    @Value("${auth0.jwt.user-status-ttl-ms:60000}")
+    private long ttlMs;
+
+    private final Map<String, CachedStatus> statuses = new ConcurrentHashMap<>();
+
+    /**
+     * Whether the account of {@code username} exists and is enabled
+     */
+    public boolean isEnabled(String username) {
+        long now = System.currentTimeMillis();
+        CachedStatus status = statuses.get(username);
+        if (status == null || now >= status.expiresAt) {
+            boolean enabled = userRepository.findEnabledByUsername(username).orElse(false);
+            status = new CachedStatus(enabled, now + ttlMs);
+            statuses.put(username, status);
+        }
+        return status.enabled;
+    }
+
+    /**
+     * Forget the cached enabled flag of {@code username}
+     */
+    public void evict(String username) {
+        statuses.remove(username);
+    }
+
+    private static final class CachedStatus {
+        private final boolean enabled;
+        private final long expiresAt;
+
+        private CachedStatus(boolean enabled, long expiresAt) {
+            this.enabled = enabled;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
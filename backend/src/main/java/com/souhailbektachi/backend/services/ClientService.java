@@ -4,12 +4,22 @@ import com.souhailbektachi.backend.dtos.ClientDTO;
 import com.souhailbektachi.backend.dtos.ClientRequestDTO;
 import com.souhailbektachi.backend.dtos.ClientSummaryDTO;
 import com.souhailbektachi.backend.dtos.CreditSummaryDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 
 public interface ClientService {
 
-    List<ClientSummaryDTO> getAllClients();
+    Page<ClientSummaryDTO> getAllClients(Pageable pageable);
+
+    /**
+     * Scroll through clients in ID order using the last seen ID as a keyset cursor.
+     * @param afterId Only clients with a greater ID are returned (optional, from the start if null).
+     * @param size Maximum number of clients to return.
+     * @return Clients ordered by ID.
+     */
+    List<ClientSummaryDTO> scrollClients(Long afterId, int size);
 
     ClientDTO getClientById(Long id);
 
@@ -2,7 +2,11 @@ package com.souhailbektachi.backend.services;
 
 import com.souhailbektachi.backend.dtos.*;
 import com.souhailbektachi.backend.entities.StatutCredit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -13,11 +17,31 @@ import java.util.Map;
 public interface CreditService {
 
     /**
-     * Retrieve all credits
+     * Retrieve one page of credits
      * 
-     * @return List of all credits with summary information
+     * @param pageable Page number, size and sort order
+     * @return Page of credits with summary information
      */
-    List<CreditSummaryDTO> getAllCredits();
+    Page<CreditSummaryDTO> getAllCredits(Pageable pageable);
+
+    /**
+     * Scroll through credits in ID order using the last seen ID as a keyset cursor
+     * 
+     * @param afterId Only credits with a greater ID are returned (optional, from the start if null)
+     * @param size Maximum number of credits to return
+     * @return Credits with summary information, ordered by ID
+     * @throws RuntimeException if the size is out of range
+     */
+    List<CreditSummaryDTO> scrollCredits(Long afterId, int size);
+
+    /**
+     * Stream every credit (summary information) to the given output, one row at a time
+     * 
+     * @param format NDJSON or CSV
+     * @param outputStream Destination of the export (not closed)
+     * @throws IOException if writing to the output fails
+     */
+    void exportCredits(ExportFormat format, OutputStream outputStream) throws IOException;
 
     /**
      * Get detailed information for a specific credit
@@ -107,7 +131,16 @@ public interface CreditService {
      * @return List of scheduled payments with amounts and dates
      * @throws RuntimeException if credit is not found
      */
-    List<Map<String, Object>> getPaymentSchedule(Long id);
+    List<PaymentScheduleEntryDTO> getPaymentSchedule(Long id);
+    
+    /**
+     * Project the expected repayments of all accepted credits, month by month, from the current month
+     * 
+     * @param months Number of months of the projection
+     * @return Projection totals and the expected principal and interest of each month
+     * @throws RuntimeException if the number of months is out of range
+     */
+    Map<String, Object> getPortfolioCashFlowProjection(int months);
     
     /**
      * Validate a new credit application
@@ -117,12 +150,21 @@ public interface CreditService {
      */
     Map<String, Object> validateCreditApplication(CreditRequestDTO creditRequestDTO);
     
+    /**
+     * Search for credits matching every given criterion, in a single paginated query
+     * 
+     * @param criteria Amount range, application date range, status, type and client (all optional)
+     * @param pageable Page to return
+     * @return Page of matching credits
+     */
+    Page<CreditSummaryDTO> searchCredits(CreditSearchCriteria criteria, Pageable pageable);
+    
     /**
      * Search for credits by amount range
      * 
      * @param minAmount Minimum amount (optional)
      * @param maxAmount Maximum amount (optional)
-     * @return List of credits within the specified amount range
+     * @return Credits within the specified amount range, in ID order (at most the first 1000, see {@link #searchCredits})
      */
     List<CreditSummaryDTO> searchCreditsByAmountRange(Double minAmount, Double maxAmount);
     
@@ -131,7 +173,7 @@ public interface CreditService {
      * 
      * @param startDate Start date (optional)
      * @param endDate End date (optional)
-     * @return List of credits within the specified date range
+     * @return Credits within the specified date range, in ID order (at most the first 1000, see {@link #searchCredits})
      */
     List<CreditSummaryDTO> searchCreditsByDateRange(LocalDate startDate, LocalDate endDate);
 
@@ -1,9 +1,14 @@
 package com.souhailbektachi.backend.services;
 
+import com.souhailbektachi.backend.dtos.ExportFormat;
 import com.souhailbektachi.backend.dtos.RemboursementDTO;
 import com.souhailbektachi.backend.dtos.RemboursementRequestDTO;
 import com.souhailbektachi.backend.entities.TypeRemboursement;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -14,11 +19,31 @@ import java.util.Map;
 public interface RemboursementService {
 
     /**
-     * Retrieve all repayments
+     * Retrieve one page of repayments
      * 
-     * @return List of all repayments
+     * @param pageable Page number, size and sort order
+     * @return Page of repayments
      */
-    List<RemboursementDTO> getAllRemboursements();
+    Page<RemboursementDTO> getAllRemboursements(Pageable pageable);
+
+    /**
+     * Scroll through repayments in ID order using the last seen ID as a keyset cursor
+     * 
+     * @param afterId Only repayments with a greater ID are returned (optional, from the start if null)
+     * @param size Maximum number of repayments to return
+     * @return Repayments ordered by ID
+     * @throws RuntimeException if the size is out of range
+     */
+    List<RemboursementDTO> scrollRemboursements(Long afterId, int size);
+
+    /**
+     * Stream every repayment to the given output, one row at a time
+     * 
+     * @param format NDJSON or CSV
+     * @param outputStream Destination of the export (not closed)
+     * @throws IOException if writing to the output fails
+     */
+    void exportRemboursements(ExportFormat format, OutputStream outputStream) throws IOException;
 
     /**
      * Get detailed information for a specific repayment
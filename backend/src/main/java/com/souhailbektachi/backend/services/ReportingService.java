@@ -63,6 +63,15 @@ public interface ReportingService {
      */
     List<Map<String, Object>> getDelinquentLoansReport();
     
+    /**
+     * Generate one page of the delinquent loans report, using the credit ID as a keyset cursor
+     * 
+     * @param afterCreditId Only credits with a greater ID are returned (optional, from the start if null)
+     * @param limit Maximum number of delinquent loans to return
+     * @return Delinquent loans ordered by credit ID
+     */
+    List<Map<String, Object>> getDelinquentLoansReport(Long afterCreditId, int limit);
+    
     /**
      * Generate dashboard summary with key metrics
      * 
@@ -0,0 +1,16 @@
+package com.souhailbektachi.backend.services;
+
+import com.souhailbektachi.backend.dtos.SuggestionDTO;
+
+import java.util.List;
+
+public interface SearchService {
+
+    /**
+     * Typeahead suggestions among the client names and the company names of the professional credits.
+     * @param prefix Beginning of the name, case and accents ignored.
+     * @param limit Maximum number of suggestions to return.
+     * @return Matching names in alphabetical order.
+     */
+    List<SuggestionDTO> suggest(String prefix, int limit);
+}
@@ -0,0 +1,184 @@
+package com.souhailbektachi.backend.services.impl;
+
+import com.souhailbektachi.backend.dtos.PaymentScheduleEntryDTO;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Annuity (constant monthly payment) amortization in exact cents.
+ *
+ * Amounts are {@code long} cents: the interest of each month is rounded to the cent once,
+ * the principal is the payment minus that interest, and the last installment absorbs the
+ * remaining balance, so the principal parts always add up to the borrowed amount.
+ * Schedules are walked with a primitive callback ({@link InstallmentVisitor}) or stored in
+ * primitive arrays ({@link Schedule}); no object is allocated per installment.
+ */
+public final class AmortizationEngine {
+
+    private AmortizationEngine() {
+    }
+
+    /**
+     * Receives each installment of a schedule as primitives
+     */
+    @FunctionalInterface
+    public interface InstallmentVisitor {
+        void visit(int number, long paymentCents, long principalCents, long interestCents, long balanceCents);
+    }
+
+    /**
+     * Constant monthly payment: {@code P * r * (1 + r)^n / ((1 + r)^n - 1)}, or {@code P / n} without interest
+     *
+     * @param principalCents Borrowed amount in cents
+     * @param annualRatePercent Annual interest rate in percent
+     * @param months Number of monthly installments
+     * @return Monthly payment in cents
+     */
+    public static long monthlyPaymentCents(long principalCents, double annualRatePercent, int months) {
+        if (months <= 0) {
+            return 0;
+        }
+        double monthlyRate = monthlyRate(annualRatePercent);
+        if (monthlyRate == 0) {
+            return Math.round((double) principalCents / months);
+        }
+        double growth = Math.pow(1 + monthlyRate, months);
+        return Math.round(principalCents * (monthlyRate * growth / (growth - 1)));
+    }
+
+    /**
+     * Payment of the last installment, which absorbs the rounding of the previous ones
+     */
+    public static long lastPaymentCents(long principalCents, double annualRatePercent, int months) {
+        long[] last = {0};
+        forEachInstallment(principalCents, annualRatePercent, months,
+                (number, payment, principal, interest, balance) -> last[0] = payment);
+        return last[0];
+    }
+
+    /**
+     * Walk the installments of a schedule without allocating
+     */
+    public static void forEachInstallment(long principalCents, double annualRatePercent, int months,
+                                          InstallmentVisitor visitor) {
+        double monthlyRate = monthlyRate(annualRatePercent);
+        long payment = monthlyPaymentCents(principalCents, annualRatePercent, months);
+        long balance = principalCents;
+
+        for (int month = 1; month <= months; month++) {
+            long interest = Math.round(balance * monthlyRate);
+            long principal = month == months ? balance : Math.min(payment - interest, balance);
+            balance -= principal;
+            visitor.visit(month, principal + interest, principal, interest, balance);
+        }
+    }
+
+    /**
+     * Sum of the interest parts of all installments
+     */
+    public static long totalInterestCents(long principalCents, double annualRatePercent, int months) {
+        long[] total = {0};
+        forEachInstallment(principalCents, annualRatePercent, months,
+                (number, payment, principal, interest, balance) -> total[0] += interest);
+        return total[0];
+    }
+
+    /**
+     * Compute a full schedule into primitive arrays
+     */
+    public static Schedule schedule(long principalCents, double annualRatePercent, int months, LocalDate startDate) {
+        Schedule schedule = new Schedule(Math.max(months, 0), startDate,
+                monthlyPaymentCents(principalCents, annualRatePercent, months));
+        forEachInstallment(principalCents, annualRatePercent, months, (number, payment, principal, interest, balance) -> {
+            int i = number - 1;
+            schedule.payment[i] = payment;
+            schedule.principal[i] = principal;
+            schedule.interest[i] = interest;
+            schedule.balance[i] = balance;
+        });
+        return schedule;
+    }
+
+    public static long toCents(Double amount) {
+        return amount != null ? Math.round(amount * 100.0) : 0;
+    }
+
+    public static double fromCents(long cents) {
+        return cents / 100.0;
+    }
+
+    private static double monthlyRate(double annualRatePercent) {
+        return annualRatePercent / 100.0 / 12.0;
+    }
+
+    /**
+     * Amortization table held column-wise in primitive arrays (one slot per installment)
+     */
+    public static final class Schedule {
+        private final LocalDate startDate;
+        private final long monthlyPaymentCents;
+        private final long[] payment;
+        private final long[] principal;
+        private final long[] interest;
+        private final long[] balance;
+
+        private Schedule(int size, LocalDate startDate, long monthlyPaymentCents) {
+            this.startDate = startDate;
+            this.monthlyPaymentCents = monthlyPaymentCents;
+            this.payment = new long[size];
+            this.principal = new long[size];
+            this.interest = new long[size];
+            this.balance = new long[size];
+        }
+
+        public int size() {
+            return payment.length;
+        }
+
+        public long getMonthlyPaymentCents() {
+            return monthlyPaymentCents;
+        }
+
+        public long getPaymentCents(int index) {
+            return payment[index];
+        }
+
+        public long getPrincipalCents(int index) {
+            return principal[index];
+        }
+
+        public long getInterestCents(int index) {
+            return interest[index];
+        }
+
+        public long getBalanceCents(int index) {
+            return balance[index];
+        }
+
+        public LocalDate getPaymentDate(int index) {
+            return startDate.plusMonths(index + 1L);
+        }
+
+        public long getTotalInterestCents() {
+            long total = 0;
+            for (long value : interest) {
+                total += value;
+            }
+            return total;
+        }
+
+        /**
+         * Typed rows of the schedule, e.g. for a JSON response
+         */
+        public List<PaymentScheduleEntryDTO> toEntries() {
+            List<PaymentScheduleEntryDTO> entries = new ArrayList<>(size());
+            for (int i = 0; i < size(); i++) {
+                entries.add(new PaymentScheduleEntryDTO(i + 1, getPaymentDate(i), fromCents(payment[i]),
+                        fromCents(principal[i]), fromCents(interest[i]), fromCents(balance[i])));
+            }
+            return entries;
+        }
+    }
+}
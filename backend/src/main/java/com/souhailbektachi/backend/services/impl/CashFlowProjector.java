@@ -0,0 +1,196 @@
+package com.souhailbektachi.backend.services.impl;
+
+import com.souhailbektachi.backend.dtos.MonthlyCashFlowDTO;
+import com.souhailbektachi.backend.repositories.CreditRepository;
+import com.souhailbektachi.backend.repositories.projections.CreditTerms;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Projects the expected monthly repayments of the whole accepted portfolio.
+ *
+ * The terms of the accepted credits are read in id-ordered chunks; each chunk is copied into
+ * primitive arrays and amortized on the common fork/join pool (split until small leaves, each
+ * leaf summing its installments into its own per-month accumulator, merged on join), while
+ * the next chunk is being read. Only installments falling in the projection window are kept.
+ */
+@Component
+@RequiredArgsConstructor
+public class CashFlowProjector {
+
+    private static final int LEAF_SIZE = 256;
+
+    private final CreditRepository creditRepository;
+
+    @Value("${reporting.projection.chunk-size:5000}")
+    private int chunkSize;
+
+    /**
+     * Project the cash flow of the accepted credits over {@code months} months starting with {@code startMonth}
+     *
+     * @return Projection window, totals and one row per month
+     */
+    public Map<String, Object> project(YearMonth startMonth, int months) {
+        long[] principal = new long[months];
+        long[] interest = new long[months];
+        long credits = 0;
+
+        long cursor = 0L;
+        PageRequest chunk = PageRequest.of(0, chunkSize);
+        ForkJoinTask<long[]> pending = null;
+
+        while (true) {
+            List<CreditTerms> terms = creditRepository.findAcceptedCreditTerms(cursor, chunk);
+
+            // Read the next chunk while the previous one is being amortized
+            if (!terms.isEmpty()) {
+                credits += terms.size();
+                cursor = terms.get(terms.size() - 1).getCreditId();
+                ForkJoinTask<long[]> task = ForkJoinPool.commonPool().submit(
+                        new ProjectionTask(new Chunk(terms, startMonth), 0, terms.size(), months));
+                if (pending != null) {
+                    accumulate(pending.join(), principal, interest);
+                }
+                pending = task;
+            }
+
+            if (terms.size() < chunkSize) {
+                break;
+            }
+        }
+        if (pending != null) {
+            accumulate(pending.join(), principal, interest);
+        }
+
+        return toResult(startMonth, months, credits, principal, interest);
+    }
+
+    // Helper methods
+
+    private static void accumulate(long[] partial, long[] principal, long[] interest) {
+        int months = principal.length;
+        for (int m = 0; m < months; m++) {
+            principal[m] += partial[m];
+            interest[m] += partial[months + m];
+        }
+    }
+
+    private static Map<String, Object> toResult(YearMonth startMonth, int months, long credits,
+                                                long[] principal, long[] interest) {
+        List<MonthlyCashFlowDTO> rows = new ArrayList<>(months);
+        long totalPrincipal = 0;
+        long totalInterest = 0;
+        for (int m = 0; m < months; m++) {
+            totalPrincipal += principal[m];
+            totalInterest += interest[m];
+            rows.add(new MonthlyCashFlowDTO(startMonth.plusMonths(m),
+                    AmortizationEngine.fromCents(principal[m] + interest[m]),
+                    AmortizationEngine.fromCents(principal[m]),
+                    AmortizationEngine.fromCents(interest[m])));
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("startMonth", startMonth);
+        result.put("endMonth", startMonth.plusMonths(months - 1L));
+        result.put("creditCount", credits);
+        result.put("totalPrincipal", AmortizationEngine.fromCents(totalPrincipal));
+        result.put("totalInterest", AmortizationEngine.fromCents(totalInterest));
+        result.put("totalCashFlow", AmortizationEngine.fromCents(totalPrincipal + totalInterest));
+        result.put("monthlyCashFlows", rows);
+        return result;
+    }
+
+    /**
+     * Terms of one chunk of credits in primitive arrays
+     */
+    private static final class Chunk {
+        private final long[] principalCents;
+        private final double[] annualRatePercent;
+        private final int[] months;
+        private final int[] firstMonthOffset;
+
+        private Chunk(List<CreditTerms> terms, YearMonth startMonth) {
+            int size = terms.size();
+            principalCents = new long[size];
+            annualRatePercent = new double[size];
+            months = new int[size];
+            firstMonthOffset = new int[size];
+
+            long start = startMonth.getYear() * 12L + startMonth.getMonthValue() - 1;
+            for (int i = 0; i < size; i++) {
+                CreditTerms credit = terms.get(i);
+                principalCents[i] = AmortizationEngine.toCents(credit.getMontant());
+                annualRatePercent[i] = credit.getTauxInteret() != null ? credit.getTauxInteret() : 0.0;
+                months[i] = credit.getDureeRemboursement() != null ? credit.getDureeRemboursement() : 0;
+                // Installment k is due k months after the month of acceptance
+                long accepted = credit.getDateAcception().getYear() * 12L + credit.getDateAcception().getMonthValue() - 1;
+                firstMonthOffset[i] = (int) (accepted - start);
+            }
+        }
+    }
+
+    /**
+     * Amortizes the credits [from, to) of a chunk into a {@code [principal..., interest...]} accumulator
+     */
+    private static final class ProjectionTask extends RecursiveTask<long[]>
+            implements AmortizationEngine.InstallmentVisitor {
+
+        private final Chunk chunk;
+        private final int from;
+        private final int to;
+        private final int months;
+
+        private long[] accumulator;
+        private int offset;
+
+        private ProjectionTask(Chunk chunk, int from, int to, int months) {
+            this.chunk = chunk;
+            this.from = from;
+            this.to = to;
+            this.months = months;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= LEAF_SIZE) {
+                accumulator = new long[2 * months];
+                for (int i = from; i < to; i++) {
+                    offset = chunk.firstMonthOffset[i];
+                    AmortizationEngine.forEachInstallment(chunk.principalCents[i], chunk.annualRatePercent[i],
+                            chunk.months[i], this);
+                }
+                return accumulator;
+            }
+
+            int middle = (from + to) >>> 1;
+            ProjectionTask left = new ProjectionTask(chunk, from, middle, months);
+            left.fork();
+            long[] right = new ProjectionTask(chunk, middle, to, months).compute();
+            long[] merged = left.join();
+            for (int m = 0; m < merged.length; m++) {
+                merged[m] += right[m];
+            }
+            return merged;
+        }
+
+        @Override
+        public void visit(int number, long paymentCents, long principalCents, long interestCents, long balanceCents) {
+            int month = offset + number;
+            if (month >= 0 && month < months) {
+                accumulator[month] += principalCents;
+                accumulator[months + month] += interestCents;
+            }
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package com.souhailbektachi.backend.services.impl;
+
+import com.souhailbektachi.backend.entities.Client;
+import com.souhailbektachi.backend.repositories.ClientRepository;
+import com.souhailbektachi.backend.repositories.projections.ClientSearchEntry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory trigram index over the client names and emails, answering the client searches
+ * without the {@code LIKE '%keyword%'} table scan.
+ *
+ * Both fields are normalized (lower case, accents removed) and each of their 3-character
+ * substrings is mapped to the sorted list of the clients containing it. A keyword is looked up
+ * by intersecting the lists of its trigrams, shortest first; the remaining candidates are checked
+ * for the actual substring and ranked (earliest match, then shortest field, so exact and prefix
+ * matches come first), keeping only the best {@code limit} of them.
+ *
+ * The index is loaded once the application is ready, kept current by the client service (after
+ * commit) and by the changes of the other instances (see {@link SearchIndexSync}), and periodically
+ * rebuilt to compact the entries left by updated or deleted clients.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ClientSearchIndex {
+
+    /**
+     * Shortest keyword the index can answer (a keyword must contain at least one trigram)
+     */
+    public static final int MIN_KEYWORD_LENGTH = 3;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Comparator<Match> RANKING = Comparator.<Match>comparingInt(match -> match.position)
+            .thenComparingInt(match -> match.length)
+            .thenComparingLong(match -> match.id);
+
+    public enum Field { NOM, EMAIL }
+
+    private final ClientRepository clientRepository;
+
+    @Value("${clients.search.chunk-size:5000}")
+    private int chunkSize;
+
+    // Empty until the first rebuild completes: searches then fall back to the database
+    private final RebuildableIndex<Index> index = new RebuildableIndex<>();
+
+    private final AtomicLong searches = new AtomicLong();
+    private final AtomicLong searchNanos = new AtomicLong();
+
+    // Loading and rebuilding
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${clients.search.rebuild-interval-ms:3600000}",
+               initialDelayString = "${clients.search.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        Index rebuilt = index.rebuild(this::readIndex);
+        if (rebuilt != null) {
+            log.debug("Client search index rebuilt with {} clients in {} ms", rebuilt.size(), index.getLastRebuildMillis());
+        }
+    }
+
+    // Write hooks (applied after commit)
+
+    public void clientSaved(Client client) {
+        Long id = client.getId();
+        String nom = client.getNom();
+        String email = client.getEmail();
+        index.applyAfterCommit(current -> current.put(id, nom, email));
+    }
+
+    public void clientDeleted(Long id) {
+        index.applyAfterCommit(current -> current.remove(id));
+    }
+
+    /**
+     * Re-index clients changed by another instance
+     *
+     * @param entries Current fields of those of the {@code ids} that still exist
+     */
+    public void clientsChanged(Collection<Long> ids, List<ClientSearchEntry> entries) {
+        index.apply(current -> {
+            Set<Long> removed = new HashSet<>(ids);
+            for (ClientSearchEntry entry : entries) {
+                current.put(entry.getId(), entry.getNom(), entry.getEmail());
+                removed.remove(entry.getId());
+            }
+            removed.forEach(current::remove);
+        });
+    }
+
+    // Search
+
+    /**
+     * Ids of the clients whose field contains {@code keyword}, ignoring case and accents, best matches first
+     *
+     * @return At most {@code limit} ids, or null when the index cannot answer (keyword shorter than
+     *         {@link #MIN_KEYWORD_LENGTH} or index not loaded yet)
+     */
+    public List<Long> search(Field field, String keyword, int limit) {
+        String query = normalize(keyword);
+        if (query.length() < MIN_KEYWORD_LENGTH) {
+            return null;
+        }
+
+        long start = System.nanoTime();
+        List<Long> ids = index.read(current -> current != null ? current.search(field, query, limit) : null);
+        if (ids != null) {
+            searches.incrementAndGet();
+            searchNanos.addAndGet(System.nanoTime() - start);
+        }
+        return ids;
+    }
+
+    /**
+     * Size of the index and search timings
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        index.read(current -> {
+            stats.put("ready", current != null);
+            stats.put("clients", current != null ? current.size() : 0);
+            stats.put("staleEntries", current != null ? current.deadSlots : 0);
+            stats.put("nameTrigrams", current != null ? current.fields[Field.NOM.ordinal()].postings.size() : 0);
+            stats.put("emailTrigrams", current != null ? current.fields[Field.EMAIL.ordinal()].postings.size() : 0);
+            return null;
+        });
+        long count = searches.get();
+        stats.put("searches", count);
+        stats.put("averageSearchMicros", count > 0 ? TimeUnit.NANOSECONDS.toMicros(searchNanos.get() / count) : 0);
+        stats.put("lastRebuildMillis", index.getLastRebuildMillis());
+        return stats;
+    }
+
+    // Helper methods
+
+    /**
+     * Lower case without accents, the form in which both the fields and the keywords are compared
+     */
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(value.trim(), Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private Index readIndex() {
+        Index loaded = new Index();
+        long cursor = 0L;
+        PageRequest chunk = PageRequest.of(0, chunkSize);
+        while (true) {
+            List<ClientSearchEntry> entries = clientRepository.findSearchEntries(cursor, chunk);
+            for (ClientSearchEntry entry : entries) {
+                loaded.put(entry.getId(), entry.getNom(), entry.getEmail());
+            }
+            if (entries.size() < chunkSize) {
+                return loaded;
+            }
+            cursor = entries.get(entries.size() - 1).getId();
+        }
+    }
+
+    private static long trigram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    /**
+     * The indexed clients. Each indexed version of a client gets a new slot, so the posting lists are
+     * filled in increasing slot order and stay sorted; the slot of a replaced or removed version is
+     * only marked dead, until the next rebuild.
+     */
+    private static final class Index {
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private final Map<Long, Integer> slotsById = new HashMap<>();
+        private final FieldIndex[] fields = new FieldIndex[Field.values().length];
+        private long[] ids = new long[INITIAL_CAPACITY];
+        private int slots;
+        private int deadSlots;
+
+        private Index() {
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = new FieldIndex();
+            }
+        }
+
+        private int size() {
+            return slotsById.size();
+        }
+
+        private void put(Long id, String nom, String email) {
+            remove(id);
+
+            int slot = slots++;
+            if (slot == ids.length) {
+                ids = Arrays.copyOf(ids, slot * 2);
+            }
+            ids[slot] = id;
+            slotsById.put(id, slot);
+            fields[Field.NOM.ordinal()].add(slot, normalize(nom));
+            fields[Field.EMAIL.ordinal()].add(slot, normalize(email));
+        }
+
+        private void remove(Long id) {
+            Integer slot = slotsById.remove(id);
+            if (slot != null) {
+                for (FieldIndex field : fields) {
+                    field.texts[slot] = null;
+                }
+                deadSlots++;
+            }
+        }
+
+        private List<Long> search(Field field, String query, int limit) {
+            FieldIndex fieldIndex = fields[field.ordinal()];
+
+            int gramCount = query.length() - MIN_KEYWORD_LENGTH + 1;
+            Postings[] lists = new Postings[gramCount];
+            for (int i = 0; i < gramCount; i++) {
+                lists[i] = fieldIndex.postings.get(trigram(query, i));
+                if (lists[i] == null) {
+                    return Collections.emptyList();
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+            // Worst retained match at the head
+            PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+            int[] cursors = new int[gramCount];
+            Postings shortest = lists[0];
+            candidates:
+            for (int k = 0; k < shortest.size; k++) {
+                int slot = shortest.slots[k];
+                String text = fieldIndex.texts[slot];
+                if (text == null) {
+                    continue;
+                }
+                for (int j = 1; j < gramCount; j++) {
+                    int found = Arrays.binarySearch(lists[j].slots, cursors[j], lists[j].size, slot);
+                    if (found < 0) {
+                        cursors[j] = -found - 1;
+                        continue candidates;
+                    }
+                    cursors[j] = found;
+                }
+
+                // All trigrams present, not necessarily contiguous
+                int position = text.indexOf(query);
+                if (position < 0) {
+                    continue;
+                }
+                best.add(new Match(ids[slot], position, text.length()));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+
+            Long[] ranked = new Long[best.size()];
+            for (int i = ranked.length - 1; i >= 0; i--) {
+                ranked[i] = best.poll().id;
+            }
+            return Arrays.asList(ranked);
+        }
+    }
+
+    /**
+     * Normalized values of one field by slot and the posting list of each of their trigrams
+     */
+    private static final class FieldIndex {
+        private final Map<Long, Postings> postings = new HashMap<>();
+        private String[] texts = new String[Index.INITIAL_CAPACITY];
+
+        private void add(int slot, String text) {
+            if (slot >= texts.length) {
+                texts = Arrays.copyOf(texts, Math.max(slot + 1, texts.length * 2));
+            }
+            texts[slot] = text;
+            for (int i = 0; i + MIN_KEYWORD_LENGTH <= text.length(); i++) {
+                postings.computeIfAbsent(trigram(text, i), gram -> new Postings()).add(slot);
+            }
+        }
+    }
+
+    /**
+     * Growable sorted array of slots
+     */
+    private static final class Postings {
+        private int[] slots = new int[4];
+        private int size;
+
+        private void add(int slot) {
+            // A trigram repeated within a value is recorded once
+            if (size > 0 && slots[size - 1] == slot) {
+                return;
+            }
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+    }
+
+    private static final class Match {
+        private final long id;
+        private final int position;
+        private final int length;
+
+        private Match(long id, int position, int length) {
+            this.id = id;
+            this.position = position;
+            this.length = length;
+        }
+    }
+}
@@ -17,9 +17,18 @@ import com.souhailbektachi.backend.services.ClientService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,20 +36,38 @@ import java.util.stream.Collectors;
 @Transactional
 public class ClientServiceImpl implements ClientService {
 
+    private static final int MAX_SCROLL_SIZE = 1000;
+    private static final int DEFAULT_SEARCH_SIZE = 50;
+
     private final ClientRepository clientRepository;
     private final CreditRepository creditRepository;
     private final ClientMapper clientMapper;
     private final CreditMapper creditMapper;
+    private final DashboardCounters dashboardCounters;
+    private final ClientSearchIndex clientSearchIndex;
+    private final SuggestionIndex suggestionIndex;
+
+    @Override
+    public Page<ClientSummaryDTO> getAllClients(Pageable pageable) {
+        Page<Client> clients = clientRepository.findAll(pageable);
+        return new PageImpl<>(clientMapper.toSummaryDtoList(clients.getContent()), pageable, clients.getTotalElements());
+    }
 
     @Override
-    public List<ClientSummaryDTO> getAllClients() {
-        List<Client> clients = clientRepository.findAll();
+    public List<ClientSummaryDTO> scrollClients(Long afterId, int size) {
+        if (size <= 0 || size > MAX_SCROLL_SIZE) {
+            throw new BadRequestException("Size must be between 1 and " + MAX_SCROLL_SIZE);
+        }
+        
+        List<Client> clients = clientRepository.findByIdGreaterThan(
+                afterId != null ? afterId : 0L, PageRequest.of(0, size, Sort.by("id")));
         return clientMapper.toSummaryDtoList(clients);
     }
 
     @Override
     public ClientDTO getClientById(Long id) {
-        Client client = findClientOrThrow(id);
+        Client client = clientRepository.findWithCreditsById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Client", "id", id));
         return clientMapper.toDto(client);
     }
 
@@ -55,6 +82,9 @@ public class ClientServiceImpl implements ClientService {
         
         Client client = clientMapper.toEntity(clientRequestDTO);
         Client savedClient = clientRepository.save(client);
+        dashboardCounters.clientCreated();
+        clientSearchIndex.clientSaved(savedClient);
+        suggestionIndex.clientSaved(savedClient);
         
         return clientMapper.toDto(savedClient);
     }
@@ -74,6 +104,8 @@ public class ClientServiceImpl implements ClientService {
         
         clientMapper.updateClientFromDto(clientRequestDTO, client);
         Client updatedClient = clientRepository.save(client);
+        clientSearchIndex.clientSaved(updatedClient);
+        suggestionIndex.clientSaved(updatedClient);
         
         return clientMapper.toDto(updatedClient);
     }
@@ -92,6 +124,9 @@ public class ClientServiceImpl implements ClientService {
         }
         
         clientRepository.delete(client);
+        dashboardCounters.clientDeleted(client);
+        clientSearchIndex.clientDeleted(client.getId());
+        suggestionIndex.clientDeleted(client);
     }
 
     @Override
@@ -105,20 +140,26 @@ public class ClientServiceImpl implements ClientService {
     @Override
     public List<ClientSummaryDTO> searchClientsByName(String keyword) {
         if (StringUtils.isBlank(keyword)) {
-            return getAllClients();
+            return scrollClients(null, DEFAULT_SEARCH_SIZE);
         }
         
-        List<Client> clients = clientRepository.findByNomContainingIgnoreCase(keyword);
+        List<Long> ids = clientSearchIndex.search(ClientSearchIndex.Field.NOM, keyword, DEFAULT_SEARCH_SIZE);
+        List<Client> clients = ids != null
+                ? findAllInOrder(ids)
+                : clientRepository.findByNomContainingIgnoreCase(keyword.trim(), PageRequest.of(0, DEFAULT_SEARCH_SIZE, Sort.by("id")));
         return clientMapper.toSummaryDtoList(clients);
     }
 
     @Override
     public List<ClientSummaryDTO> searchClientsByEmail(String email) {
         if (StringUtils.isBlank(email)) {
-            return getAllClients();
+            return scrollClients(null, DEFAULT_SEARCH_SIZE);
         }
         
-        List<Client> clients = clientRepository.findByEmailContainingIgnoreCase(email);
+        List<Long> ids = clientSearchIndex.search(ClientSearchIndex.Field.EMAIL, email, DEFAULT_SEARCH_SIZE);
+        List<Client> clients = ids != null
+                ? findAllInOrder(ids)
+                : clientRepository.findByEmailContainingIgnoreCase(email.trim(), PageRequest.of(0, DEFAULT_SEARCH_SIZE, Sort.by("id")));
         return clientMapper.toSummaryDtoList(clients);
     }
 
@@ -134,6 +175,22 @@ public class ClientServiceImpl implements ClientService {
                 .orElseThrow(() -> new ResourceNotFoundException("Client", "id", id));
     }
     
+    /**
+     * Load the given clients, keeping the order of the ids
+     */
+    private List<Client> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        Map<Long, Client> clientsById = clientRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Client::getId, Function.identity()));
+        return ids.stream()
+                .map(clientsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+    
     private void validateClientRequest(ClientRequestDTO requestDTO) {
         if (requestDTO == null) {
             throw new BadRequestException("Client request cannot be null");
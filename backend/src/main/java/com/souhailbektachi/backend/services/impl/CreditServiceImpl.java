@@ -1,5 +1,6 @@
 package com.souhailbektachi.backend.services.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.souhailbektachi.backend.dtos.*;
 import com.souhailbektachi.backend.entities.*;
 import com.souhailbektachi.backend.exceptions.BadRequestException;
@@ -7,33 +8,89 @@ import com.souhailbektachi.backend.exceptions.ResourceNotFoundException;
 import com.souhailbektachi.backend.mappers.CreditMapper;
 import com.souhailbektachi.backend.repositories.ClientRepository;
 import com.souhailbektachi.backend.repositories.CreditRepository;
+import com.souhailbektachi.backend.repositories.specifications.CreditSpecifications;
 import com.souhailbektachi.backend.services.CreditService;
-import jakarta.transaction.Transactional;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class CreditServiceImpl implements CreditService {
 
+    private static final int MAX_SCROLL_SIZE = 1000;
+    private static final int MAX_PROJECTION_MONTHS = 600;
+    private static final int EXPORT_BATCH_SIZE = 500;
+    private static final String[] EXPORT_COLUMNS = {"id", "dateDemande", "statut", "montant", "dureeRemboursement",
+            "type", "motif", "typeBienFinance", "raisonSocialeEntreprise"};
+
     private final CreditRepository creditRepository;
     private final ClientRepository clientRepository;
     private final CreditMapper creditMapper;
+    private final DashboardCounters dashboardCounters;
+    private final SuggestionIndex suggestionIndex;
+    private final PaymentScheduleCache paymentScheduleCache;
+    private final CashFlowProjector cashFlowProjector;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Override
-    public List<CreditSummaryDTO> getAllCredits() {
-        List<Credit> credits = creditRepository.findAll();
+    public Page<CreditSummaryDTO> getAllCredits(Pageable pageable) {
+        return creditRepository.findAll(pageable).map(creditMapper::toSummaryDto);
+    }
+
+    @Override
+    public List<CreditSummaryDTO> scrollCredits(Long afterId, int size) {
+        validateScrollSize(size);
+        List<Credit> credits = creditRepository.findByIdGreaterThan(
+                afterId != null ? afterId : 0L, PageRequest.of(0, size, Sort.by("id")));
         return creditMapper.toSummaryDtoList(credits);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void exportCredits(ExportFormat format, OutputStream outputStream) throws IOException {
+        ExportWriter<CreditSummaryDTO> writer = new ExportWriter<>(format, outputStream, objectMapper, EXPORT_COLUMNS,
+                c -> new Object[]{c.getId(), c.getDateDemande(), c.getStatut(), c.getMontant(), c.getDureeRemboursement(),
+                        c.getType(), c.getMotif(), c.getTypeBienFinance(), c.getRaisonSocialeEntreprise()});
+        writer.writeHeader();
+        
+        try (Stream<Credit> credits = creditRepository.streamAllForExport()) {
+            int count = 0;
+            for (Credit credit : (Iterable<Credit>) credits::iterator) {
+                writer.write(creditMapper.toSummaryDto(credit));
+                // Detach what has been written so the persistence context does not grow with the export
+                if (++count % EXPORT_BATCH_SIZE == 0) {
+                    writer.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        writer.flush();
+    }
+
     @Override
     public CreditDTO getCreditById(Long id) {
-        Credit credit = findCreditOrThrow(id);
+        Credit credit = creditRepository.findWithClientAndRemboursementsById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Credit", "id", id));
         return creditMapper.toDto(credit);
     }
 
@@ -51,6 +108,8 @@ public class CreditServiceImpl implements CreditService {
         credit.setStatut(StatutCredit.EN_COURS);
         
         Credit savedCredit = creditRepository.save(credit);
+        dashboardCounters.creditCreated(savedCredit);
+        suggestionIndex.creditSaved(savedCredit);
         
         return creditMapper.toDto(savedCredit);
     }
@@ -65,10 +124,14 @@ public class CreditServiceImpl implements CreditService {
         }
         
         validateCreditRequest(creditRequestDTO);
+        Double previousMontant = credit.getMontant();
         
         // Update the credit
         creditMapper.updateCreditFromDto(creditRequestDTO, credit);
         Credit updatedCredit = creditRepository.save(credit);
+        dashboardCounters.creditUpdated(updatedCredit, previousMontant);
+        suggestionIndex.creditSaved(updatedCredit);
+        paymentScheduleCache.invalidate(id);
         
         return creditMapper.toDto(updatedCredit);
     }
@@ -88,6 +151,9 @@ public class CreditServiceImpl implements CreditService {
         }
         
         creditRepository.delete(credit);
+        dashboardCounters.creditDeleted(credit);
+        suggestionIndex.creditDeleted(id);
+        paymentScheduleCache.invalidate(id);
     }
 
     @Override
@@ -136,6 +202,9 @@ public class CreditServiceImpl implements CreditService {
         credit.setDateAcception(approvalDate);
         
         Credit updatedCredit = creditRepository.save(credit);
+        dashboardCounters.creditStatusChanged(updatedCredit, StatutCredit.EN_COURS);
+        // The schedule now starts from the acceptance date
+        paymentScheduleCache.invalidate(id);
         
         return creditMapper.toDto(updatedCredit);
     }
@@ -155,6 +224,7 @@ public class CreditServiceImpl implements CreditService {
         // Store rejection reason in a comment or extend the model to include a reason field
         
         Credit updatedCredit = creditRepository.save(credit);
+        dashboardCounters.creditStatusChanged(updatedCredit, StatutCredit.EN_COURS);
         
         return creditMapper.toDto(updatedCredit);
     }
@@ -163,95 +233,50 @@ public class CreditServiceImpl implements CreditService {
     public Map<String, Object> calculateMonthlyPayment(Long id) {
         Credit credit = findCreditOrThrow(id);
         
-        // Calculate monthly payment using the formula:
-        // M = P * (r * (1 + r)^n) / ((1 + r)^n - 1)
-        // where M is the monthly payment, P is the principal (loan amount),
-        // r is the monthly interest rate, and n is the number of payments (loan duration in months)
-        
-        double principal = credit.getMontant();
-        double annualInterestRate = credit.getTauxInteret() / 100.0; // Convert percentage to decimal
-        double monthlyInterestRate = annualInterestRate / 12.0;
+        // Monthly payment M = P * (r * (1 + r)^n) / ((1 + r)^n - 1), computed in cents
+        // where P is the principal, r the monthly interest rate and n the number of payments
+        long principalCents = AmortizationEngine.toCents(credit.getMontant());
         int loanDurationMonths = credit.getDureeRemboursement();
+        long monthlyPaymentCents = AmortizationEngine.monthlyPaymentCents(
+                principalCents, credit.getTauxInteret(), loanDurationMonths);
         
-        double monthlyPayment;
-        if (monthlyInterestRate == 0) {
-            // If interest rate is 0, just divide the principal by the number of months
-            monthlyPayment = principal / loanDurationMonths;
-        } else {
-            // Standard formula for monthly payment calculation
-            double temp = Math.pow(1 + monthlyInterestRate, loanDurationMonths);
-            monthlyPayment = principal * (monthlyInterestRate * temp / (temp - 1));
-        }
-        
-        // Format to 2 decimal places
-        monthlyPayment = Math.round(monthlyPayment * 100.0) / 100.0;
-        
-        // Calculate total payment and total interest
-        double totalPayment = monthlyPayment * loanDurationMonths;
-        double totalInterest = totalPayment - principal;
+        // Total interest of the actual schedule (the last installment absorbs the rounding)
+        long totalInterestCents = AmortizationEngine.totalInterestCents(
+                principalCents, credit.getTauxInteret(), loanDurationMonths);
         
         // Prepare result
         Map<String, Object> result = new HashMap<>();
         result.put("creditId", credit.getId());
-        result.put("montant", principal);
+        result.put("montant", credit.getMontant());
         result.put("dureeRemboursement", loanDurationMonths);
         result.put("tauxInteret", credit.getTauxInteret());
-        result.put("mensualite", monthlyPayment);
-        result.put("totalInterets", totalInterest);
-        result.put("totalPaiement", totalPayment);
+        result.put("mensualite", AmortizationEngine.fromCents(monthlyPaymentCents));
+        result.put("totalInterets", AmortizationEngine.fromCents(totalInterestCents));
+        result.put("totalPaiement", AmortizationEngine.fromCents(principalCents + totalInterestCents));
         
         return result;
     }
 
     @Override
-    public List<Map<String, Object>> getPaymentSchedule(Long id) {
+    public List<PaymentScheduleEntryDTO> getPaymentSchedule(Long id) {
         Credit credit = findCreditOrThrow(id);
         
-        Map<String, Object> paymentInfo = calculateMonthlyPayment(id);
-        double monthlyPayment = (Double) paymentInfo.get("mensualite");
-        
-        double principal = credit.getMontant();
-        double annualInterestRate = credit.getTauxInteret() / 100.0;
-        double monthlyInterestRate = annualInterestRate / 12.0;
-        int loanDurationMonths = credit.getDureeRemboursement();
-        
         // Start date is either the acceptance date or current date if not accepted
         LocalDate startDate = credit.getDateAcception() != null ? 
                 credit.getDateAcception() : LocalDate.now();
         
-        List<Map<String, Object>> schedule = new ArrayList<>();
-        double remainingBalance = principal;
-        
-        for (int month = 1; month <= loanDurationMonths; month++) {
-            LocalDate paymentDate = startDate.plusMonths(month);
-            double interestPayment = remainingBalance * monthlyInterestRate;
-            double principalPayment = monthlyPayment - interestPayment;
-            
-            // Adjust the last payment to account for rounding errors
-            if (month == loanDurationMonths) {
-                principalPayment = remainingBalance;
-                monthlyPayment = principalPayment + interestPayment;
-            }
-            
-            remainingBalance -= principalPayment;
-            
-            // Format to 2 decimal places
-            interestPayment = Math.round(interestPayment * 100.0) / 100.0;
-            principalPayment = Math.round(principalPayment * 100.0) / 100.0;
-            remainingBalance = Math.round(remainingBalance * 100.0) / 100.0;
-            
-            Map<String, Object> payment = new HashMap<>();
-            payment.put("numeroPaiement", month);
-            payment.put("datePaiement", paymentDate);
-            payment.put("montantTotal", monthlyPayment);
-            payment.put("montantPrincipal", principalPayment);
-            payment.put("montantInteret", interestPayment);
-            payment.put("soldeRestant", remainingBalance);
-            
-            schedule.add(payment);
+        return paymentScheduleCache.get(credit, startDate, () -> AmortizationEngine.schedule(
+                AmortizationEngine.toCents(credit.getMontant()), credit.getTauxInteret(),
+                credit.getDureeRemboursement(), startDate).toEntries());
+    }
+
+    @Override
+    public Map<String, Object> getPortfolioCashFlowProjection(int months) {
+        if (months <= 0 || months > MAX_PROJECTION_MONTHS) {
+            throw new BadRequestException("Months must be between 1 and " + MAX_PROJECTION_MONTHS);
         }
         
-        return schedule;
+        return cashFlowProjector.project(YearMonth.now(), months);
     }
 
     @Override
@@ -289,37 +314,42 @@ public class CreditServiceImpl implements CreditService {
     }
 
     @Override
-    public List<CreditSummaryDTO> searchCreditsByAmountRange(Double minAmount, Double maxAmount) {
-        List<Credit> credits;
-        
-        if (minAmount != null && maxAmount != null) {
-            credits = creditRepository.findByMontantBetween(minAmount, maxAmount);
-        } else if (minAmount != null) {
-            credits = creditRepository.findByMontantGreaterThanEqual(minAmount);
-        } else if (maxAmount != null) {
-            credits = creditRepository.findByMontantLessThanEqual(maxAmount);
-        } else {
-            credits = creditRepository.findAll();
+    public Page<CreditSummaryDTO> searchCredits(CreditSearchCriteria criteria, Pageable pageable) {
+        if (criteria.getMinAmount() != null && criteria.getMaxAmount() != null
+                && criteria.getMinAmount() > criteria.getMaxAmount()) {
+            throw new BadRequestException("Minimum amount cannot be greater than maximum amount");
+        }
+        if (criteria.getStartDate() != null && criteria.getEndDate() != null
+                && criteria.getStartDate().isAfter(criteria.getEndDate())) {
+            throw new BadRequestException("Start date cannot be after end date");
         }
         
-        return creditMapper.toSummaryDtoList(credits);
+        Specification<Credit> specification = Specification
+                .where(CreditSpecifications.montantAtLeast(criteria.getMinAmount()))
+                .and(CreditSpecifications.montantAtMost(criteria.getMaxAmount()))
+                .and(CreditSpecifications.demandeFrom(criteria.getStartDate()))
+                .and(CreditSpecifications.demandeUntil(criteria.getEndDate()))
+                .and(CreditSpecifications.hasStatut(criteria.getStatut()))
+                .and(CreditSpecifications.ofType(criteria.getType() != null ? creditClass(criteria.getType()) : null))
+                .and(CreditSpecifications.ofClient(criteria.getClientId()));
+        
+        return creditRepository.findAll(specification, pageable).map(creditMapper::toSummaryDto);
+    }
+
+    @Override
+    public List<CreditSummaryDTO> searchCreditsByAmountRange(Double minAmount, Double maxAmount) {
+        CreditSearchCriteria criteria = new CreditSearchCriteria();
+        criteria.setMinAmount(minAmount);
+        criteria.setMaxAmount(maxAmount);
+        return searchCredits(criteria, PageRequest.of(0, MAX_SCROLL_SIZE, Sort.by("id"))).getContent();
     }
 
     @Override
     public List<CreditSummaryDTO> searchCreditsByDateRange(LocalDate startDate, LocalDate endDate) {
-        List<Credit> credits;
-        
-        if (startDate != null && endDate != null) {
-            credits = creditRepository.findByDateDemandeBetween(startDate, endDate);
-        } else if (startDate != null) {
-            credits = creditRepository.findByDateDemandeGreaterThanEqual(startDate);
-        } else if (endDate != null) {
-            credits = creditRepository.findByDateDemandeLessThanEqual(endDate);
-        } else {
-            credits = creditRepository.findAll();
-        }
-        
-        return creditMapper.toSummaryDtoList(credits);
+        CreditSearchCriteria criteria = new CreditSearchCriteria();
+        criteria.setStartDate(startDate);
+        criteria.setEndDate(endDate);
+        return searchCredits(criteria, PageRequest.of(0, MAX_SCROLL_SIZE, Sort.by("id"))).getContent();
     }
     
     @Override
@@ -353,6 +383,25 @@ public class CreditServiceImpl implements CreditService {
                 .orElseThrow(() -> new ResourceNotFoundException("Credit", "id", id));
     }
     
+    private void validateScrollSize(int size) {
+        if (size <= 0 || size > MAX_SCROLL_SIZE) {
+            throw new BadRequestException("Size must be between 1 and " + MAX_SCROLL_SIZE);
+        }
+    }
+    
+    private Class<? extends Credit> creditClass(String type) {
+        switch (type.toUpperCase()) {
+            case "PERSONNEL":
+                return CreditPersonnel.class;
+            case "IMMOBILIER":
+                return CreditImmobilier.class;
+            case "PROFESSIONNEL":
+                return CreditProfessionnel.class;
+            default:
+                throw new BadRequestException("Invalid credit type: " + type);
+        }
+    }
+    
     private void validateCreditRequest(CreditRequestDTO requestDTO) {
         if (requestDTO == null) {
             throw new BadRequestException("Credit request cannot be null");
@@ -0,0 +1,450 @@
+package com.souhailbektachi.backend.services.impl;
+
+import com.souhailbektachi.backend.entities.*;
+import com.souhailbektachi.backend.repositories.ClientRepository;
+import com.souhailbektachi.backend.repositories.CreditRepository;
+import com.souhailbektachi.backend.repositories.RemboursementRepository;
+import com.souhailbektachi.backend.repositories.projections.CreditTypeStatusAggregate;
+import com.souhailbektachi.backend.repositories.projections.RemboursementTypeAggregate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory rollup of the dashboard figures (counts and amounts by credit status,
+ * credit type and repayment type).
+ *
+ * The counters are seeded from the database once the application is ready, kept
+ * current by the write paths of the services (applied only after the surrounding
+ * transaction commits) and periodically reconciled against the database so that
+ * any drift (e.g. writes made outside the services) is corrected.
+ * Amounts are kept in cents to avoid floating point accumulation errors.
+ *
+ * A transaction is between its commit and the application of its updates while it
+ * holds the read side of the commit gate. Reconciliation adds the difference between
+ * the database figures and a snapshot of the counters taken before reading them, and
+ * only when no transaction held the gate or entered it during the read: a commit the
+ * read may or may not have seen would otherwise be counted twice or lost. When commits
+ * keep overlapping the reads, the last attempt holds them back with the write side.
+ *
+ * Writes made by other instances reach the counters only through reconciliation: once the
+ * shared data version shows such a write past the last reconciliation, {@link #catchUp()}
+ * reconciles before the counters are served again.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardCounters {
+
+    private static final String[] CREDIT_TYPES = {"PERSONNEL", "IMMOBILIER", "PROFESSIONNEL"};
+    private static final int OPTIMISTIC_ATTEMPTS = 3;
+
+    private final ClientRepository clientRepository;
+    private final CreditRepository creditRepository;
+    private final RemboursementRepository remboursementRepository;
+    private final ReportCache reportCache;
+
+    private final AtomicLongArray clientCount = new AtomicLongArray(1);
+    private final AtomicLongArray creditCountByStatus = new AtomicLongArray(StatutCredit.values().length);
+    private final AtomicLongArray creditCentsByStatus = new AtomicLongArray(StatutCredit.values().length);
+    private final AtomicLongArray creditCountByType = new AtomicLongArray(CREDIT_TYPES.length);
+    private final AtomicLongArray creditCentsByType = new AtomicLongArray(CREDIT_TYPES.length);
+    private final AtomicLongArray repaymentCountByType = new AtomicLongArray(TypeRemboursement.values().length);
+    private final AtomicLongArray repaymentCentsByType = new AtomicLongArray(TypeRemboursement.values().length);
+    private final AtomicLongArray[] counters = {clientCount, creditCountByStatus, creditCentsByStatus,
+            creditCountByType, creditCentsByType, repaymentCountByType, repaymentCentsByType};
+
+    private final ReentrantReadWriteLock commitGate = new ReentrantReadWriteLock();
+    private final AtomicLong commitSequence = new AtomicLong();
+    private final ReentrantLock reconcileLock = new ReentrantLock();
+
+    private volatile boolean ready;
+    private volatile long reconciledVersion = -1;
+
+    // Seeding and reconciliation
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        reconcile();
+        ready = true;
+        log.info("Dashboard counters seeded: {} clients, {} credits, {} repayments",
+                getClientCount(), getCreditCount(), getRepaymentCount());
+    }
+
+    @Scheduled(fixedDelayString = "${reporting.dashboard.reconcile-interval-ms:300000}",
+               initialDelayString = "${reporting.dashboard.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        reconcileLock.lock();
+        try {
+            // Every change up to this version is visible to the reads that follow
+            long version = reportCache.getCurrentVersion();
+            reconcileAgainstDatabase();
+            reconciledVersion = version;
+        } finally {
+            reconcileLock.unlock();
+        }
+    }
+
+    /**
+     * Reconcile now if another instance changed the data since the last reconciliation
+     *
+     * @return Whether the counters include every change known to the report cache, false while
+     *         another thread is reconciling them
+     */
+    public boolean catchUp() {
+        if (reconciledVersion >= reportCache.getRemoteVersion()) {
+            return true;
+        }
+        if (!reconcileLock.tryLock()) {
+            return false;
+        }
+        try {
+            if (reconciledVersion < reportCache.getRemoteVersion()) {
+                log.debug("Data changed by another instance, reconciling the dashboard counters");
+                reconcile();
+            }
+            return true;
+        } finally {
+            reconcileLock.unlock();
+        }
+    }
+
+    private void reconcileAgainstDatabase() {
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+            if (reconcileIfNoCommitOverlaps()) {
+                return;
+            }
+        }
+
+        log.debug("Commits overlapped every dashboard reconciliation read, holding them back");
+        boolean drift;
+        commitGate.writeLock().lock();
+        try {
+            long[][] counted = snapshot();
+            drift = applyDrift(counted, readDatabase());
+        } finally {
+            commitGate.writeLock().unlock();
+        }
+        reportDrift(drift);
+    }
+
+    private boolean reconcileIfNoCommitOverlaps() {
+        long sequence = commitSequence.get();
+        if (commitGate.getReadLockCount() > 0) {
+            return false;
+        }
+
+        long[][] counted = snapshot();
+        long[][] actual = readDatabase();
+        if (commitGate.getReadLockCount() > 0 || commitSequence.get() != sequence) {
+            return false;
+        }
+        reportDrift(applyDrift(counted, actual));
+        return true;
+    }
+
+    /**
+     * Current database figures, in the order of {@link #counters}
+     */
+    private long[][] readDatabase() {
+        long[] clients = {clientRepository.count()};
+        long[] countByStatus = new long[creditCountByStatus.length()];
+        long[] centsByStatus = new long[creditCentsByStatus.length()];
+        long[] countByType = new long[creditCountByType.length()];
+        long[] centsByType = new long[creditCentsByType.length()];
+        long[] repaymentCount = new long[repaymentCountByType.length()];
+        long[] repaymentCents = new long[repaymentCentsByType.length()];
+
+        for (CreditTypeStatusAggregate row : creditRepository.aggregateByTypeAndStatut()) {
+            long cents = toCents(row.getTotalAmount());
+            int status = row.getStatut().ordinal();
+            countByStatus[status] += row.getCount();
+            centsByStatus[status] += cents;
+            int type = typeIndex(row.getCreditType());
+            if (type >= 0) {
+                countByType[type] += row.getCount();
+                centsByType[type] += cents;
+            }
+        }
+
+        for (RemboursementTypeAggregate row : remboursementRepository.aggregateByType()) {
+            int type = row.getType().ordinal();
+            repaymentCount[type] += row.getCount();
+            repaymentCents[type] += toCents(row.getTotalAmount());
+        }
+
+        return new long[][]{clients, countByStatus, centsByStatus, countByType, centsByType, repaymentCount, repaymentCents};
+    }
+
+    private long[][] snapshot() {
+        long[][] figures = new long[counters.length][];
+        for (int i = 0; i < counters.length; i++) {
+            figures[i] = new long[counters[i].length()];
+            for (int j = 0; j < figures[i].length; j++) {
+                figures[i][j] = counters[i].get(j);
+            }
+        }
+        return figures;
+    }
+
+    /**
+     * Add the difference between the database figures and the counted ones, keeping the
+     * updates applied since the snapshot was taken
+     *
+     * @return Whether the counters had drifted
+     */
+    private boolean applyDrift(long[][] counted, long[][] actual) {
+        boolean drift = false;
+        for (int i = 0; i < counters.length; i++) {
+            for (int j = 0; j < actual[i].length; j++) {
+                long delta = actual[i][j] - counted[i][j];
+                if (delta != 0) {
+                    counters[i].addAndGet(j, delta);
+                    drift = true;
+                }
+            }
+        }
+
+        return drift;
+    }
+
+    private void reportDrift(boolean drift) {
+        if (drift && ready) {
+            log.warn("Dashboard counters drifted from the database and have been reconciled");
+            // The database was changed outside the services: cached reports are stale too
+            reportCache.markChanged();
+        }
+    }
+
+    // Write hooks (applied after commit)
+
+    public void clientCreated() {
+        afterCommit(() -> clientCount.incrementAndGet(0));
+    }
+
+    public void clientDeleted(Client client) {
+        afterCommit(() -> clientCount.decrementAndGet(0));
+        // Credits (and their repayments) are removed with the client by cascade
+        if (client.getCredits() != null) {
+            client.getCredits().forEach(this::creditDeleted);
+        }
+    }
+
+    public void creditCreated(Credit credit) {
+        StatutCredit status = credit.getStatut();
+        int type = typeIndex(credit);
+        long cents = toCents(credit.getMontant());
+        afterCommit(() -> addCredit(status, type, 1, cents));
+    }
+
+    public void creditUpdated(Credit credit, Double previousMontant) {
+        StatutCredit status = credit.getStatut();
+        int type = typeIndex(credit);
+        long delta = toCents(credit.getMontant()) - toCents(previousMontant);
+        if (delta != 0) {
+            afterCommit(() -> addCredit(status, type, 0, delta));
+        }
+    }
+
+    public void creditStatusChanged(Credit credit, StatutCredit previousStatus) {
+        StatutCredit status = credit.getStatut();
+        long cents = toCents(credit.getMontant());
+        afterCommit(() -> {
+            creditCountByStatus.decrementAndGet(previousStatus.ordinal());
+            creditCentsByStatus.addAndGet(previousStatus.ordinal(), -cents);
+            creditCountByStatus.incrementAndGet(status.ordinal());
+            creditCentsByStatus.addAndGet(status.ordinal(), cents);
+        });
+    }
+
+    public void creditDeleted(Credit credit) {
+        StatutCredit status = credit.getStatut();
+        int type = typeIndex(credit);
+        long cents = toCents(credit.getMontant());
+        afterCommit(() -> addCredit(status, type, -1, -cents));
+        if (credit.getRemboursements() != null) {
+            credit.getRemboursements().forEach(this::remboursementDeleted);
+        }
+    }
+
+    public void remboursementCreated(Remboursement remboursement) {
+        TypeRemboursement type = remboursement.getType();
+        long cents = toCents(remboursement.getMontant());
+        afterCommit(() -> addRepayment(type, 1, cents));
+    }
+
+    public void remboursementUpdated(Remboursement remboursement, TypeRemboursement previousType, Double previousMontant) {
+        TypeRemboursement type = remboursement.getType();
+        long cents = toCents(remboursement.getMontant());
+        long previousCents = toCents(previousMontant);
+        afterCommit(() -> {
+            addRepayment(previousType, -1, -previousCents);
+            addRepayment(type, 1, cents);
+        });
+    }
+
+    public void remboursementDeleted(Remboursement remboursement) {
+        TypeRemboursement type = remboursement.getType();
+        long cents = toCents(remboursement.getMontant());
+        afterCommit(() -> addRepayment(type, -1, -cents));
+    }
+
+    // Read accessors
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long getClientCount() {
+        return clientCount.get(0);
+    }
+
+    public long getCreditCount() {
+        return sum(creditCountByStatus);
+    }
+
+    public double getCreditAmount() {
+        return fromCents(sum(creditCentsByStatus));
+    }
+
+    public long getCreditCount(StatutCredit status) {
+        return creditCountByStatus.get(status.ordinal());
+    }
+
+    public long getCreditCount(String type) {
+        int index = typeIndex(type);
+        return index >= 0 ? creditCountByType.get(index) : 0;
+    }
+
+    public long getRepaymentCount() {
+        return sum(repaymentCountByType);
+    }
+
+    public double getRepaymentAmount() {
+        return fromCents(sum(repaymentCentsByType));
+    }
+
+    public long getRepaymentCount(TypeRemboursement type) {
+        return repaymentCountByType.get(type.ordinal());
+    }
+
+    public double getRepaymentAmount(TypeRemboursement type) {
+        return fromCents(repaymentCentsByType.get(type.ordinal()));
+    }
+
+    // Helper methods
+
+    private void addCredit(StatutCredit status, int type, long count, long cents) {
+        if (status != null) {
+            creditCountByStatus.addAndGet(status.ordinal(), count);
+            creditCentsByStatus.addAndGet(status.ordinal(), cents);
+        }
+        if (type >= 0) {
+            creditCountByType.addAndGet(type, count);
+            creditCentsByType.addAndGet(type, cents);
+        }
+    }
+
+    private void addRepayment(TypeRemboursement type, long count, long cents) {
+        if (type != null) {
+            repaymentCountByType.addAndGet(type.ordinal(), count);
+            repaymentCentsByType.addAndGet(type.ordinal(), cents);
+        }
+    }
+
+    private void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private boolean gateHeld;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    enterCommit();
+                    gateHeld = true;
+                }
+
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (gateHeld) {
+                        gateHeld = false;
+                        commitGate.readLock().unlock();
+                    }
+                }
+            });
+        } else {
+            enterCommit();
+            try {
+                update.run();
+            } finally {
+                commitGate.readLock().unlock();
+            }
+        }
+    }
+
+    private void enterCommit() {
+        commitGate.readLock().lock();
+        commitSequence.incrementAndGet();
+    }
+
+    private static long sum(AtomicLongArray values) {
+        long total = 0;
+        for (int i = 0; i < values.length(); i++) {
+            total += values.get(i);
+        }
+        return total;
+    }
+
+    private static long toCents(Double amount) {
+        return amount != null ? Math.round(amount * 100.0) : 0;
+    }
+
+    private static double fromCents(long cents) {
+        return cents / 100.0;
+    }
+
+    private static int typeIndex(Credit credit) {
+        if (credit instanceof CreditPersonnel) {
+            return 0;
+        } else if (credit instanceof CreditImmobilier) {
+            return 1;
+        } else if (credit instanceof CreditProfessionnel) {
+            return 2;
+        }
+        return -1;
+    }
+
+    private static int typeIndex(Class<?> creditType) {
+        if (CreditPersonnel.class.equals(creditType)) {
+            return 0;
+        } else if (CreditImmobilier.class.equals(creditType)) {
+            return 1;
+        } else if (CreditProfessionnel.class.equals(creditType)) {
+            return 2;
+        }
+        return -1;
+    }
+
+    private static int typeIndex(String type) {
+        for (int i = 0; i < CREDIT_TYPES.length; i++) {
+            if (CREDIT_TYPES[i].equals(type)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,89 @@
+package com.souhailbektachi.backend.services.impl;
+
+import com.souhailbektachi.backend.repositories.CreditRepository;
+import com.souhailbektachi.backend.repositories.projections.DelinquencyCandidate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Streams accepted credits in id-ordered chunks (keyset pagination) and evaluates
+ * whether each one has fewer monthly installments than expected since its acceptance.
+ *
+ * Each chunk is a single aggregate query, so a full scan costs one statement per
+ * chunk instead of one statement per credit, and memory is bounded by the chunk size.
+ */
+@Component
+@RequiredArgsConstructor
+public class DelinquencyEvaluator {
+
+    private final CreditRepository creditRepository;
+
+    @Value("${reporting.delinquency.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * Callback receiving each delinquent credit; returning {@code false} stops the scan
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        boolean visit(DelinquencyCandidate credit, long expectedPayments);
+    }
+
+    /**
+     * Scan the accepted credits with an id greater than {@code afterCreditId} (all of them if null)
+     *
+     * @param afterCreditId Keyset cursor, exclusive
+     * @param asOf The date at which delinquency is evaluated
+     * @param visitor Receives the delinquent credits in id order
+     */
+    public void scan(Long afterCreditId, LocalDate asOf, Visitor visitor) {
+        long cursor = afterCreditId != null ? afterCreditId : 0L;
+        PageRequest chunk = PageRequest.of(0, chunkSize);
+
+        while (true) {
+            List<DelinquencyCandidate> candidates = creditRepository.findDelinquencyCandidates(cursor, chunk);
+
+            for (DelinquencyCandidate candidate : candidates) {
+                long expected = expectedPayments(candidate.getDateAcception(), candidate.getDureeRemboursement(), asOf);
+                long actual = candidate.getMonthlyPayments() != null ? candidate.getMonthlyPayments() : 0;
+
+                if (actual < expected && !visitor.visit(candidate, expected)) {
+                    return;
+                }
+            }
+
+            if (candidates.size() < chunkSize) {
+                return;
+            }
+            cursor = candidates.get(candidates.size() - 1).getCreditId();
+        }
+    }
+
+    /**
+     * Count the delinquent credits without materializing them
+     */
+    public long count(LocalDate asOf) {
+        long[] count = {0};
+        scan(null, asOf, (credit, expected) -> {
+            count[0]++;
+            return true;
+        });
+        return count[0];
+    }
+
+    /**
+     * Number of monthly installments due between the acceptance date and {@code asOf}
+     */
+    public static long expectedPayments(LocalDate dateAcception, Integer dureeRemboursement, LocalDate asOf) {
+        if (dateAcception == null || dureeRemboursement == null) {
+            return 0;
+        }
+        long monthsSinceStart = dateAcception.until(asOf).toTotalMonths();
+        return Math.max(0, Math.min(monthsSinceStart, dureeRemboursement));
+    }
+}
@@ -0,0 +1,218 @@
+package com.souhailbektachi.backend.services.impl;
+
+import com.souhailbektachi.backend.entities.CreditImmobilier;
+import com.souhailbektachi.backend.entities.CreditPersonnel;
+import com.souhailbektachi.backend.entities.CreditProfessionnel;
+import com.souhailbektachi.backend.entities.DelinquencySnapshot;
+import com.souhailbektachi.backend.exceptions.ConflictException;
+import com.souhailbektachi.backend.repositories.DelinquencySnapshotRepository;
+import com.souhailbektachi.backend.repositories.projections.DelinquencyCandidate;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rebuilds the {@code delinquency_snapshot} table once a day.
+ *
+ * Delinquency only changes when an installment falls due, so the reports read the
+ * materialized rows instead of re-evaluating the whole portfolio on every request.
+ * Accepted credits are evaluated in chunks and the snapshot rows are written and
+ * detached chunk by chunk, so memory stays bounded. The table is replaced in a single
+ * transaction: readers keep seeing the previous snapshot until the new one commits.
+ * Every instance fires the startup check and the cron, so a rebuild holds a database
+ * job lock and the scheduled ones skip a snapshot another instance already built today.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DelinquencySnapshotJob {
+
+    private static final String LOCK = "delinquency-snapshot";
+
+    private final DelinquencySnapshotRepository snapshotRepository;
+    private final DelinquencyEvaluator delinquencyEvaluator;
+    private final TransactionTemplate transactionTemplate;
+    private final ReportCache reportCache;
+    private final JobLocks jobLocks;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${reporting.delinquency.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${reporting.delinquency.lock-lease-ms:3600000}")
+    private long lockLeaseMs;
+
+    private volatile LocalDate snapshotDate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        rebuildIfOutdated();
+    }
+
+    @Scheduled(cron = "${reporting.delinquency.snapshot-cron:0 30 0 * * *}")
+    public void scheduledRebuild() {
+        rebuildIfOutdated();
+    }
+
+    /**
+     * Replace the snapshot with the delinquent loans as of today
+     *
+     * @return Rebuild statistics (snapshot date, number of rows, duration)
+     * @throws ConflictException if a rebuild is already running on any instance
+     */
+    public Map<String, Object> rebuild() {
+        lock();
+        try {
+            return writeSnapshot();
+        } finally {
+            jobLocks.unlock(LOCK);
+        }
+    }
+
+    /**
+     * Whether a snapshot is available: built or found by this instance, or since built by another one
+     */
+    public boolean isAvailable() {
+        return getSnapshotDate() != null;
+    }
+
+    public LocalDate getSnapshotDate() {
+        LocalDate current = snapshotDate;
+        if (current == null || current.isBefore(LocalDate.now())) {
+            // Another instance may have rebuilt it (the cron or the startup check found it locked here)
+            LocalDate latest = snapshotRepository.findLatestSnapshotDate();
+            if (latest != null && (current == null || latest.isAfter(current))) {
+                snapshotDate = latest;
+                current = latest;
+            }
+        }
+        return current;
+    }
+
+    // Helper methods
+
+    /**
+     * Rebuild the snapshot unless it is already today's, or another instance is rebuilding it
+     */
+    private void rebuildIfOutdated() {
+        try {
+            lock();
+        } catch (ConflictException e) {
+            log.info("Delinquency snapshot rebuild skipped: {}", e.getMessage());
+            return;
+        }
+
+        try {
+            LocalDate latest = snapshotRepository.findLatestSnapshotDate();
+            if (latest != null && !latest.isBefore(LocalDate.now())) {
+                snapshotDate = latest;
+                log.info("Using existing delinquency snapshot of {}", latest);
+            } else {
+                writeSnapshot();
+            }
+        } finally {
+            jobLocks.unlock(LOCK);
+        }
+    }
+
+    private void lock() {
+        if (!jobLocks.tryLock(LOCK, Duration.ofMillis(lockLeaseMs))) {
+            throw new ConflictException("A delinquency snapshot rebuild is already running");
+        }
+    }
+
+    private Map<String, Object> writeSnapshot() {
+        long start = System.currentTimeMillis();
+        LocalDate asOf = LocalDate.now();
+
+        Long rows = transactionTemplate.execute(status -> replaceRows(asOf));
+        snapshotDate = asOf;
+        reportCache.markChanged();
+
+        long duration = System.currentTimeMillis() - start;
+        log.info("Delinquency snapshot of {} rebuilt: {} delinquent loans in {} ms", asOf, rows, duration);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("snapshotDate", asOf);
+        result.put("delinquentLoans", rows);
+        result.put("durationMs", duration);
+        return result;
+    }
+
+    private long replaceRows(LocalDate asOf) {
+        snapshotRepository.deleteAllInBatch();
+
+        List<DelinquencySnapshot> buffer = new ArrayList<>(chunkSize);
+        long[] written = {0};
+
+        delinquencyEvaluator.scan(null, asOf, (credit, expectedPayments) -> {
+            buffer.add(toSnapshot(credit, expectedPayments, asOf));
+            if (buffer.size() >= chunkSize) {
+                written[0] += flush(buffer);
+            }
+            return true;
+        });
+        written[0] += flush(buffer);
+
+        return written[0];
+    }
+
+    private int flush(List<DelinquencySnapshot> buffer) {
+        int size = buffer.size();
+        if (size > 0) {
+            snapshotRepository.saveAll(buffer);
+            entityManager.flush();
+            entityManager.clear();
+            buffer.clear();
+        }
+        return size;
+    }
+
+    private DelinquencySnapshot toSnapshot(DelinquencyCandidate credit, long expectedPayments, LocalDate asOf) {
+        long actualPayments = credit.getMonthlyPayments() != null ? credit.getMonthlyPayments() : 0;
+
+        DelinquencySnapshot snapshot = new DelinquencySnapshot();
+        snapshot.setCreditId(credit.getCreditId());
+        snapshot.setCreditType(getCreditType(credit.getCreditType()));
+        snapshot.setMontant(credit.getMontant());
+        snapshot.setDateDemande(credit.getDateDemande());
+        snapshot.setDateAcception(credit.getDateAcception());
+        snapshot.setClientId(credit.getClientId());
+        snapshot.setClientName(credit.getClientName());
+        snapshot.setClientEmail(credit.getClientEmail());
+        snapshot.setExpectedPayments(expectedPayments);
+        snapshot.setActualPayments(actualPayments);
+        snapshot.setMissedPayments(expectedPayments - actualPayments);
+        snapshot.setLastPaymentDate(credit.getLastPaymentDate());
+        snapshot.setSnapshotDate(asOf);
+        return snapshot;
+    }
+
+    private String getCreditType(Class<?> creditType) {
+        if (CreditPersonnel.class.equals(creditType)) {
+            return "PERSONNEL";
+        } else if (CreditImmobilier.class.equals(creditType)) {
+            return "IMMOBILIER";
+        } else if (CreditProfessionnel.class.equals(creditType)) {
+            return "PROFESSIONNEL";
+        } else {
+            return "UNKNOWN";
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.souhailbektachi.backend.services.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.souhailbektachi.backend.dtos.ExportFormat;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Function;
+
+/**
+ * Writes exported rows one at a time as NDJSON (one JSON document per line) or CSV,
+ * so that an export never holds more than the current row in memory
+ */
+class ExportWriter<T> {
+
+    private final ExportFormat format;
+    private final Writer writer;
+    private final ObjectMapper objectMapper;
+    private final String[] columns;
+    private final Function<T, Object[]> csvRow;
+
+    ExportWriter(ExportFormat format, OutputStream outputStream, ObjectMapper objectMapper,
+                 String[] columns, Function<T, Object[]> csvRow) {
+        this.format = format;
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        this.objectMapper = objectMapper;
+        this.columns = columns;
+        this.csvRow = csvRow;
+    }
+
+    void writeHeader() throws IOException {
+        if (format == ExportFormat.CSV) {
+            writeCsvLine(columns);
+        }
+    }
+
+    void write(T row) throws IOException {
+        if (format == ExportFormat.CSV) {
+            writeCsvLine(csvRow.apply(row));
+        } else {
+            writer.write(objectMapper.writeValueAsString(row));
+            writer.write('\n');
+        }
+    }
+
+    void flush() throws IOException {
+        writer.flush();
+    }
+
+    private void writeCsvLine(Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCsvValue(values[i]);
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeCsvValue(Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(text);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.souhailbektachi.backend.services.impl;
+
+import com.souhailbektachi.backend.repositories.JobLockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Database locks of the jobs that must run on a single instance at a time (every instance fires
+ * the same cron). A lock is a row of the job_lock table claimed with a conditional UPDATE in its
+ * own transaction, held until released or until its lease expires.
+ */
+@Component
+@Slf4j
+public class JobLocks {
+
+    private final JobLockRepository jobLockRepository;
+    private final TransactionTemplate newTransaction;
+    private final String owner;
+
+    public JobLocks(JobLockRepository jobLockRepository, PlatformTransactionManager transactionManager) {
+        this.jobLockRepository = jobLockRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // pid@host plus a random suffix, so that a restarted instance never matches its previous locks
+        this.owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Claim the lock of {@code job} for at most {@code lease}
+     *
+     * @return Whether this instance now holds the lock
+     */
+    public boolean tryLock(String job, Duration lease) {
+        Instant now = Instant.now();
+        Integer claimed = newTransaction.execute(status -> {
+            jobLockRepository.createIfMissing(job);
+            return jobLockRepository.claim(job, owner, now, now.plus(lease));
+        });
+        boolean locked = claimed != null && claimed == 1;
+        if (!locked) {
+            log.debug("Job {} is locked by another run", job);
+        }
+        return locked;
+    }
+
+    public void unlock(String job) {
+        newTransaction.executeWithoutResult(status -> jobLockRepository.release(job, owner));
+    }
+}
@@ -0,0 +1,206 @@
+package com.souhailbektachi.backend.services.impl;
+
+import com.souhailbektachi.backend.entities.Credit;
+import com.souhailbektachi.backend.entities.InstallmentRunCheckpoint;
+import com.souhailbektachi.backend.entities.Remboursement;
+import com.souhailbektachi.backend.entities.TypeRemboursement;
+import com.souhailbektachi.backend.exceptions.ConflictException;
+import com.souhailbektachi.backend.repositories.CreditRepository;
+import com.souhailbektachi.backend.repositories.InstallmentRunCheckpointRepository;
+import com.souhailbektachi.backend.repositories.projections.InstallmentCandidate;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Posts the MENSUALITE of every accepted credit due in the month of a given date.
+ *
+ * Credits are split into partitions ({@code id mod threads}) processed in parallel. Each
+ * partition reads its credits in id-ordered chunks; every chunk is written (JDBC-batched
+ * when ids are pooled) and committed in its own transaction together with the partition
+ * checkpoint, so a failed or interrupted run resumes after the last committed chunk.
+ * Credits that already have an installment in the month are skipped, which also makes
+ * reruns idempotent. A credit's final installment is the last payment of its amortization
+ * schedule, which settles the balance left by the rounding of the previous ones.
+ *
+ * Every instance fires the cron, so a run first claims the job lock in the database and the
+ * other instances skip it; the uk_remboursement_installment key (one MENSUALITE per credit and
+ * month) still rejects a duplicate should two writers ever overlap.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MonthlyInstallmentJob {
+
+    private static final String LOCK = "monthly-installments";
+
+    private final CreditRepository creditRepository;
+    private final InstallmentRunCheckpointRepository checkpointRepository;
+    private final DashboardCounters dashboardCounters;
+    private final JobLocks jobLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final Environment environment;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${installments.batch.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${installments.batch.threads:4}")
+    private int threads;
+
+    @Value("${installments.batch.lock-lease-ms:21600000}")
+    private long lockLeaseMs;
+
+    @Scheduled(cron = "${installments.batch.cron:0 0 23 L * *}")
+    public void scheduledRun() {
+        try {
+            run(LocalDate.now());
+        } catch (ConflictException e) {
+            log.info("Monthly installment run skipped: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Post the installments due in the month of {@code date}, resuming from the checkpoints of a previous run
+     *
+     * @param date Payment date of the installments
+     * @return Run statistics (date, partitions, installments posted, duration)
+     * @throws ConflictException if a run is already in progress on any instance
+     */
+    public Map<String, Object> run(LocalDate date) {
+        if (!jobLocks.tryLock(LOCK, Duration.ofMillis(lockLeaseMs))) {
+            throw new ConflictException("A monthly installment run is already in progress");
+        }
+
+        // One thread per partition; the partitions mostly wait on the database, so they use
+        // virtual threads when the virtual-threads profile is active on Java 21
+        ExecutorService executor = Threading.VIRTUAL.isActive(environment)
+                ? Executors.newFixedThreadPool(threads, new VirtualThreadTaskExecutor("installments-").getVirtualThreadFactory())
+                : Executors.newFixedThreadPool(threads);
+        try {
+            long start = System.currentTimeMillis();
+
+            List<Future<Long>> partitions = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                int partition = i;
+                partitions.add(executor.submit(() -> runPartition(date, partition)));
+            }
+
+            long posted = 0;
+            RuntimeException failure = null;
+            for (Future<Long> partition : partitions) {
+                try {
+                    posted += partition.get();
+                } catch (ExecutionException e) {
+                    log.error("Monthly installment partition failed", e.getCause());
+                    failure = new IllegalStateException(
+                            "Monthly installment run failed, run it again to resume from the last checkpoint", e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failure = new IllegalStateException("Monthly installment run interrupted", e);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+
+            long duration = System.currentTimeMillis() - start;
+            log.info("Monthly installments of {} posted: {} installments in {} ms", date, posted, duration);
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("date", date);
+            result.put("partitions", threads);
+            result.put("installmentsPosted", posted);
+            result.put("durationMs", duration);
+            return result;
+        } finally {
+            executor.shutdownNow();
+            jobLocks.unlock(LOCK);
+        }
+    }
+
+    // Helper methods
+
+    /**
+     * Process one partition chunk by chunk
+     *
+     * @return Number of installments posted by the partition over the whole run (resumed runs included)
+     */
+    private long runPartition(LocalDate date, int partition) {
+        InstallmentRunCheckpoint checkpoint = transactionTemplate.execute(status -> checkpointRepository
+                .findByRunDateAndPartitionIndexAndPartitionCount(date, partition, threads)
+                .orElseGet(() -> checkpointRepository.save(
+                        new InstallmentRunCheckpoint(null, date, partition, threads, 0L, 0L, false))));
+
+        Long checkpointId = checkpoint.getId();
+        while (!checkpoint.getCompleted()) {
+            checkpoint = transactionTemplate.execute(status -> processChunk(checkpointId, date));
+        }
+        return checkpoint.getPostedCount();
+    }
+
+    /**
+     * Amount of the candidate's next installment: the constant payment, or the last payment of the
+     * schedule (which absorbs the remaining balance) when it is the final one
+     */
+    private static long installmentCents(InstallmentCandidate candidate) {
+        long principal = AmortizationEngine.toCents(candidate.getMontant());
+        int months = candidate.getDureeRemboursement();
+        if (candidate.getInstallmentsPosted() + 1 >= months) {
+            return AmortizationEngine.lastPaymentCents(principal, candidate.getTauxInteret(), months);
+        }
+        return AmortizationEngine.monthlyPaymentCents(principal, candidate.getTauxInteret(), months);
+    }
+
+    private InstallmentRunCheckpoint processChunk(Long checkpointId, LocalDate date) {
+        InstallmentRunCheckpoint checkpoint = checkpointRepository.findById(checkpointId).orElseThrow();
+
+        List<InstallmentCandidate> candidates = creditRepository.findInstallmentCandidates(
+                checkpoint.getLastCreditId(), threads, checkpoint.getPartitionIndex(),
+                date.minusMonths(1), date.withDayOfMonth(1), date.withDayOfMonth(date.lengthOfMonth()),
+                PageRequest.of(0, chunkSize));
+
+        for (InstallmentCandidate candidate : candidates) {
+            Remboursement remboursement = new Remboursement();
+            remboursement.setCredit(entityManager.getReference(Credit.class, candidate.getCreditId()));
+            remboursement.setDate(date);
+            remboursement.setMontant(AmortizationEngine.fromCents(installmentCents(candidate)));
+            remboursement.setType(TypeRemboursement.MENSUALITE);
+            entityManager.persist(remboursement);
+            dashboardCounters.remboursementCreated(remboursement);
+        }
+
+        if (!candidates.isEmpty()) {
+            checkpoint.setLastCreditId(candidates.get(candidates.size() - 1).getCreditId());
+            checkpoint.setPostedCount(checkpoint.getPostedCount() + candidates.size());
+        }
+        checkpoint.setCompleted(candidates.size() < chunkSize);
+
+        // Send the chunk as one batch and keep the persistence context small
+        entityManager.flush();
+        entityManager.clear();
+        return checkpoint;
+    }
+}
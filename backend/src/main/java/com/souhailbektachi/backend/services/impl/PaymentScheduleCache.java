@@ -0,0 +1,127 @@
+package com.souhailbektachi.backend.services.impl;
+
+import com.souhailbektachi.backend.dtos.PaymentScheduleEntryDTO;
+import com.souhailbektachi.backend.entities.Credit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded LRU cache of amortization schedules, keyed by credit id.
+ *
+ * Each entry remembers the terms it was computed from (amount, rate, duration and start date),
+ * so a schedule is only served while those terms are unchanged: explicit invalidation by the
+ * write paths keeps the cache small, and the terms check guards against any missed write
+ * (or the start date of a pending credit moving with the current date).
+ */
+@Component
+public class PaymentScheduleCache {
+
+    private final int maxSize;
+    private final Map<Long, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public PaymentScheduleCache(@Value("${credits.schedule-cache.max-size:1000}") int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > PaymentScheduleCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Return the cached schedule of the credit, computing and caching it if absent or stale
+     *
+     * @param credit The credit whose schedule is requested
+     * @param startDate Date from which the installments are scheduled
+     * @param loader Computes the schedule on a miss
+     */
+    public List<PaymentScheduleEntryDTO> get(Credit credit, LocalDate startDate, Supplier<List<PaymentScheduleEntryDTO>> loader) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(credit.getId());
+        }
+
+        if (entry != null && entry.matches(credit, startDate)) {
+            hits.incrementAndGet();
+            return entry.schedule;
+        }
+
+        misses.incrementAndGet();
+        List<PaymentScheduleEntryDTO> schedule = Collections.unmodifiableList(loader.get());
+        synchronized (entries) {
+            entries.put(credit.getId(), new Entry(credit, startDate, schedule));
+        }
+        return schedule;
+    }
+
+    /**
+     * Drop the cached schedule of a credit whose terms changed or which was deleted
+     */
+    public void invalidate(Long creditId) {
+        synchronized (entries) {
+            entries.remove(creditId);
+        }
+    }
+
+    /**
+     * Cache statistics (size, hits, misses, hit rate, evictions)
+     */
+    public Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long requests = hitCount + missCount;
+
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (entries) {
+            stats.put("size", entries.size());
+        }
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", requests > 0 ? Math.round(hitCount * 10000.0 / requests) / 100.0 : 0.0);
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    private static final class Entry {
+        private final Double montant;
+        private final Double tauxInteret;
+        private final Integer dureeRemboursement;
+        private final LocalDate startDate;
+        private final List<PaymentScheduleEntryDTO> schedule;
+
+        private Entry(Credit credit, LocalDate startDate, List<PaymentScheduleEntryDTO> schedule) {
+            this.montant = credit.getMontant();
+            this.tauxInteret = credit.getTauxInteret();
+            this.dureeRemboursement = credit.getDureeRemboursement();
+            this.startDate = startDate;
+            this.schedule = schedule;
+        }
+
+        private boolean matches(Credit credit, LocalDate startDate) {
+            return Objects.equals(montant, credit.getMontant())
+                    && Objects.equals(tauxInteret, credit.getTauxInteret())
+                    && Objects.equals(dureeRemboursement, credit.getDureeRemboursement())
+                    && Objects.equals(this.startDate, startDate);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.souhailbektachi.backend.services.impl;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Holder of an in-memory index that is periodically rebuilt from the database and changed in place
+ * in between (see {@link ClientSearchIndex} and {@link SuggestionIndex}).
+ *
+ * Reads share the read lock and changes take the write lock. Changes applied while a rebuild loads
+ * the new index are recorded and replayed on it before it replaces the current one, so that none
+ * is lost by the swap.
+ */
+final class RebuildableIndex<T> {
+
+    // Guards current and pendingChanges
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // Null until the first rebuild completes
+    private T current;
+    // Non-null while a rebuild is running
+    private List<Consumer<T>> pendingChanges;
+    private volatile long lastRebuildMillis;
+
+    /**
+     * Load a new index and make it the current one, unless a rebuild is already running
+     *
+     * @return The new index, or null if the rebuild was skipped
+     */
+    T rebuild(Supplier<T> loader) {
+        if (!rebuildLock.tryLock()) {
+            return null;
+        }
+        try {
+            long start = System.nanoTime();
+            withWriteLock(() -> pendingChanges = new ArrayList<>());
+
+            T rebuilt;
+            try {
+                rebuilt = loader.get();
+                withWriteLock(() -> {
+                    pendingChanges.forEach(change -> change.accept(rebuilt));
+                    current = rebuilt;
+                });
+            } finally {
+                withWriteLock(() -> pendingChanges = null);
+            }
+
+            lastRebuildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            return rebuilt;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Apply a change to the current index, and to the one being rebuilt if any
+     */
+    void apply(Consumer<T> change) {
+        withWriteLock(() -> {
+            if (current != null) {
+                change.accept(current);
+            }
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        });
+    }
+
+    /**
+     * Apply a change once the current transaction commits (immediately outside a transaction)
+     */
+    void applyAfterCommit(Consumer<T> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    /**
+     * Read the current index under the read lock
+     *
+     * @param reader Receives null until the first rebuild completes
+     */
+    <R> R read(Function<T, R> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(current);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long getLastRebuildMillis() {
+        return lastRebuildMillis;
+    }
+
+    // Helper methods
+
+    private void withWriteLock(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.souhailbektachi.backend.services.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.souhailbektachi.backend.dtos.ExportFormat;
 import com.souhailbektachi.backend.dtos.RemboursementDTO;
 import com.souhailbektachi.backend.dtos.RemboursementRequestDTO;
 import com.souhailbektachi.backend.entities.Credit;
@@ -11,31 +13,71 @@ import com.souhailbektachi.backend.mappers.RemboursementMapper;
 import com.souhailbektachi.backend.repositories.CreditRepository;
 import com.souhailbektachi.backend.repositories.RemboursementRepository;
 import com.souhailbektachi.backend.services.RemboursementService;
-import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class RemboursementServiceImpl implements RemboursementService {
 
+    private static final int MAX_SCROLL_SIZE = 1000;
+    private static final int EXPORT_FLUSH_SIZE = 500;
+    private static final String[] EXPORT_COLUMNS = {"id", "date", "montant", "type", "creditId"};
+
     private final RemboursementRepository remboursementRepository;
     private final CreditRepository creditRepository;
     private final RemboursementMapper remboursementMapper;
+    private final DashboardCounters dashboardCounters;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Page<RemboursementDTO> getAllRemboursements(Pageable pageable) {
+        return remboursementRepository.findAll(pageable).map(remboursementMapper::toDto);
+    }
 
     @Override
-    public List<RemboursementDTO> getAllRemboursements() {
-        List<Remboursement> remboursements = remboursementRepository.findAll();
+    public List<RemboursementDTO> scrollRemboursements(Long afterId, int size) {
+        validateScrollSize(size);
+        List<Remboursement> remboursements = remboursementRepository.findByIdGreaterThan(
+                afterId != null ? afterId : 0L, PageRequest.of(0, size, Sort.by("id")));
         return remboursementMapper.toDtoList(remboursements);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void exportRemboursements(ExportFormat format, OutputStream outputStream) throws IOException {
+        ExportWriter<RemboursementDTO> writer = new ExportWriter<>(format, outputStream, objectMapper, EXPORT_COLUMNS,
+                r -> new Object[]{r.getId(), r.getDate(), r.getMontant(), r.getType(), r.getCreditId()});
+        writer.writeHeader();
+        
+        try (Stream<RemboursementDTO> rows = remboursementRepository.streamAllForExport()) {
+            int count = 0;
+            for (RemboursementDTO row : (Iterable<RemboursementDTO>) rows::iterator) {
+                writer.write(row);
+                if (++count % EXPORT_FLUSH_SIZE == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+    }
+
     @Override
     public RemboursementDTO getRemboursementById(Long id) {
         Remboursement remboursement = findRemboursementOrThrow(id);
@@ -51,7 +93,9 @@ public class RemboursementServiceImpl implements RemboursementService {
                 .orElseThrow(() -> new ResourceNotFoundException("Credit", "id", remboursementRequestDTO.getCreditId()));
         
         Remboursement remboursement = remboursementMapper.toEntity(remboursementRequestDTO);
+        checkInstallmentNotPosted(credit.getId(), remboursement.getType(), remboursement.getDate(), null);
         Remboursement savedRemboursement = remboursementRepository.save(remboursement);
+        dashboardCounters.remboursementCreated(savedRemboursement);
         
         return remboursementMapper.toDto(savedRemboursement);
     }
@@ -60,9 +104,13 @@ public class RemboursementServiceImpl implements RemboursementService {
     public RemboursementDTO updateRemboursement(Long id, RemboursementRequestDTO remboursementRequestDTO) {
         Remboursement remboursement = findRemboursementOrThrow(id);
         validateRemboursementRequest(remboursementRequestDTO);
+        TypeRemboursement previousType = remboursement.getType();
+        Double previousMontant = remboursement.getMontant();
         
         remboursementMapper.updateRemboursementFromDto(remboursementRequestDTO, remboursement);
+        checkInstallmentNotPosted(remboursement.getCredit().getId(), remboursement.getType(), remboursement.getDate(), id);
         Remboursement updatedRemboursement = remboursementRepository.save(remboursement);
+        dashboardCounters.remboursementUpdated(updatedRemboursement, previousType, previousMontant);
         
         return remboursementMapper.toDto(updatedRemboursement);
     }
@@ -71,6 +119,7 @@ public class RemboursementServiceImpl implements RemboursementService {
     public void deleteRemboursement(Long id) {
         Remboursement remboursement = findRemboursementOrThrow(id);
         remboursementRepository.delete(remboursement);
+        dashboardCounters.remboursementDeleted(remboursement);
     }
 
     @Override
@@ -104,6 +153,7 @@ public class RemboursementServiceImpl implements RemboursementService {
         remboursement.setType(TypeRemboursement.REMBOURSEMENT_ANTICIPE);
         
         Remboursement savedRemboursement = remboursementRepository.save(remboursement);
+        dashboardCounters.remboursementCreated(savedRemboursement);
         
         // Calculate new credit balance after early repayment
         Map<String, Object> remainingBalance = calculateRemainingBalance(creditId);
@@ -120,22 +170,10 @@ public class RemboursementServiceImpl implements RemboursementService {
         Credit credit = creditRepository.findById(creditId)
                 .orElseThrow(() -> new ResourceNotFoundException("Credit", "id", creditId));
         
-        // Calculate monthly payment amount (simplified version - this should use the same formula as in CreditService)
-        double principal = credit.getMontant();
-        double annualInterestRate = credit.getTauxInteret() / 100.0;
-        double monthlyInterestRate = annualInterestRate / 12.0;
-        int loanDurationMonths = credit.getDureeRemboursement();
-        
-        double monthlyPayment;
-        if (monthlyInterestRate == 0) {
-            monthlyPayment = principal / loanDurationMonths;
-        } else {
-            double temp = Math.pow(1 + monthlyInterestRate, loanDurationMonths);
-            monthlyPayment = principal * (monthlyInterestRate * temp / (temp - 1));
-        }
-        
-        // Round to 2 decimal places
-        monthlyPayment = Math.round(monthlyPayment * 100.0) / 100.0;
+        // Monthly payment amount, same computation as the credit's payment schedule
+        long monthlyPaymentCents = AmortizationEngine.monthlyPaymentCents(
+                AmortizationEngine.toCents(credit.getMontant()), credit.getTauxInteret(), credit.getDureeRemboursement());
+        double monthlyPayment = AmortizationEngine.fromCents(monthlyPaymentCents);
         
         // Create monthly payment record
         Remboursement remboursement = new Remboursement();
@@ -143,8 +181,10 @@ public class RemboursementServiceImpl implements RemboursementService {
         remboursement.setDate(date);
         remboursement.setMontant(monthlyPayment);
         remboursement.setType(TypeRemboursement.MENSUALITE);
+        checkInstallmentNotPosted(creditId, TypeRemboursement.MENSUALITE, date, null);
         
         Remboursement savedRemboursement = remboursementRepository.save(remboursement);
+        dashboardCounters.remboursementCreated(savedRemboursement);
         
         return remboursementMapper.toDto(savedRemboursement);
     }
@@ -159,36 +199,25 @@ public class RemboursementServiceImpl implements RemboursementService {
         List<Remboursement> remboursements = remboursementRepository.findByCreditId(creditId);
         
         // Calculate total amount repaid
-        double totalRepaid = remboursements.stream()
-                .mapToDouble(Remboursement::getMontant)
-                .sum();
-        
-        // Calculate original total to be paid (principal + interest)
-        double principal = credit.getMontant();
-        double annualInterestRate = credit.getTauxInteret() / 100.0;
-        double monthlyInterestRate = annualInterestRate / 12.0;
-        int loanDurationMonths = credit.getDureeRemboursement();
-        
-        double monthlyPayment;
-        if (monthlyInterestRate == 0) {
-            monthlyPayment = principal / loanDurationMonths;
-        } else {
-            double temp = Math.pow(1 + monthlyInterestRate, loanDurationMonths);
-            monthlyPayment = principal * (monthlyInterestRate * temp / (temp - 1));
+        long totalRepaidCents = 0;
+        for (Remboursement remboursement : remboursements) {
+            totalRepaidCents += AmortizationEngine.toCents(remboursement.getMontant());
         }
         
-        double totalPayment = monthlyPayment * loanDurationMonths;
-        double totalInterest = totalPayment - principal;
+        // Calculate original total to be paid (principal + interest of the schedule)
+        double principal = credit.getMontant();
+        long principalCents = AmortizationEngine.toCents(principal);
+        long totalInterestCents = AmortizationEngine.totalInterestCents(
+                principalCents, credit.getTauxInteret(), credit.getDureeRemboursement());
+        long totalPaymentCents = principalCents + totalInterestCents;
         
         // Calculate remaining balance
-        double remainingBalance = totalPayment - totalRepaid;
-        if (remainingBalance < 0) remainingBalance = 0;
+        long remainingBalanceCents = Math.max(0, totalPaymentCents - totalRepaidCents);
         
-        // Round to 2 decimal places
-        totalRepaid = Math.round(totalRepaid * 100.0) / 100.0;
-        totalPayment = Math.round(totalPayment * 100.0) / 100.0;
-        totalInterest = Math.round(totalInterest * 100.0) / 100.0;
-        remainingBalance = Math.round(remainingBalance * 100.0) / 100.0;
+        double totalRepaid = AmortizationEngine.fromCents(totalRepaidCents);
+        double totalPayment = AmortizationEngine.fromCents(totalPaymentCents);
+        double totalInterest = AmortizationEngine.fromCents(totalInterestCents);
+        double remainingBalance = AmortizationEngine.fromCents(remainingBalanceCents);
         
         // Count payments by type
         long regularPayments = remboursements.stream()
@@ -254,6 +283,20 @@ public class RemboursementServiceImpl implements RemboursementService {
                 .orElseThrow(() -> new ResourceNotFoundException("Remboursement", "id", id));
     }
     
+    private void validateScrollSize(int size) {
+        if (size <= 0 || size > MAX_SCROLL_SIZE) {
+            throw new BadRequestException("Size must be between 1 and " + MAX_SCROLL_SIZE);
+        }
+    }
+    
+    private void checkInstallmentNotPosted(Long creditId, TypeRemboursement type, LocalDate date, Long excludedId) {
+        // Also enforced by the uk_remboursement_installment key, against concurrent writers
+        LocalDate month = Remboursement.installmentMonth(type, date);
+        if (month != null && remboursementRepository.existsInstallment(creditId, month, excludedId)) {
+            throw new BadRequestException("The installment of " + YearMonth.from(month) + " is already posted for this credit");
+        }
+    }
+    
     private void validateRemboursementRequest(RemboursementRequestDTO requestDTO) {
         if (requestDTO == null) {
             throw new BadRequestException("Remboursement request cannot be null");
@@ -0,0 +1,205 @@
+package com.souhailbektachi.backend.services.impl;
+
+import com.souhailbektachi.backend.repositories.DataVersionRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Versioned cache of the computed reports.
+ *
+ * The data version is the 'reporting' row of the data_version table, incremented in the same
+ * transaction as every change to clients, credits or repayments (see
+ * {@link com.souhailbektachi.backend.entities.listeners.ReportingDataChangeListener}), so all
+ * instances agree on it and it survives restarts. The report ETag is made of that version and the
+ * current date (several reports depend on today's date). The version is re-read at most once per
+ * check interval, and right after a local change commits: a request carrying the current ETag is
+ * answered 304 without computing anything, and a report is recomputed at most once per version
+ * for each set of parameters. Changes committed by another instance show up within the interval.
+ *
+ * Each local change records the version it produced, so a version read that moved further than
+ * the local changes account for reveals a change made elsewhere: {@link #getRemoteVersion()} lets
+ * the in-memory rollups that only see local writes (see {@link DashboardCounters}) catch up.
+ */
+@Component
+public class ReportCache {
+
+    static final String DATA_SET = "reporting";
+
+    private final DataVersionRepository dataVersionRepository;
+    private final TransactionTemplate newTransaction;
+    private final long versionCheckIntervalMs;
+    private final int maxEntries;
+    private final Map<String, Entry> entries;
+    private final NavigableSet<Long> localVersions = new ConcurrentSkipListSet<>();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile long version;
+    private volatile long versionCheckedUntil;
+    private volatile long remoteVersion;
+
+    public ReportCache(DataVersionRepository dataVersionRepository,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${reporting.cache.version-check-interval-ms:1000}") long versionCheckIntervalMs,
+                       @Value("${reporting.cache.max-entries:256}") int maxEntries) {
+        this.dataVersionRepository = dataVersionRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.versionCheckIntervalMs = versionCheckIntervalMs;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > ReportCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Strong ETag of the reports for the current data version
+     */
+    public String getETag() {
+        if (System.currentTimeMillis() >= versionCheckedUntil) {
+            readVersion();
+        }
+        return "\"" + version + "-" + LocalDate.now() + "\"";
+    }
+
+    /**
+     * Data version committed in the database, read now
+     */
+    public long getCurrentVersion() {
+        return readVersion();
+    }
+
+    /**
+     * Latest data version known to include a change made by another instance (or outside the
+     * application), as of the last version read
+     */
+    public long getRemoteVersion() {
+        return remoteVersion;
+    }
+
+    private synchronized long readVersion() {
+        Long current = dataVersionRepository.findVersion(DATA_SET);
+        long latest = current != null ? current : 0L;
+        if (latest > version) {
+            // A local change whose commit has not recorded its version yet counts as remote, which
+            // only costs an unneeded catch-up
+            int local = localVersions.subSet(version, false, latest, true).size();
+            if (latest - version > local) {
+                remoteVersion = latest;
+            }
+        }
+        localVersions.headSet(latest, true).clear();
+        version = latest;
+        versionCheckedUntil = System.currentTimeMillis() + versionCheckIntervalMs;
+        return latest;
+    }
+
+    /**
+     * Return the report cached under {@code key} for the given ETag, computing it on a miss
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, String eTag, Supplier<T> loader) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry != null && entry.eTag.equals(eTag)) {
+            return (T) entry.report;
+        }
+
+        T report = loader.get();
+        synchronized (entries) {
+            entries.put(key, new Entry(eTag, report));
+        }
+        return report;
+    }
+
+    /**
+     * Increment the data version with the current transaction (in a transaction of its own outside one).
+     * Several changes within one transaction produce a single new version.
+     */
+    public void markChanged() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Long produced = newTransaction.execute(status -> {
+                dataVersionRepository.increment(DATA_SET);
+                return dataVersionRepository.findVersion(DATA_SET);
+            });
+            if (produced != null) {
+                localVersions.add(produced);
+            }
+            versionCheckedUntil = 0;
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        AtomicLong produced = new AtomicLong(-1);
+        // Run by Hibernate after its commit flush, so the row is locked only while the transaction
+        // commits and concurrent writers are not serialized for their whole duration. Called from
+        // the entity listeners during that flush, Spring's beforeCommit would already be too late.
+        entityManager.unwrap(SessionImplementor.class).getActionQueue().registerProcess(session ->
+                session.doWork(connection -> {
+                    try (PreparedStatement statement = connection.prepareStatement(DataVersionRepository.INCREMENT_SQL)) {
+                        statement.setString(1, DATA_SET);
+                        statement.executeUpdate();
+                    }
+                    // The row stays locked by this transaction: the version read is the one it produces
+                    try (PreparedStatement statement = connection.prepareStatement(DataVersionRepository.VERSION_SQL)) {
+                        statement.setString(1, DATA_SET);
+                        try (ResultSet resultSet = statement.executeQuery()) {
+                            if (resultSet.next()) {
+                                produced.set(resultSet.getLong(1));
+                            }
+                        }
+                    }
+                }));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (produced.get() >= 0) {
+                    localVersions.add(produced.get());
+                }
+                versionCheckedUntil = 0;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ReportCache.this);
+            }
+        });
+    }
+
+    private static final class Entry {
+        private final String eTag;
+        private final Object report;
+
+        private Entry(String eTag, Object report) {
+            this.eTag = eTag;
+            this.report = report;
+        }
+    }
+}
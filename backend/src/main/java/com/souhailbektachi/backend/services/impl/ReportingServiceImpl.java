@@ -1,14 +1,20 @@
 package com.souhailbektachi.backend.services.impl;
 
-import com.souhailbektachi.backend.dtos.CreditSummaryDTO;
 import com.souhailbektachi.backend.entities.*;
+import com.souhailbektachi.backend.exceptions.BadRequestException;
 import com.souhailbektachi.backend.exceptions.ResourceNotFoundException;
-import com.souhailbektachi.backend.mappers.CreditMapper;
 import com.souhailbektachi.backend.repositories.ClientRepository;
 import com.souhailbektachi.backend.repositories.CreditRepository;
+import com.souhailbektachi.backend.repositories.DelinquencySnapshotRepository;
 import com.souhailbektachi.backend.repositories.RemboursementRepository;
+import com.souhailbektachi.backend.repositories.projections.CreditPerformanceAggregate;
+import com.souhailbektachi.backend.repositories.projections.CreditStatusAggregate;
+import com.souhailbektachi.backend.repositories.projections.CreditTypeStatusAggregate;
+import com.souhailbektachi.backend.repositories.projections.DelinquencyCandidate;
 import com.souhailbektachi.backend.services.ReportingService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -24,39 +30,37 @@ public class ReportingServiceImpl implements ReportingService {
     private final CreditRepository creditRepository;
     private final ClientRepository clientRepository;
     private final RemboursementRepository remboursementRepository;
-    private final CreditMapper creditMapper;
+    private final DashboardCounters dashboardCounters;
+    private final DelinquencyEvaluator delinquencyEvaluator;
+    private final DelinquencySnapshotJob delinquencySnapshotJob;
+    private final DelinquencySnapshotRepository snapshotRepository;
+
+    @Value("${reporting.delinquency.chunk-size:1000}")
+    private int snapshotChunkSize;
 
     @Override
     public Map<String, Object> getCreditSummaryByStatus() {
         Map<String, Object> result = new HashMap<>();
         
-        // Get all credits
-        List<Credit> allCredits = creditRepository.findAll();
-        
-        // Group credits by status
-        Map<StatutCredit, List<Credit>> creditsByStatus = allCredits.stream()
-                .collect(Collectors.groupingBy(Credit::getStatut));
+        // One aggregated row per status, computed by the database
+        List<CreditStatusAggregate> rows = creditRepository.aggregateByStatut();
         
-        // Convert each group to DTOs and add to result
-        for (Map.Entry<StatutCredit, List<Credit>> entry : creditsByStatus.entrySet()) {
-            String status = entry.getKey().name();
-            List<CreditSummaryDTO> creditDTOs = creditMapper.toSummaryDtoList(entry.getValue());
-            
+        long totalCredits = 0;
+        double totalAmount = 0;
+        for (CreditStatusAggregate row : rows) {
             Map<String, Object> statusData = new HashMap<>();
-            statusData.put("credits", creditDTOs);
-            statusData.put("count", creditDTOs.size());
-            statusData.put("totalAmount", creditDTOs.stream()
-                    .mapToDouble(CreditSummaryDTO::getMontant)
-                    .sum());
+            statusData.put("count", row.getCount());
+            statusData.put("totalAmount", row.getTotalAmount());
+            
+            result.put(row.getStatut().name(), statusData);
             
-            result.put(status, statusData);
+            totalCredits += row.getCount();
+            totalAmount += row.getTotalAmount();
         }
         
         // Add summary statistics
-        result.put("totalCredits", allCredits.size());
-        result.put("totalAmount", allCredits.stream()
-                .mapToDouble(Credit::getMontant)
-                .sum());
+        result.put("totalCredits", totalCredits);
+        result.put("totalAmount", totalAmount);
         
         return result;
     }
@@ -65,32 +69,17 @@ public class ReportingServiceImpl implements ReportingService {
     public Map<String, Object> getCreditSummaryByType() {
         Map<String, Object> result = new HashMap<>();
         
-        // Get all credits
-        List<Credit> allCredits = creditRepository.findAll();
-        
-        // Sort credits by type
-        List<Credit> personnelCredits = allCredits.stream()
-                .filter(c -> c instanceof CreditPersonnel)
-                .collect(Collectors.toList());
-        
-        List<Credit> immobilierCredits = allCredits.stream()
-                .filter(c -> c instanceof CreditImmobilier)
-                .collect(Collectors.toList());
-        
-        List<Credit> professionnelCredits = allCredits.stream()
-                .filter(c -> c instanceof CreditProfessionnel)
-                .collect(Collectors.toList());
+        // One aggregated row per (type, status) pair, computed by the database
+        List<CreditTypeStatusAggregate> rows = creditRepository.aggregateByTypeAndStatut();
         
         // Add data for each type
-        addCreditTypeData(result, "PERSONNEL", personnelCredits);
-        addCreditTypeData(result, "IMMOBILIER", immobilierCredits);
-        addCreditTypeData(result, "PROFESSIONNEL", professionnelCredits);
+        addCreditTypeData(result, "PERSONNEL", rows);
+        addCreditTypeData(result, "IMMOBILIER", rows);
+        addCreditTypeData(result, "PROFESSIONNEL", rows);
         
         // Add summary statistics
-        result.put("totalCredits", allCredits.size());
-        result.put("totalAmount", allCredits.stream()
-                .mapToDouble(Credit::getMontant)
-                .sum());
+        result.put("totalCredits", rows.stream().mapToLong(CreditTypeStatusAggregate::getCount).sum());
+        result.put("totalAmount", rows.stream().mapToDouble(CreditTypeStatusAggregate::getTotalAmount).sum());
         
         return result;
     }
@@ -288,92 +277,69 @@ public class ReportingServiceImpl implements ReportingService {
     public Map<String, Object> getCreditPerformanceByType() {
         Map<String, Object> result = new HashMap<>();
         
-        // Get all credits
-        List<Credit> allCredits = creditRepository.findAll();
-        
-        // Group by credit type
-        List<Credit> personnelCredits = allCredits.stream()
-                .filter(c -> c instanceof CreditPersonnel)
-                .collect(Collectors.toList());
-        
-        List<Credit> immobilierCredits = allCredits.stream()
-                .filter(c -> c instanceof CreditImmobilier)
-                .collect(Collectors.toList());
-        
-        List<Credit> professionnelCredits = allCredits.stream()
-                .filter(c -> c instanceof CreditProfessionnel)
-                .collect(Collectors.toList());
+        // One aggregated row per credit type, computed by the database
+        Map<String, CreditPerformanceAggregate> rowsByType = creditRepository.aggregatePerformanceByType().stream()
+                .collect(Collectors.toMap(row -> getCreditType(row.getCreditType()), row -> row));
         
         // Calculate and add performance metrics for each type
-        result.put("PERSONNEL", calculatePerformanceMetrics(personnelCredits));
-        result.put("IMMOBILIER", calculatePerformanceMetrics(immobilierCredits));
-        result.put("PROFESSIONNEL", calculatePerformanceMetrics(professionnelCredits));
-        result.put("OVERALL", calculatePerformanceMetrics(allCredits));
+        List<CreditPerformanceAggregate> rows = new ArrayList<>(rowsByType.values());
+        result.put("PERSONNEL", calculatePerformanceMetrics(rowsByType.get("PERSONNEL")));
+        result.put("IMMOBILIER", calculatePerformanceMetrics(rowsByType.get("IMMOBILIER")));
+        result.put("PROFESSIONNEL", calculatePerformanceMetrics(rowsByType.get("PROFESSIONNEL")));
+        result.put("OVERALL", calculateOverallPerformanceMetrics(rows));
         
         return result;
     }
 
     @Override
     public List<Map<String, Object>> getDelinquentLoansReport() {
+        // Read the materialized daily snapshot when it is available
+        if (delinquencySnapshotJob.isAvailable()) {
+            // Read in credit id order, one chunk per query
+            List<Map<String, Object>> loans = new ArrayList<>();
+            long cursor = 0L;
+            List<DelinquencySnapshot> chunk;
+            do {
+                chunk = snapshotRepository.findByCreditIdGreaterThanOrderByCreditIdAsc(cursor, PageRequest.of(0, snapshotChunkSize));
+                chunk.forEach(snapshot -> loans.add(toDelinquentLoan(snapshot)));
+                if (!chunk.isEmpty()) {
+                    cursor = chunk.get(chunk.size() - 1).getCreditId();
+                }
+            } while (chunk.size() == snapshotChunkSize);
+            return loans;
+        }
+        
         List<Map<String, Object>> result = new ArrayList<>();
         
-        // Get all accepted credits
-        List<Credit> acceptedCredits = creditRepository.findByStatut(StatutCredit.ACCEPTE);
+        // Accepted credits are streamed in chunks with their repayment counts, one query per chunk
+        delinquencyEvaluator.scan(null, LocalDate.now(), (credit, expectedPayments) -> {
+            result.add(toDelinquentLoan(credit, expectedPayments));
+            return true;
+        });
         
-        // For each credit, analyze repayments to check for missed or late payments
-        for (Credit credit : acceptedCredits) {
-            // Get all repayments for this credit
-            List<Remboursement> repayments = remboursementRepository.findByCreditId(credit.getId());
-            
-            // Calculate expected number of monthly payments by now
-            LocalDate startDate = credit.getDateAcception();
-            LocalDate now = LocalDate.now();
-            
-            // Skip if acceptance date is null
-            if (startDate == null) {
-                continue;
-            }
-            
-            long monthsSinceStart = startDate.until(now).toTotalMonths();
-            long expectedMonthlyPayments = Math.min(monthsSinceStart, credit.getDureeRemboursement());
-            
-            // Count actual monthly payments
-            long actualMonthlyPayments = repayments.stream()
-                    .filter(r -> r.getType() == TypeRemboursement.MENSUALITE)
-                    .count();
-            
-            // If we have fewer payments than expected, this loan is delinquent
-            if (actualMonthlyPayments < expectedMonthlyPayments) {
-                Map<String, Object> delinquentLoan = new HashMap<>();
-                
-                // Add credit info
-                delinquentLoan.put("creditId", credit.getId());
-                delinquentLoan.put("creditType", getCreditType(credit));
-                delinquentLoan.put("montant", credit.getMontant());
-                delinquentLoan.put("dateDemande", credit.getDateDemande());
-                delinquentLoan.put("dateAcception", credit.getDateAcception());
-                
-                // Add client info
-                Client client = credit.getClient();
-                if (client != null) {
-                    delinquentLoan.put("clientId", client.getId());
-                    delinquentLoan.put("clientName", client.getNom());
-                    delinquentLoan.put("clientEmail", client.getEmail());
-                }
-                
-                // Add delinquency info
-                delinquentLoan.put("expectedPayments", expectedMonthlyPayments);
-                delinquentLoan.put("actualPayments", actualMonthlyPayments);
-                delinquentLoan.put("missedPayments", expectedMonthlyPayments - actualMonthlyPayments);
-                delinquentLoan.put("lastPaymentDate", repayments.isEmpty() ? null : 
-                        repayments.stream()
-                            .max(Comparator.comparing(Remboursement::getDate))
-                            .get().getDate());
-                
-                result.add(delinquentLoan);
-            }
+        return result;
+    }
+
+    @Override
+    public List<Map<String, Object>> getDelinquentLoansReport(Long afterCreditId, int limit) {
+        if (limit <= 0) {
+            throw new BadRequestException("Limit must be positive");
+        }
+        
+        if (delinquencySnapshotJob.isAvailable()) {
+            long cursor = afterCreditId != null ? afterCreditId : 0L;
+            return snapshotRepository.findByCreditIdGreaterThanOrderByCreditIdAsc(cursor, PageRequest.of(0, limit)).stream()
+                    .map(this::toDelinquentLoan)
+                    .collect(Collectors.toList());
         }
         
+        List<Map<String, Object>> result = new ArrayList<>();
+        
+        delinquencyEvaluator.scan(afterCreditId, LocalDate.now(), (credit, expectedPayments) -> {
+            result.add(toDelinquentLoan(credit, expectedPayments));
+            return result.size() < limit;
+        });
+        
         return result;
     }
 
@@ -381,126 +347,230 @@ public class ReportingServiceImpl implements ReportingService {
     public Map<String, Object> getDashboardSummary() {
         Map<String, Object> result = new HashMap<>();
         
+        if (dashboardCounters.isReady() && dashboardCounters.catchUp()) {
+            // Served from the in-memory rollup, no table is scanned
+            addDashboardCounters(result);
+        } else {
+            addDashboardAggregates(result);
+        }
+        
+        // Recent activity
+        LocalDate oneMonthAgo = LocalDate.now().minusMonths(1);
+        result.put("recentCreditApplications", creditRepository.countByDateDemandeGreaterThanEqual(oneMonthAgo));
+        result.put("recentRepayments", remboursementRepository.countByDateGreaterThanEqual(oneMonthAgo));
+        
+        // Delinquent loans count
+        if (delinquencySnapshotJob.isAvailable()) {
+            result.put("delinquentLoans", snapshotRepository.count());
+            result.put("delinquencySnapshotDate", delinquencySnapshotJob.getSnapshotDate());
+        } else {
+            result.put("delinquentLoans", delinquencyEvaluator.count(LocalDate.now()));
+        }
+        
+        return result;
+    }
+    
+    // Helper methods
+    
+    private void addDashboardCounters(Map<String, Object> result) {
+        // Client statistics
+        result.put("totalClients", dashboardCounters.getClientCount());
+        
+        // Credit statistics
+        result.put("totalCredits", dashboardCounters.getCreditCount());
+        result.put("totalCreditAmount", dashboardCounters.getCreditAmount());
+        
+        // Credits by status
+        result.put("pendingCredits", dashboardCounters.getCreditCount(StatutCredit.EN_COURS));
+        result.put("acceptedCredits", dashboardCounters.getCreditCount(StatutCredit.ACCEPTE));
+        result.put("rejectedCredits", dashboardCounters.getCreditCount(StatutCredit.REJETE));
+        
+        // Credits by type
+        result.put("personnelCredits", dashboardCounters.getCreditCount("PERSONNEL"));
+        result.put("immobilierCredits", dashboardCounters.getCreditCount("IMMOBILIER"));
+        result.put("professionnelCredits", dashboardCounters.getCreditCount("PROFESSIONNEL"));
+        
+        // Repayment statistics
+        result.put("totalRepayments", dashboardCounters.getRepaymentCount());
+        result.put("totalRepaidAmount", dashboardCounters.getRepaymentAmount());
+    }
+    
+    private void addDashboardAggregates(Map<String, Object> result) {
         // Client statistics
         long totalClients = clientRepository.count();
         result.put("totalClients", totalClients);
         
-        // Credit statistics
-        List<Credit> allCredits = creditRepository.findAll();
-        result.put("totalCredits", allCredits.size());
-        result.put("totalCreditAmount", allCredits.stream().mapToDouble(Credit::getMontant).sum());
+        // Credit statistics, aggregated by (type, status) in the database
+        List<CreditTypeStatusAggregate> creditRows = creditRepository.aggregateByTypeAndStatut();
+        result.put("totalCredits", creditRows.stream().mapToLong(CreditTypeStatusAggregate::getCount).sum());
+        result.put("totalCreditAmount", creditRows.stream().mapToDouble(CreditTypeStatusAggregate::getTotalAmount).sum());
         
         // Credits by status
-        Map<StatutCredit, Long> creditsByStatus = allCredits.stream()
-                .collect(Collectors.groupingBy(Credit::getStatut, Collectors.counting()));
+        Map<StatutCredit, Long> creditsByStatus = creditRows.stream()
+                .collect(Collectors.groupingBy(CreditTypeStatusAggregate::getStatut,
+                        Collectors.summingLong(CreditTypeStatusAggregate::getCount)));
         
         result.put("pendingCredits", creditsByStatus.getOrDefault(StatutCredit.EN_COURS, 0L));
         result.put("acceptedCredits", creditsByStatus.getOrDefault(StatutCredit.ACCEPTE, 0L));
         result.put("rejectedCredits", creditsByStatus.getOrDefault(StatutCredit.REJETE, 0L));
         
         // Credits by type
-        long personnelCredits = allCredits.stream().filter(c -> c instanceof CreditPersonnel).count();
-        long immobilierCredits = allCredits.stream().filter(c -> c instanceof CreditImmobilier).count();
-        long professionnelCredits = allCredits.stream().filter(c -> c instanceof CreditProfessionnel).count();
+        Map<String, Long> creditsByType = creditRows.stream()
+                .collect(Collectors.groupingBy(row -> getCreditType(row.getCreditType()),
+                        Collectors.summingLong(CreditTypeStatusAggregate::getCount)));
         
-        result.put("personnelCredits", personnelCredits);
-        result.put("immobilierCredits", immobilierCredits);
-        result.put("professionnelCredits", professionnelCredits);
+        result.put("personnelCredits", creditsByType.getOrDefault("PERSONNEL", 0L));
+        result.put("immobilierCredits", creditsByType.getOrDefault("IMMOBILIER", 0L));
+        result.put("professionnelCredits", creditsByType.getOrDefault("PROFESSIONNEL", 0L));
         
         // Repayment statistics
-        List<Remboursement> allRepayments = remboursementRepository.findAll();
-        result.put("totalRepayments", allRepayments.size());
-        result.put("totalRepaidAmount", allRepayments.stream().mapToDouble(Remboursement::getMontant).sum());
-        
-        // Recent activity
-        LocalDate oneMonthAgo = LocalDate.now().minusMonths(1);
-        List<Credit> recentCredits = creditRepository.findByDateDemandeGreaterThanEqual(oneMonthAgo);
-        List<Remboursement> recentRepayments = remboursementRepository.findByDateGreaterThanEqual(oneMonthAgo);
+        result.put("totalRepayments", remboursementRepository.count());
+        result.put("totalRepaidAmount", remboursementRepository.sumMontant());
+    }
+    
+    private void addCreditTypeData(Map<String, Object> result, String type, List<CreditTypeStatusAggregate> rows) {
+        long count = 0;
+        double totalAmount = 0;
         
-        result.put("recentCreditApplications", recentCredits.size());
-        result.put("recentRepayments", recentRepayments.size());
+        // Get status breakdown
+        Map<StatutCredit, Long> statusBreakdown = new EnumMap<>(StatutCredit.class);
+        for (CreditTypeStatusAggregate row : rows) {
+            if (!type.equals(getCreditType(row.getCreditType()))) {
+                continue;
+            }
+            count += row.getCount();
+            totalAmount += row.getTotalAmount();
+            statusBreakdown.merge(row.getStatut(), row.getCount(), Long::sum);
+        }
         
-        // Delinquent loans count
-        List<Map<String, Object>> delinquentLoans = getDelinquentLoansReport();
-        result.put("delinquentLoans", delinquentLoans.size());
+        Map<String, Object> typeData = new HashMap<>();
+        typeData.put("count", count);
+        typeData.put("totalAmount", totalAmount);
+        typeData.put("statusBreakdown", statusBreakdown);
         
-        return result;
+        result.put(type, typeData);
     }
     
-    // Helper methods
+    private Map<String, Object> toDelinquentLoan(DelinquencyCandidate credit, long expectedPayments) {
+        Map<String, Object> delinquentLoan = new HashMap<>();
+        
+        // Add credit info
+        delinquentLoan.put("creditId", credit.getCreditId());
+        delinquentLoan.put("creditType", getCreditType(credit.getCreditType()));
+        delinquentLoan.put("montant", credit.getMontant());
+        delinquentLoan.put("dateDemande", credit.getDateDemande());
+        delinquentLoan.put("dateAcception", credit.getDateAcception());
+        
+        // Add client info
+        if (credit.getClientId() != null) {
+            delinquentLoan.put("clientId", credit.getClientId());
+            delinquentLoan.put("clientName", credit.getClientName());
+            delinquentLoan.put("clientEmail", credit.getClientEmail());
+        }
+        
+        // Add delinquency info
+        long actualPayments = credit.getMonthlyPayments() != null ? credit.getMonthlyPayments() : 0;
+        delinquentLoan.put("expectedPayments", expectedPayments);
+        delinquentLoan.put("actualPayments", actualPayments);
+        delinquentLoan.put("missedPayments", expectedPayments - actualPayments);
+        delinquentLoan.put("lastPaymentDate", credit.getLastPaymentDate());
+        
+        return delinquentLoan;
+    }
     
-    private void addCreditTypeData(Map<String, Object> result, String type, List<Credit> credits) {
-        Map<String, Object> typeData = new HashMap<>();
-        typeData.put("credits", creditMapper.toSummaryDtoList(credits));
-        typeData.put("count", credits.size());
-        typeData.put("totalAmount", credits.stream().mapToDouble(Credit::getMontant).sum());
+    private Map<String, Object> toDelinquentLoan(DelinquencySnapshot snapshot) {
+        Map<String, Object> delinquentLoan = new HashMap<>();
         
-        // Get status breakdown
-        Map<StatutCredit, Long> statusBreakdown = credits.stream()
-                .collect(Collectors.groupingBy(Credit::getStatut, Collectors.counting()));
-        typeData.put("statusBreakdown", statusBreakdown);
+        // Add credit info
+        delinquentLoan.put("creditId", snapshot.getCreditId());
+        delinquentLoan.put("creditType", snapshot.getCreditType());
+        delinquentLoan.put("montant", snapshot.getMontant());
+        delinquentLoan.put("dateDemande", snapshot.getDateDemande());
+        delinquentLoan.put("dateAcception", snapshot.getDateAcception());
         
-        result.put(type, typeData);
+        // Add client info
+        if (snapshot.getClientId() != null) {
+            delinquentLoan.put("clientId", snapshot.getClientId());
+            delinquentLoan.put("clientName", snapshot.getClientName());
+            delinquentLoan.put("clientEmail", snapshot.getClientEmail());
+        }
+        
+        // Add delinquency info
+        delinquentLoan.put("expectedPayments", snapshot.getExpectedPayments());
+        delinquentLoan.put("actualPayments", snapshot.getActualPayments());
+        delinquentLoan.put("missedPayments", snapshot.getMissedPayments());
+        delinquentLoan.put("lastPaymentDate", snapshot.getLastPaymentDate());
+        
+        return delinquentLoan;
     }
     
-    private Map<String, Object> calculatePerformanceMetrics(List<Credit> credits) {
+    private Map<String, Object> calculatePerformanceMetrics(CreditPerformanceAggregate row) {
         Map<String, Object> metrics = new HashMap<>();
         
-        int totalCount = credits.size();
+        long totalCount = row != null ? row.getTotalCount() : 0;
         metrics.put("totalCount", totalCount);
         
         if (totalCount == 0) {
-            metrics.put("approvalRate", 0);
-            metrics.put("rejectionRate", 0);
-            metrics.put("averageAmount", 0);
-            metrics.put("averageDuration", 0);
-            metrics.put("averageInterestRate", 0);
+            addEmptyPerformanceMetrics(metrics);
             return metrics;
         }
         
-        // Calculate status rates
-        long acceptedCount = credits.stream()
-                .filter(c -> c.getStatut() == StatutCredit.ACCEPTE)
-                .count();
-        
-        long rejectedCount = credits.stream()
-                .filter(c -> c.getStatut() == StatutCredit.REJETE)
-                .count();
-        
-        metrics.put("approvalRate", acceptedCount * 100.0 / totalCount);
-        metrics.put("rejectionRate", rejectedCount * 100.0 / totalCount);
+        metrics.put("approvalRate", row.getAcceptedCount() * 100.0 / totalCount);
+        metrics.put("rejectionRate", row.getRejectedCount() * 100.0 / totalCount);
+        metrics.put("totalAmount", row.getTotalAmount());
+        metrics.put("averageAmount", row.getAverageAmount());
+        metrics.put("averageDuration", row.getAverageDuration());
+        metrics.put("averageInterestRate", row.getAverageInterestRate());
         
-        // Calculate averages
-        double totalAmount = credits.stream()
-                .mapToDouble(Credit::getMontant)
-                .sum();
+        return metrics;
+    }
+    
+    private Map<String, Object> calculateOverallPerformanceMetrics(List<CreditPerformanceAggregate> rows) {
+        Map<String, Object> metrics = new HashMap<>();
         
-        double averageAmount = totalAmount / totalCount;
+        long totalCount = rows.stream().mapToLong(CreditPerformanceAggregate::getTotalCount).sum();
+        metrics.put("totalCount", totalCount);
         
-        double averageDuration = credits.stream()
-                .mapToInt(Credit::getDureeRemboursement)
-                .average()
-                .orElse(0);
+        if (totalCount == 0) {
+            addEmptyPerformanceMetrics(metrics);
+            return metrics;
+        }
         
-        double averageInterestRate = credits.stream()
-                .mapToDouble(Credit::getTauxInteret)
-                .average()
-                .orElse(0);
+        // Per-type averages are weighted by their counts to get the portfolio-wide averages
+        long acceptedCount = rows.stream().mapToLong(CreditPerformanceAggregate::getAcceptedCount).sum();
+        long rejectedCount = rows.stream().mapToLong(CreditPerformanceAggregate::getRejectedCount).sum();
+        double totalAmount = rows.stream().mapToDouble(CreditPerformanceAggregate::getTotalAmount).sum();
+        double totalDuration = rows.stream()
+                .mapToDouble(row -> row.getAverageDuration() * row.getTotalCount())
+                .sum();
+        double totalInterestRate = rows.stream()
+                .mapToDouble(row -> row.getAverageInterestRate() * row.getTotalCount())
+                .sum();
         
+        metrics.put("approvalRate", acceptedCount * 100.0 / totalCount);
+        metrics.put("rejectionRate", rejectedCount * 100.0 / totalCount);
         metrics.put("totalAmount", totalAmount);
-        metrics.put("averageAmount", averageAmount);
-        metrics.put("averageDuration", averageDuration);
-        metrics.put("averageInterestRate", averageInterestRate);
+        metrics.put("averageAmount", totalAmount / totalCount);
+        metrics.put("averageDuration", totalDuration / totalCount);
+        metrics.put("averageInterestRate", totalInterestRate / totalCount);
         
         return metrics;
     }
     
-    private String getCreditType(Credit credit) {
-        if (credit instanceof CreditPersonnel) {
+    private void addEmptyPerformanceMetrics(Map<String, Object> metrics) {
+        metrics.put("approvalRate", 0);
+        metrics.put("rejectionRate", 0);
+        metrics.put("averageAmount", 0);
+        metrics.put("averageDuration", 0);
+        metrics.put("averageInterestRate", 0);
+    }
+    
+    private String getCreditType(Class<?> creditType) {
+        if (CreditPersonnel.class.equals(creditType)) {
             return "PERSONNEL";
-        } else if (credit instanceof CreditImmobilier) {
+        } else if (CreditImmobilier.class.equals(creditType)) {
             return "IMMOBILIER";
-        } else if (credit instanceof CreditProfessionnel) {
+        } else if (CreditProfessionnel.class.equals(creditType)) {
             return "PROFESSIONNEL";
         } else {
             return "UNKNOWN";
@@ -0,0 +1,206 @@
+package com.souhailbektachi.backend.services.impl;
+
+import com.souhailbektachi.backend.entities.Client;
+import com.souhailbektachi.backend.entities.CreditProfessionnel;
+import com.souhailbektachi.backend.entities.SearchIndexChange;
+import com.souhailbektachi.backend.repositories.ClientRepository;
+import com.souhailbektachi.backend.repositories.CreditRepository;
+import com.souhailbektachi.backend.repositories.SearchIndexChangeRepository;
+import com.souhailbektachi.backend.repositories.projections.ClientSearchEntry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the in-memory search indexes ({@link ClientSearchIndex}, {@link SuggestionIndex}) of the
+ * instances current with each other's writes.
+ *
+ * The local indexes are updated by the services after commit; this component publishes the written
+ * clients and professional credits to the search_index_change table once the transaction commits,
+ * and every instance polls that table to re-read the changed rows written by the others. A missed
+ * row (an instance dying right after its commit) is picked up by the next rebuild of the indexes.
+ *
+ * As for the second-level cache invalidations (see {@link SecondLevelCacheSync}), rows become
+ * visible at commit and not in id order: each poll re-reads the rows created since the previous
+ * poll minus an overlap window, skipping the ones already applied or published here.
+ */
+@Component
+@Slf4j
+public class SearchIndexSync {
+
+    static final String CLIENT = "client";
+    static final String CREDIT = "credit";
+
+    private static final Duration RETENTION = Duration.ofHours(1);
+    // Bound of the IN lists re-reading the changed rows
+    private static final int READ_CHUNK_SIZE = 1000;
+
+    private final SearchIndexChangeRepository searchIndexChangeRepository;
+    private final ClientRepository clientRepository;
+    private final CreditRepository creditRepository;
+    private final ClientSearchIndex clientSearchIndex;
+    private final SuggestionIndex suggestionIndex;
+    private final TransactionTemplate newTransaction;
+    private final Duration overlap;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+    // Ids of the rows published here or applied by the last polls, with their creation time, until they leave the window
+    private final Map<Long, Instant> appliedIds = new ConcurrentHashMap<>();
+    private volatile Instant lastPoll;
+    private volatile Instant lastPurge = Instant.EPOCH;
+
+    public SearchIndexSync(SearchIndexChangeRepository searchIndexChangeRepository,
+                           ClientRepository clientRepository,
+                           CreditRepository creditRepository,
+                           ClientSearchIndex clientSearchIndex,
+                           SuggestionIndex suggestionIndex,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${search.index.changes.overlap-ms:10000}") long overlapMs) {
+        this.searchIndexChangeRepository = searchIndexChangeRepository;
+        this.clientRepository = clientRepository;
+        this.creditRepository = creditRepository;
+        this.clientSearchIndex = clientSearchIndex;
+        this.suggestionIndex = suggestionIndex;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.overlap = Duration.ofMillis(overlapMs);
+    }
+
+    /**
+     * Record a written entity, to be published once the current transaction commits
+     */
+    @SuppressWarnings("unchecked")
+    public void entityChanged(Object entity) {
+        SearchIndexChange change = toChange(entity);
+        if (change == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(List.of(change));
+            return;
+        }
+
+        Set<SearchIndexChange> pending = (Set<SearchIndexChange>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<SearchIndexChange> bound = new LinkedHashSet<>();
+            pending = bound;
+            TransactionSynchronizationManager.bindResource(this, bound);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(new ArrayList<>(bound));
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(SearchIndexSync.this);
+                }
+            });
+        }
+        pending.add(change);
+    }
+
+    @Scheduled(fixedDelayString = "${search.index.changes.poll-interval-ms:2000}")
+    public synchronized void poll() {
+        Instant now = Instant.now();
+        if (lastPoll == null) {
+            // The indexes are loaded after this point, with every change committed so far
+            lastPoll = now;
+            return;
+        }
+
+        Instant since = lastPoll.minus(overlap);
+        Set<Long> clientIds = new LinkedHashSet<>();
+        Set<Long> creditIds = new LinkedHashSet<>();
+        for (SearchIndexChange change : searchIndexChangeRepository.findByCreatedAtGreaterThanEqualOrderById(since)) {
+            if (appliedIds.putIfAbsent(change.getId(), change.getCreatedAt()) == null) {
+                (CLIENT.equals(change.getEntityType()) ? clientIds : creditIds).add(change.getEntityId());
+            }
+        }
+        // Rows created before the window are never read again
+        appliedIds.values().removeIf(createdAt -> createdAt.isBefore(since));
+        lastPoll = now;
+
+        for (List<Long> ids : chunks(clientIds)) {
+            List<ClientSearchEntry> entries = clientRepository.findSearchEntriesByIdIn(ids);
+            clientSearchIndex.clientsChanged(ids, entries);
+            suggestionIndex.clientsChanged(ids, entries);
+        }
+        for (List<Long> ids : chunks(creditIds)) {
+            suggestionIndex.companyCreditsChanged(ids, creditRepository.findCompanyNamesByIdIn(ids));
+        }
+        applied.addAndGet(clientIds.size() + creditIds.size());
+
+        if (lastPurge.plus(RETENTION).isBefore(now)) {
+            lastPurge = now;
+            newTransaction.executeWithoutResult(status ->
+                    searchIndexChangeRepository.deleteCreatedBefore(now.minus(RETENTION)));
+        }
+    }
+
+    /**
+     * Number of changes published and applied by this instance
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("changesPublished", published.get());
+        stats.put("changesApplied", applied.get());
+        stats.put("lastPoll", lastPoll);
+        return stats;
+    }
+
+    // Helper methods
+
+    private static SearchIndexChange toChange(Object entity) {
+        if (entity instanceof Client client) {
+            return new SearchIndexChange(null, CLIENT, client.getId(), null);
+        }
+        // Only the professional credits name a company
+        if (entity instanceof CreditProfessionnel credit) {
+            return new SearchIndexChange(null, CREDIT, credit.getId(), null);
+        }
+        return null;
+    }
+
+    private void publish(List<SearchIndexChange> changes) {
+        // Stamped right before the insert, so that the overlap window only has to cover this transaction
+        Instant now = Instant.now();
+        changes.forEach(change -> change.setCreatedAt(now));
+        try {
+            List<SearchIndexChange> saved = newTransaction.execute(status -> searchIndexChangeRepository.saveAll(changes));
+            // Already applied here by the services (a poll reading them first only re-reads them)
+            saved.forEach(change -> appliedIds.put(change.getId(), now));
+            published.addAndGet(saved.size());
+        } catch (RuntimeException e) {
+            // The write itself is committed: the other instances catch up at their next rebuild
+            log.warn("Could not publish search index changes: {}", e.getMessage());
+        }
+    }
+
+    private static List<List<Long>> chunks(Set<Long> ids) {
+        List<Long> all = new ArrayList<>(ids);
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int i = 0; i < all.size(); i += READ_CHUNK_SIZE) {
+            chunks.add(all.subList(i, Math.min(all.size(), i + READ_CHUNK_SIZE)));
+        }
+        return chunks;
+    }
+}
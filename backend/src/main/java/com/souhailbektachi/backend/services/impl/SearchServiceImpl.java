@@ -0,0 +1,46 @@
+package com.souhailbektachi.backend.services.impl;
+
+import com.souhailbektachi.backend.dtos.SuggestionDTO;
+import com.souhailbektachi.backend.dtos.SuggestionType;
+import com.souhailbektachi.backend.exceptions.BadRequestException;
+import com.souhailbektachi.backend.repositories.ClientRepository;
+import com.souhailbektachi.backend.services.SearchService;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class SearchServiceImpl implements SearchService {
+
+    private static final int MAX_SUGGESTIONS = 50;
+
+    private final SuggestionIndex suggestionIndex;
+    private final ClientRepository clientRepository;
+
+    @Override
+    public List<SuggestionDTO> suggest(String prefix, int limit) {
+        if (limit <= 0 || limit > MAX_SUGGESTIONS) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        if (StringUtils.isBlank(prefix)) {
+            return Collections.emptyList();
+        }
+        
+        List<SuggestionDTO> suggestions = suggestionIndex.suggest(prefix, limit);
+        if (suggestions != null) {
+            return suggestions;
+        }
+        
+        // Index still loading: client names only
+        return clientRepository.findByNomStartingWithIgnoreCase(prefix.trim(), PageRequest.of(0, limit, Sort.by("nom"))).stream()
+                .map(client -> new SuggestionDTO(SuggestionType.CLIENT, client.getNom(), client.getId()))
+                .collect(Collectors.toList());
+    }
+}
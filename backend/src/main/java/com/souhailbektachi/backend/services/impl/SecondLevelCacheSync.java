@@ -0,0 +1,237 @@
+package com.souhailbektachi.backend.services.impl;
+
+import com.souhailbektachi.backend.entities.CacheInvalidation;
+import com.souhailbektachi.backend.entities.Client;
+import com.souhailbektachi.backend.entities.Credit;
+import com.souhailbektachi.backend.entities.User;
+import com.souhailbektachi.backend.repositories.CacheInvalidationRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the Hibernate second-level cache of the instances coherent.
+ *
+ * Hibernate evicts the local cache on writes; this component publishes the written entries to the
+ * l2_cache_invalidation table once the transaction commits, and every instance polls that table
+ * to evict the entries written by the others. A missed row (an instance dying right after its
+ * commit) is bounded by the expiration of the cache regions.
+ *
+ * Identity values are allocated at insert but become visible at commit, so a row may appear behind
+ * rows with greater ids that were already read. Each poll therefore re-reads the rows created since
+ * the previous poll minus an overlap window (covering the publishing transaction and the clock skew
+ * between instances), skipping the ones already applied.
+ */
+@Component
+@Slf4j
+public class SecondLevelCacheSync {
+
+    static final String CLIENT = "client";
+    static final String CLIENT_CREDITS = "client-credits";
+    static final String CREDIT = "credit";
+    static final String USER = "user";
+
+    private static final Duration RETENTION = Duration.ofHours(1);
+
+    private final CacheInvalidationRepository cacheInvalidationRepository;
+    private final SessionFactoryImplementor sessionFactory;
+    private final TransactionTemplate newTransaction;
+    private final boolean enabled;
+    private final Duration overlap;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+    // Ids of the rows applied by the last polls, with their creation time, until they leave the window
+    private final Map<Long, Instant> appliedIds = new HashMap<>();
+    private volatile Instant lastPoll;
+    private volatile Instant lastPurge = Instant.EPOCH;
+
+    public SecondLevelCacheSync(CacheInvalidationRepository cacheInvalidationRepository,
+                                EntityManagerFactory entityManagerFactory,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${second-level-cache.invalidation.overlap-ms:10000}") long overlapMs) {
+        this.cacheInvalidationRepository = cacheInvalidationRepository;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled();
+        this.overlap = Duration.ofMillis(overlapMs);
+    }
+
+    /**
+     * Publish the cache entries of a written entity once the current transaction commits
+     * (immediately outside a transaction)
+     */
+    @SuppressWarnings("unchecked")
+    public void entityChanged(Object entity) {
+        if (!enabled) {
+            return;
+        }
+        List<CacheInvalidation> invalidations = toInvalidations(entity);
+        if (invalidations.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(invalidations);
+            return;
+        }
+
+        Set<CacheInvalidation> pending = (Set<CacheInvalidation>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<CacheInvalidation> bound = new LinkedHashSet<>();
+            pending = bound;
+            TransactionSynchronizationManager.bindResource(this, bound);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(new ArrayList<>(bound));
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(SecondLevelCacheSync.this);
+                }
+            });
+        }
+        pending.addAll(invalidations);
+    }
+
+    @Scheduled(fixedDelayString = "${second-level-cache.invalidation.poll-interval-ms:2000}")
+    public synchronized void poll() {
+        if (!enabled) {
+            return;
+        }
+        Instant now = Instant.now();
+        if (lastPoll == null) {
+            // Entries cached from now on are newer than every existing invalidation
+            lastPoll = now;
+            return;
+        }
+
+        Instant since = lastPoll.minus(overlap);
+        Cache cache = sessionFactory.getCache();
+        int evicted = 0;
+        for (CacheInvalidation invalidation : cacheInvalidationRepository.findByCreatedAtGreaterThanEqualOrderById(since)) {
+            if (appliedIds.putIfAbsent(invalidation.getId(), invalidation.getCreatedAt()) == null) {
+                evict(cache, invalidation.getRegion(), invalidation.getEntityId());
+                evicted++;
+            }
+        }
+        // Rows created before the window are never read again
+        appliedIds.values().removeIf(createdAt -> createdAt.isBefore(since));
+        lastPoll = now;
+        if (evicted > 0) {
+            // Cached query results are only invalidated by local writes
+            cache.evictDefaultQueryRegion();
+            applied.addAndGet(evicted);
+        }
+
+        if (lastPurge.plus(RETENTION).isBefore(now)) {
+            lastPurge = now;
+            newTransaction.executeWithoutResult(status ->
+                    cacheInvalidationRepository.deleteCreatedBefore(now.minus(RETENTION)));
+        }
+    }
+
+    /**
+     * Region-level statistics of the second-level cache and of the query cache
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        if (!enabled) {
+            return stats;
+        }
+
+        Statistics statistics = sessionFactory.getStatistics();
+        Map<String, Object> regions = new TreeMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics != null) {
+                regions.put(region, toStats(regionStatistics.getHitCount(), regionStatistics.getMissCount(),
+                        regionStatistics.getPutCount(), regionStatistics.getElementCountInMemory()));
+            }
+        }
+        stats.put("regions", regions);
+        stats.put("queryCache", toStats(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount(), -1));
+        stats.put("invalidationsPublished", published.get());
+        stats.put("invalidationsApplied", applied.get());
+        return stats;
+    }
+
+    // Helper methods
+
+    private static List<CacheInvalidation> toInvalidations(Object entity) {
+        List<CacheInvalidation> invalidations = new ArrayList<>(2);
+        if (entity instanceof Client client) {
+            invalidations.add(new CacheInvalidation(null, CLIENT, client.getId(), null));
+        } else if (entity instanceof User user) {
+            invalidations.add(new CacheInvalidation(null, USER, user.getId(), null));
+        } else if (entity instanceof Credit credit) {
+            invalidations.add(new CacheInvalidation(null, CREDIT, credit.getId(), null));
+            if (credit.getClient() != null) {
+                invalidations.add(new CacheInvalidation(null, CLIENT_CREDITS, credit.getClient().getId(), null));
+            }
+        }
+        return invalidations;
+    }
+
+    private void publish(List<CacheInvalidation> invalidations) {
+        // Stamped right before the insert, so that the overlap window only has to cover this transaction
+        Instant now = Instant.now();
+        invalidations.forEach(invalidation -> invalidation.setCreatedAt(now));
+        try {
+            newTransaction.executeWithoutResult(status -> cacheInvalidationRepository.saveAll(invalidations));
+            published.addAndGet(invalidations.size());
+        } catch (RuntimeException e) {
+            // The write itself is committed: the other instances catch up when their entries expire
+            log.warn("Could not publish second-level cache invalidations: {}", e.getMessage());
+        }
+    }
+
+    private static void evict(Cache cache, String region, Long id) {
+        switch (region) {
+            case CLIENT -> cache.evictEntityData(Client.class, id);
+            case USER -> cache.evictEntityData(User.class, id);
+            case CREDIT -> cache.evictEntityData(Credit.class, id);
+            case CLIENT_CREDITS -> cache.evictCollectionData(Client.class.getName() + ".credits", id);
+            default -> log.warn("Unknown second-level cache region {}", region);
+        }
+    }
+
+    private static Map<String, Object> toStats(long hits, long misses, long puts, long size) {
+        long requests = hits + misses;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("puts", puts);
+        stats.put("hitRate", requests > 0 ? Math.round(hits * 10000.0 / requests) / 100.0 : 0.0);
+        if (size >= 0) {
+            stats.put("size", size);
+        }
+        return stats;
+    }
+}
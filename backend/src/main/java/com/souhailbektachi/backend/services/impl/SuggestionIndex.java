@@ -0,0 +1,403 @@
+package com.souhailbektachi.backend.services.impl;
+
+import com.souhailbektachi.backend.dtos.SuggestionDTO;
+import com.souhailbektachi.backend.dtos.SuggestionType;
+import com.souhailbektachi.backend.entities.Client;
+import com.souhailbektachi.backend.entities.Credit;
+import com.souhailbektachi.backend.entities.CreditProfessionnel;
+import com.souhailbektachi.backend.repositories.ClientRepository;
+import com.souhailbektachi.backend.repositories.CreditRepository;
+import com.souhailbektachi.backend.repositories.projections.ClientSearchEntry;
+import com.souhailbektachi.backend.repositories.projections.CompanyNameEntry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory typeahead over the client names and the company names of the professional credits.
+ *
+ * The normalized names (see {@link ClientSearchIndex#normalize}) are kept in a sorted array: the
+ * suggestions for a prefix are found by binary search and read in order until {@code limit} of
+ * them are collected, so a lookup costs a binary search plus a bounded scan whatever the number
+ * of names. A company is suggested once per client borrowing for it, however many credits name it.
+ *
+ * Writes do not rebuild the array: new names go to a small sorted delta and replaced or removed
+ * names are hidden, until the delta reaches {@code search.suggest.merge-threshold} entries and is
+ * merged into a new array in one pass. The whole index is loaded once the application is ready,
+ * kept current by the changes of the other instances (see {@link SearchIndexSync}) and periodically
+ * rebuilt.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SuggestionIndex {
+
+    private static final Comparator<Entry> ORDER = Comparator.<Entry, String>comparing(entry -> entry.key)
+            .thenComparing(entry -> entry.type)
+            .thenComparingLong(entry -> entry.clientId);
+
+    private final ClientRepository clientRepository;
+    private final CreditRepository creditRepository;
+
+    @Value("${search.suggest.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${search.suggest.merge-threshold:1024}")
+    private int mergeThreshold;
+
+    private final RebuildableIndex<Suggestions> suggestions = new RebuildableIndex<>();
+
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong lookupNanos = new AtomicLong();
+
+    // Loading and rebuilding
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${search.suggest.rebuild-interval-ms:3600000}",
+               initialDelayString = "${search.suggest.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        Suggestions rebuilt = suggestions.rebuild(this::readSuggestions);
+        if (rebuilt != null) {
+            log.debug("Suggestion index rebuilt with {} names in {} ms", rebuilt.base.length, suggestions.getLastRebuildMillis());
+        }
+    }
+
+    // Write hooks (applied after commit)
+
+    public void clientSaved(Client client) {
+        Long id = client.getId();
+        String nom = client.getNom();
+        suggestions.applyAfterCommit(current -> current.putClient(id, nom));
+    }
+
+    public void clientDeleted(Client client) {
+        Long id = client.getId();
+        // Credits are removed with the client by cascade
+        List<Long> creditIds = client.getCredits() != null
+                ? client.getCredits().stream().map(Credit::getId).collect(Collectors.toList())
+                : List.of();
+        suggestions.applyAfterCommit(current -> {
+            current.removeClient(id);
+            creditIds.forEach(current::removeCompanyCredit);
+        });
+    }
+
+    public void creditSaved(Credit credit) {
+        if (!(credit instanceof CreditProfessionnel)) {
+            return;
+        }
+        Long id = credit.getId();
+        Long clientId = credit.getClient() != null ? credit.getClient().getId() : null;
+        String company = ((CreditProfessionnel) credit).getRaisonSocialeEntreprise();
+        suggestions.applyAfterCommit(current -> current.putCompanyCredit(id, clientId, company));
+    }
+
+    public void creditDeleted(Long id) {
+        suggestions.applyAfterCommit(current -> current.removeCompanyCredit(id));
+    }
+
+    /**
+     * Update the names of clients changed by another instance
+     *
+     * @param entries Current names of those of the {@code ids} that still exist
+     */
+    public void clientsChanged(Collection<Long> ids, List<ClientSearchEntry> entries) {
+        suggestions.apply(current -> {
+            Set<Long> removed = new HashSet<>(ids);
+            for (ClientSearchEntry entry : entries) {
+                current.putClient(entry.getId(), entry.getNom());
+                removed.remove(entry.getId());
+            }
+            removed.forEach(current::removeClient);
+        });
+    }
+
+    /**
+     * Update the companies of credits changed by another instance
+     *
+     * @param entries Current companies of those of the {@code creditIds} that still name one
+     */
+    public void companyCreditsChanged(Collection<Long> creditIds, List<CompanyNameEntry> entries) {
+        suggestions.apply(current -> {
+            Set<Long> removed = new HashSet<>(creditIds);
+            for (CompanyNameEntry entry : entries) {
+                current.putCompanyCredit(entry.getCreditId(), entry.getClientId(), entry.getRaisonSocialeEntreprise());
+                removed.remove(entry.getCreditId());
+            }
+            removed.forEach(current::removeCompanyCredit);
+        });
+    }
+
+    // Lookup
+
+    /**
+     * The first {@code limit} names starting with {@code prefix}, ignoring case and accents, in alphabetical order
+     *
+     * @return The suggestions, or null when the index is not loaded yet
+     */
+    public List<SuggestionDTO> suggest(String prefix, int limit) {
+        String key = ClientSearchIndex.normalize(prefix);
+
+        long start = System.nanoTime();
+        List<SuggestionDTO> result = suggestions.read(current -> current != null ? current.suggest(key, limit) : null);
+        if (result != null) {
+            lookups.incrementAndGet();
+            lookupNanos.addAndGet(System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    /**
+     * Size of the index and lookup timings
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        suggestions.read(current -> {
+            stats.put("ready", current != null);
+            stats.put("names", current != null ? current.base.length : 0);
+            stats.put("pendingNames", current != null ? current.delta.size() : 0);
+            stats.put("hiddenNames", current != null ? current.hidden.size() : 0);
+            return null;
+        });
+        long count = lookups.get();
+        stats.put("lookups", count);
+        stats.put("averageLookupMicros", count > 0 ? TimeUnit.NANOSECONDS.toMicros(lookupNanos.get() / count) : 0);
+        stats.put("lastRebuildMillis", suggestions.getLastRebuildMillis());
+        return stats;
+    }
+
+    // Helper methods
+
+    private Suggestions readSuggestions() {
+        Suggestions loaded = new Suggestions(mergeThreshold);
+        PageRequest chunk = PageRequest.of(0, chunkSize);
+        long cursor = 0L;
+        while (true) {
+            List<ClientSearchEntry> clients = clientRepository.findSearchEntries(cursor, chunk);
+            for (ClientSearchEntry client : clients) {
+                loaded.putClient(client.getId(), client.getNom());
+            }
+            if (clients.size() < chunkSize) {
+                break;
+            }
+            cursor = clients.get(clients.size() - 1).getId();
+        }
+
+        cursor = 0L;
+        while (true) {
+            List<CompanyNameEntry> companies = creditRepository.findCompanyNames(cursor, chunk);
+            for (CompanyNameEntry company : companies) {
+                loaded.putCompanyCredit(company.getCreditId(), company.getClientId(),
+                        company.getRaisonSocialeEntreprise());
+            }
+            if (companies.size() < chunkSize) {
+                break;
+            }
+            cursor = companies.get(companies.size() - 1).getCreditId();
+        }
+        loaded.merge();
+        return loaded;
+    }
+
+    /**
+     * The indexed names: the merged sorted array, the sorted delta of names added since, and the
+     * references whose entry in the array is hidden (replaced or removed since the merge).
+     */
+    private static final class Suggestions {
+        private final int mergeThreshold;
+
+        private Entry[] base = new Entry[0];
+        // False while a rebuild fills the delta, which is then merged once
+        private boolean merged;
+        private final TreeSet<Entry> delta = new TreeSet<>(ORDER);
+        private final Map<String, Entry> deltaByRef = new HashMap<>();
+        private final Set<String> hidden = new HashSet<>();
+
+        // Company of each professional credit, and number of credits naming each company entry
+        private final Map<Long, Entry> companyByCredit = new HashMap<>();
+        private final Map<String, Integer> creditsByCompanyRef = new HashMap<>();
+
+        private Suggestions(int mergeThreshold) {
+            this.mergeThreshold = mergeThreshold;
+        }
+
+        private void putClient(Long id, String nom) {
+            if (StringUtils.isBlank(nom)) {
+                remove("C:" + id);
+                return;
+            }
+            put(new Entry(SuggestionType.CLIENT, nom, id));
+        }
+
+        private void removeClient(Long id) {
+            remove("C:" + id);
+        }
+
+        private void putCompanyCredit(Long creditId, Long clientId, String company) {
+            Entry previous = companyByCredit.get(creditId);
+            Entry entry = StringUtils.isBlank(company) || clientId == null
+                    ? null : new Entry(SuggestionType.ENTREPRISE, company, clientId);
+            if (previous != null && entry != null && previous.ref.equals(entry.ref)) {
+                return;
+            }
+
+            removeCompanyCredit(creditId);
+            if (entry != null) {
+                companyByCredit.put(creditId, entry);
+                if (creditsByCompanyRef.merge(entry.ref, 1, Integer::sum) == 1) {
+                    put(entry);
+                }
+            }
+        }
+
+        private void removeCompanyCredit(Long creditId) {
+            Entry previous = companyByCredit.remove(creditId);
+            if (previous != null && creditsByCompanyRef.merge(previous.ref, -1, Integer::sum) == 0) {
+                creditsByCompanyRef.remove(previous.ref);
+                remove(previous.ref);
+            }
+        }
+
+        private void put(Entry entry) {
+            Entry previous = deltaByRef.put(entry.ref, entry);
+            if (previous != null) {
+                delta.remove(previous);
+            }
+            hidden.add(entry.ref);
+            delta.add(entry);
+            mergeIfNeeded();
+        }
+
+        private void remove(String ref) {
+            Entry previous = deltaByRef.remove(ref);
+            if (previous != null) {
+                delta.remove(previous);
+            }
+            hidden.add(ref);
+            mergeIfNeeded();
+        }
+
+        private void mergeIfNeeded() {
+            if (merged && delta.size() + hidden.size() >= mergeThreshold) {
+                merge();
+            }
+        }
+
+        /**
+         * Merge the delta into a new sorted array, dropping the hidden entries
+         */
+        private void merge() {
+            List<Entry> entries = new ArrayList<>(base.length + delta.size());
+            Iterator<Entry> added = delta.iterator();
+            Entry next = added.hasNext() ? added.next() : null;
+            for (Entry entry : base) {
+                if (hidden.contains(entry.ref)) {
+                    continue;
+                }
+                while (next != null && ORDER.compare(next, entry) < 0) {
+                    entries.add(next);
+                    next = added.hasNext() ? added.next() : null;
+                }
+                entries.add(entry);
+            }
+            while (next != null) {
+                entries.add(next);
+                next = added.hasNext() ? added.next() : null;
+            }
+
+            base = entries.toArray(new Entry[0]);
+            merged = true;
+            delta.clear();
+            deltaByRef.clear();
+            hidden.clear();
+        }
+
+        private List<SuggestionDTO> suggest(String prefix, int limit) {
+            Entry probe = new Entry(prefix);
+            int i = lowerBound(probe);
+            Iterator<Entry> added = delta.tailSet(probe, true).iterator();
+            Entry next = added.hasNext() ? added.next() : null;
+
+            List<SuggestionDTO> result = new ArrayList<>(limit);
+            while (result.size() < limit) {
+                while (i < base.length && hidden.contains(base[i].ref)) {
+                    i++;
+                }
+                Entry fromBase = i < base.length && base[i].key.startsWith(prefix) ? base[i] : null;
+                Entry fromDelta = next != null && next.key.startsWith(prefix) ? next : null;
+                if (fromBase == null && fromDelta == null) {
+                    break;
+                }
+
+                Entry entry;
+                if (fromDelta == null || (fromBase != null && ORDER.compare(fromBase, fromDelta) < 0)) {
+                    entry = fromBase;
+                    i++;
+                } else {
+                    entry = fromDelta;
+                    next = added.hasNext() ? added.next() : null;
+                }
+                result.add(new SuggestionDTO(entry.type, entry.label, entry.clientId));
+            }
+            return result;
+        }
+
+        private int lowerBound(Entry probe) {
+            int found = Arrays.binarySearch(base, probe, ORDER);
+            return found >= 0 ? found : -found - 1;
+        }
+    }
+
+    /**
+     * A suggested name. A client is referenced by its id, a company by its client and normalized name.
+     */
+    private static final class Entry {
+        private final String key;
+        private final String label;
+        private final SuggestionType type;
+        private final long clientId;
+        private final String ref;
+
+        private Entry(SuggestionType type, String label, long clientId) {
+            this.key = ClientSearchIndex.normalize(label);
+            this.label = label.trim();
+            this.type = type;
+            this.clientId = clientId;
+            this.ref = type == SuggestionType.CLIENT ? "C:" + clientId : "E:" + clientId + ":" + key;
+        }
+
+        // Sorts before every entry whose key is or starts with the given key
+        private Entry(String key) {
+            this.key = key;
+            this.label = key;
+            this.type = SuggestionType.values()[0];
+            this.clientId = Long.MIN_VALUE;
+            this.ref = "";
+        }
+    }
+}
@@ -4,6 +4,8 @@ import com.souhailbektachi.backend.dtos.UserDTO;
 import com.souhailbektachi.backend.entities.User;
 import com.souhailbektachi.backend.exceptions.ResourceNotFoundException;
 import com.souhailbektachi.backend.repositories.UserRepository;
+import com.souhailbektachi.backend.security.TokenRevocationStore;
+import com.souhailbektachi.backend.security.UserStatusCache;
 import com.souhailbektachi.backend.services.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -20,6 +22,8 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserStatusCache userStatusCache;
+    private final TokenRevocationStore tokenRevocationStore;
 
     @Override
     public UserDTO getUserById(Long id) {
@@ -56,6 +60,13 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
         
+        // Tokens carry the username and role: revoke them when those change or the account is disabled
+        if (!userDetails.isEnabled() || userDetails.getRole() != user.getRole()
+                || !user.getUsername().equals(userDetails.getUsername())) {
+            tokenRevocationStore.revokeUser(user.getUsername());
+        }
+        userStatusCache.evict(user.getUsername());
+        
         user.setUsername(userDetails.getUsername());
         user.setEmail(userDetails.getEmail());
         user.setFullName(userDetails.getFullName());
@@ -76,6 +87,8 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
         userRepository.delete(user);
+        tokenRevocationStore.revokeUser(user.getUsername());
+        userStatusCache.evict(user.getUsername());
     }
     
     private UserDTO mapToDto(User user) {
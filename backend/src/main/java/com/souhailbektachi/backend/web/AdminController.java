@@ -0,0 +1,138 @@
+package com.souhailbektachi.backend.web;
+
+import com.souhailbektachi.backend.security.LoginRateLimiter;
+import com.souhailbektachi.backend.security.PasswordHashingExecutor;
+import com.souhailbektachi.backend.services.impl.ClientSearchIndex;
+import com.souhailbektachi.backend.services.impl.DelinquencySnapshotJob;
+import com.souhailbektachi.backend.services.impl.MonthlyInstallmentJob;
+import com.souhailbektachi.backend.services.impl.PaymentScheduleCache;
+import com.souhailbektachi.backend.services.impl.SecondLevelCacheSync;
+import com.souhailbektachi.backend.services.impl.SearchIndexSync;
+import com.souhailbektachi.backend.services.impl.SuggestionIndex;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+@Tag(name = "Admin", description = "Administration API")
+@SecurityRequirement(name = "bearerAuth")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminController {
+
+    private final DelinquencySnapshotJob delinquencySnapshotJob;
+    private final MonthlyInstallmentJob monthlyInstallmentJob;
+    private final PaymentScheduleCache paymentScheduleCache;
+    private final SecondLevelCacheSync secondLevelCacheSync;
+    private final LoginRateLimiter loginRateLimiter;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final ClientSearchIndex clientSearchIndex;
+    private final SuggestionIndex suggestionIndex;
+    private final SearchIndexSync searchIndexSync;
+
+    @Operation(summary = "Rebuild delinquency snapshot", description = "Recomputes the delinquent loans snapshot used by the reports. Only accessible by admins.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Snapshot successfully rebuilt",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "409", description = "A rebuild is already running")
+    })
+    @PostMapping("/reports/delinquency-snapshot")
+    public ResponseEntity<Map<String, Object>> rebuildDelinquencySnapshot() {
+        return ResponseEntity.ok(delinquencySnapshotJob.rebuild());
+    }
+
+    @Operation(summary = "Run monthly installments", description = "Posts the monthly installment of every accepted credit due in the month of the given date. An interrupted run resumes from its last checkpoint. Only accessible by admins.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Installments successfully posted",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "409", description = "A run is already in progress")
+    })
+    @PostMapping("/installments/run")
+    public ResponseEntity<Map<String, Object>> runMonthlyInstallments(
+            @Parameter(description = "Payment date (defaults to current date if not provided)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        LocalDate paymentDate = date != null ? date : LocalDate.now();
+        return ResponseEntity.ok(monthlyInstallmentJob.run(paymentDate));
+    }
+
+    @Operation(summary = "Payment schedule cache statistics", description = "Returns the size, hits, misses, hit rate and evictions of the payment schedule cache. Only accessible by admins.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the cache statistics",
+                    content = @Content(mediaType = "application/json"))
+    })
+    @GetMapping("/caches/payment-schedules")
+    public ResponseEntity<Map<String, Object>> getPaymentScheduleCacheStats() {
+        return ResponseEntity.ok(paymentScheduleCache.getStats());
+    }
+
+    @Operation(summary = "Second-level cache statistics", description = "Returns the hits, misses, puts and size of each Hibernate second-level cache region, the query cache counters and the cross-instance invalidations. Only accessible by admins.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the cache statistics",
+                    content = @Content(mediaType = "application/json"))
+    })
+    @GetMapping("/caches/second-level")
+    public ResponseEntity<Map<String, Object>> getSecondLevelCacheStats() {
+        return ResponseEntity.ok(secondLevelCacheSync.getStats());
+    }
+
+    @Operation(summary = "Login protection statistics", description = "Returns the login rate limiting counters and the saturation of the password hashing pool. Only accessible by admins.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the statistics",
+                    content = @Content(mediaType = "application/json"))
+    })
+    @GetMapping("/security/login-protection")
+    public ResponseEntity<Map<String, Object>> getLoginProtectionStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("rateLimiting", loginRateLimiter.getStats());
+        stats.put("passwordHashing", passwordHashingExecutor.getStats());
+        return ResponseEntity.ok(stats);
+    }
+
+    @Operation(summary = "Client search index statistics", description = "Returns the size of the client search index, its stale entries, the average search time and the duration of the last rebuild. Only accessible by admins.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the statistics",
+                    content = @Content(mediaType = "application/json"))
+    })
+    @GetMapping("/search/clients")
+    public ResponseEntity<Map<String, Object>> getClientSearchIndexStats() {
+        return ResponseEntity.ok(clientSearchIndex.getStats());
+    }
+
+    @Operation(summary = "Suggestion index statistics", description = "Returns the number of names in the typeahead index, the names waiting to be merged, the average lookup time and the duration of the last rebuild. Only accessible by admins.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the statistics",
+                    content = @Content(mediaType = "application/json"))
+    })
+    @GetMapping("/search/suggestions")
+    public ResponseEntity<Map<String, Object>> getSuggestionIndexStats() {
+        return ResponseEntity.ok(suggestionIndex.getStats());
+    }
+
+    @Operation(summary = "Search index change feed statistics", description = "Returns the number of client and credit changes published to the other instances and applied from them, and the time of the last poll. Only accessible by admins.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the statistics",
+                    content = @Content(mediaType = "application/json"))
+    })
+    @GetMapping("/search/changes")
+    public ResponseEntity<Map<String, Object>> getSearchIndexChangeStats() {
+        return ResponseEntity.ok(searchIndexSync.getStats());
+    }
+}
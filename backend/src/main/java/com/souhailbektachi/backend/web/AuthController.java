@@ -1,16 +1,23 @@
 package com.souhailbektachi.backend.web;
 
+import com.auth0.jwt.interfaces.DecodedJWT;
 import com.souhailbektachi.backend.dtos.AuthResponseDTO;
 import com.souhailbektachi.backend.dtos.LoginRequestDTO;
 import com.souhailbektachi.backend.dtos.RegisterRequestDTO;
 import com.souhailbektachi.backend.entities.Role;
 import com.souhailbektachi.backend.entities.User;
 import com.souhailbektachi.backend.repositories.UserRepository;
+import com.souhailbektachi.backend.security.JwtConfig;
 import com.souhailbektachi.backend.security.JwtService;
+import com.souhailbektachi.backend.security.LoginRateLimiter;
+import com.souhailbektachi.backend.security.PasswordHashingExecutor;
+import com.souhailbektachi.backend.security.TokenRevocationStore;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -21,9 +28,13 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
@@ -34,10 +45,61 @@ public class AuthController {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
+    private final JwtConfig jwtConfig;
+    private final TokenRevocationStore tokenRevocationStore;
+    private final LoginRateLimiter loginRateLimiter;
+    private final PasswordHashingExecutor passwordHashingExecutor;
 
     @PostMapping("/login")
     @Operation(summary = "Authenticate user", description = "Authenticates a user and returns a JWT token")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequestDTO loginRequest) {
+    public CompletableFuture<ResponseEntity<?>> authenticateUser(@Valid @RequestBody LoginRequestDTO loginRequest,
+                                                                 HttpServletRequest request) {
+        // Reject floods before any password is hashed
+        // The remote address is the client's when the request came through a trusted proxy (server.tomcat.remoteip)
+        long retryAfter = loginRateLimiter.tryAcquire(loginRequest.getUsername(), request.getRemoteAddr());
+        if (retryAfter > 0) {
+            return CompletableFuture.completedFuture(tooManyAttempts(retryAfter, "Too many login attempts, please try again later"));
+        }
+
+        try {
+            return passwordHashingExecutor.submit(() -> login(loginRequest));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(serviceBusy());
+        }
+    }
+
+    @PostMapping("/register")
+    @Operation(summary = "Register user", description = "Registers a new user")
+    public CompletableFuture<ResponseEntity<?>> registerUser(@Valid @RequestBody RegisterRequestDTO registerRequest,
+                                                             HttpServletRequest request) {
+        long retryAfter = loginRateLimiter.tryAcquire(request.getRemoteAddr());
+        if (retryAfter > 0) {
+            return CompletableFuture.completedFuture(tooManyAttempts(retryAfter, "Too many registration attempts, please try again later"));
+        }
+
+        try {
+            return passwordHashingExecutor.submit(() -> register(registerRequest));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(serviceBusy());
+        }
+    }
+
+    @PostMapping("/logout")
+    @Operation(summary = "Log out", description = "Revokes the JWT token sent in the Authorization header")
+    public ResponseEntity<?> logout(@RequestHeader(name = "Authorization", required = false) String authHeader) {
+        if (authHeader != null && authHeader.startsWith(jwtConfig.getTokenPrefix())) {
+            DecodedJWT jwt = jwtService.decodeValidToken(authHeader.substring(jwtConfig.getTokenPrefix().length()).trim());
+            if (jwt != null) {
+                tokenRevocationStore.revokeToken(jwt);
+            }
+        }
+        SecurityContextHolder.clearContext();
+        return ResponseEntity.ok("Logged out successfully");
+    }
+
+    // Helper methods
+
+    private ResponseEntity<?> login(LoginRequestDTO loginRequest) {
         try {
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
@@ -46,7 +108,6 @@ public class AuthController {
                     )
             );
 
-            SecurityContextHolder.getContext().setAuthentication(authentication);
             User user = (User) authentication.getPrincipal();
             String jwt = jwtService.generateToken(user);
 
@@ -61,9 +122,7 @@ public class AuthController {
         }
     }
 
-    @PostMapping("/register")
-    @Operation(summary = "Register user", description = "Registers a new user")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody RegisterRequestDTO registerRequest) {
+    private ResponseEntity<?> register(RegisterRequestDTO registerRequest) {
         // Check if username is already taken
         if (userRepository.existsByUsername(registerRequest.getUsername())) {
             return ResponseEntity.badRequest().body("Username is already taken");
@@ -87,4 +146,16 @@ public class AuthController {
 
         return ResponseEntity.ok("User registered successfully");
     }
+
+    private static ResponseEntity<?> tooManyAttempts(long retryAfter, String message) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+                .body(message);
+    }
+
+    private static ResponseEntity<?> serviceBusy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Authentication is busy, please try again later");
+    }
 }
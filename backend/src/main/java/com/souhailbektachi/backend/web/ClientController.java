@@ -14,6 +14,10 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -29,15 +33,31 @@ public class ClientController {
 
     private final ClientService clientService;
 
-    @Operation(summary = "Get all clients", description = "Returns a list of all clients with summary information")
+    @Operation(summary = "Get all clients", description = "Returns a page of clients with summary information")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Successfully retrieved the list of clients",
-                    content = @Content(mediaType = "application/json",
-                            schema = @Schema(implementation = ClientSummaryDTO.class)))
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the page of clients",
+                    content = @Content(mediaType = "application/json"))
     })
     @GetMapping
-    public ResponseEntity<List<ClientSummaryDTO>> getAllClients() {
-        return ResponseEntity.ok(clientService.getAllClients());
+    public ResponseEntity<Page<ClientSummaryDTO>> getAllClients(
+            @ParameterObject @PageableDefault(size = 20, sort = "id") Pageable pageable) {
+        return ResponseEntity.ok(clientService.getAllClients(pageable));
+    }
+
+    @Operation(summary = "Scroll clients", description = "Returns the next clients after the given ID, ordered by ID (keyset pagination for deep scrolling)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the next clients",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ClientSummaryDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid size")
+    })
+    @GetMapping("/scroll")
+    public ResponseEntity<List<ClientSummaryDTO>> scrollClients(
+            @Parameter(description = "Last client ID already received (omit to start from the beginning)")
+            @RequestParam(required = false) Long afterId,
+            @Parameter(description = "Maximum number of clients to return")
+            @RequestParam(defaultValue = "100") int size) {
+        return ResponseEntity.ok(clientService.scrollClients(afterId, size));
     }
 
     @Operation(summary = "Get client by ID", description = "Returns detailed information for a specific client")
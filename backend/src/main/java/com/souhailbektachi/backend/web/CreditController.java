@@ -2,7 +2,10 @@ package com.souhailbektachi.backend.web;
 
 import com.souhailbektachi.backend.dtos.CreditDTO;
 import com.souhailbektachi.backend.dtos.CreditRequestDTO;
+import com.souhailbektachi.backend.dtos.CreditSearchCriteria;
 import com.souhailbektachi.backend.dtos.CreditSummaryDTO;
+import com.souhailbektachi.backend.dtos.ExportFormat;
+import com.souhailbektachi.backend.dtos.PaymentScheduleEntryDTO;
 import com.souhailbektachi.backend.entities.StatutCredit;
 import com.souhailbektachi.backend.services.CreditService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -12,13 +15,20 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -32,15 +42,50 @@ public class CreditController {
 
     private final CreditService creditService;
 
-    @Operation(summary = "Get all credits", description = "Returns a list of all credits with summary information")
+    @Operation(summary = "Get all credits", description = "Returns a page of credits with summary information")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Successfully retrieved the list of credits",
-                    content = @Content(mediaType = "application/json",
-                            schema = @Schema(implementation = CreditSummaryDTO.class)))
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the page of credits",
+                    content = @Content(mediaType = "application/json"))
     })
     @GetMapping
-    public ResponseEntity<List<CreditSummaryDTO>> getAllCredits() {
-        return ResponseEntity.ok(creditService.getAllCredits());
+    public ResponseEntity<Page<CreditSummaryDTO>> getAllCredits(
+            @ParameterObject @PageableDefault(size = 20, sort = "id") Pageable pageable) {
+        return ResponseEntity.ok(creditService.getAllCredits(pageable));
+    }
+
+    @Operation(summary = "Scroll credits", description = "Returns the next credits after the given ID, ordered by ID (keyset pagination for deep scrolling)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the next credits",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = CreditSummaryDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid size")
+    })
+    @GetMapping("/scroll")
+    public ResponseEntity<List<CreditSummaryDTO>> scrollCredits(
+            @Parameter(description = "Last credit ID already received (omit to start from the beginning)")
+            @RequestParam(required = false) Long afterId,
+            @Parameter(description = "Maximum number of credits to return")
+            @RequestParam(defaultValue = "100") int size) {
+        return ResponseEntity.ok(creditService.scrollCredits(afterId, size));
+    }
+
+    @Operation(summary = "Export all credits", description = "Streams every credit as NDJSON (one JSON object per line) or CSV without loading the whole table in memory")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed successfully",
+                    content = {@Content(mediaType = "application/x-ndjson"), @Content(mediaType = "text/csv")}),
+            @ApiResponse(responseCode = "400", description = "Invalid export format")
+    })
+    @GetMapping("/export")
+    public void exportCredits(
+            @Parameter(description = "Export format: ndjson or csv")
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"credits." + exportFormat.getExtension() + "\"");
+        creditService.exportCredits(exportFormat, response.getOutputStream());
     }
 
     @Operation(summary = "Get credit by ID", description = "Returns detailed information for a specific credit")
@@ -180,16 +225,30 @@ public class CreditController {
     @Operation(summary = "Get payment schedule", description = "Returns the detailed payment schedule for a credit")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved payment schedule",
-                    content = @Content(mediaType = "application/json")),
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = PaymentScheduleEntryDTO.class))),
             @ApiResponse(responseCode = "404", description = "Credit not found")
     })
     @GetMapping("/{id}/payment-schedule")
-    public ResponseEntity<List<Map<String, Object>>> getPaymentSchedule(
+    public ResponseEntity<List<PaymentScheduleEntryDTO>> getPaymentSchedule(
             @Parameter(description = "Credit ID", required = true)
             @PathVariable Long id) {
         return ResponseEntity.ok(creditService.getPaymentSchedule(id));
     }
 
+    @Operation(summary = "Project portfolio cash flow", description = "Returns the expected repayments (principal and interest) of all accepted credits, month by month, starting with the current month")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully computed the projection",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "400", description = "Invalid number of months")
+    })
+    @GetMapping("/portfolio/cash-flow")
+    public ResponseEntity<Map<String, Object>> getPortfolioCashFlowProjection(
+            @Parameter(description = "Number of months to project (default 25 years)")
+            @RequestParam(defaultValue = "300") int months) {
+        return ResponseEntity.ok(creditService.getPortfolioCashFlowProjection(months));
+    }
+
     @Operation(summary = "Validate credit application", description = "Validates a credit application before submission")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Validation results",
@@ -202,7 +261,20 @@ public class CreditController {
         return ResponseEntity.ok(creditService.validateCreditApplication(creditRequestDTO));
     }
 
-    @Operation(summary = "Search credits by amount range", description = "Returns credits within the specified amount range")
+    @Operation(summary = "Search credits", description = "Returns a page of credits matching every given criterion (amount range, application date range, status, type and client)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the page of matching credits",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "400", description = "Invalid criteria")
+    })
+    @GetMapping("/search")
+    public ResponseEntity<Page<CreditSummaryDTO>> searchCredits(
+            @ParameterObject CreditSearchCriteria criteria,
+            @ParameterObject @PageableDefault(size = 20, sort = "id") Pageable pageable) {
+        return ResponseEntity.ok(creditService.searchCredits(criteria, pageable));
+    }
+
+    @Operation(summary = "Search credits by amount range", description = "Returns the first 1000 credits within the specified amount range, in ID order (see /search for paging)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved matching credits",
                     content = @Content(mediaType = "application/json",
@@ -217,7 +289,7 @@ public class CreditController {
         return ResponseEntity.ok(creditService.searchCreditsByAmountRange(minAmount, maxAmount));
     }
 
-    @Operation(summary = "Search credits by date range", description = "Returns credits within the specified date range")
+    @Operation(summary = "Search credits by date range", description = "Returns the first 1000 credits within the specified date range, in ID order (see /search for paging)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved matching credits",
                     content = @Content(mediaType = "application/json",
@@ -1,5 +1,6 @@
 package com.souhailbektachi.backend.web;
 
+import com.souhailbektachi.backend.dtos.ExportFormat;
 import com.souhailbektachi.backend.dtos.RemboursementDTO;
 import com.souhailbektachi.backend.dtos.RemboursementRequestDTO;
 import com.souhailbektachi.backend.entities.TypeRemboursement;
@@ -11,13 +12,20 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -31,15 +39,50 @@ public class RemboursementController {
 
     private final RemboursementService remboursementService;
 
-    @Operation(summary = "Get all repayments", description = "Returns a list of all repayments")
+    @Operation(summary = "Get all repayments", description = "Returns a page of repayments")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Successfully retrieved the list of repayments",
-                    content = @Content(mediaType = "application/json",
-                            schema = @Schema(implementation = RemboursementDTO.class)))
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the page of repayments",
+                    content = @Content(mediaType = "application/json"))
     })
     @GetMapping
-    public ResponseEntity<List<RemboursementDTO>> getAllRemboursements() {
-        return ResponseEntity.ok(remboursementService.getAllRemboursements());
+    public ResponseEntity<Page<RemboursementDTO>> getAllRemboursements(
+            @ParameterObject @PageableDefault(size = 20, sort = "id") Pageable pageable) {
+        return ResponseEntity.ok(remboursementService.getAllRemboursements(pageable));
+    }
+
+    @Operation(summary = "Scroll repayments", description = "Returns the next repayments after the given ID, ordered by ID (keyset pagination for deep scrolling)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the next repayments",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = RemboursementDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid size")
+    })
+    @GetMapping("/scroll")
+    public ResponseEntity<List<RemboursementDTO>> scrollRemboursements(
+            @Parameter(description = "Last repayment ID already received (omit to start from the beginning)")
+            @RequestParam(required = false) Long afterId,
+            @Parameter(description = "Maximum number of repayments to return")
+            @RequestParam(defaultValue = "100") int size) {
+        return ResponseEntity.ok(remboursementService.scrollRemboursements(afterId, size));
+    }
+
+    @Operation(summary = "Export all repayments", description = "Streams every repayment as NDJSON (one JSON object per line) or CSV without loading the whole table in memory")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed successfully",
+                    content = {@Content(mediaType = "application/x-ndjson"), @Content(mediaType = "text/csv")}),
+            @ApiResponse(responseCode = "400", description = "Invalid export format")
+    })
+    @GetMapping("/export")
+    public void exportRemboursements(
+            @Parameter(description = "Export format: ndjson or csv")
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"remboursements." + exportFormat.getExtension() + "\"");
+        remboursementService.exportRemboursements(exportFormat, response.getOutputStream());
     }
 
     @Operation(summary = "Get repayment by ID", description = "Returns detailed information for a specific repayment")
@@ -0,0 +1,162 @@
+package com.souhailbektachi.backend.web;
+
+import com.souhailbektachi.backend.services.ReportingService;
+import com.souhailbektachi.backend.services.impl.ReportCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Reports are served with an ETag derived from the reporting data version: a request whose
+ * If-None-Match matches it gets a 304 without the report being computed or the database read.
+ */
+@RestController
+@RequestMapping("/api/reports")
+@RequiredArgsConstructor
+@Tag(name = "Reporting", description = "Reporting API")
+@CrossOrigin(origins = "*")
+public class ReportingController {
+
+    private final ReportingService reportingService;
+    private final ReportCache reportCache;
+
+    @Operation(summary = "Credit summary by status", description = "Returns the number and total amount of credits for each status")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the report",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "304", description = "Report unchanged since the given ETag")
+    })
+    @GetMapping("/credits/summary-by-status")
+    public ResponseEntity<Map<String, Object>> getCreditSummaryByStatus(WebRequest request) {
+        return report(request, "summary-by-status", reportingService::getCreditSummaryByStatus);
+    }
+
+    @Operation(summary = "Credit summary by type", description = "Returns the number and total amount of credits for each credit type and status")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the report",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "304", description = "Report unchanged since the given ETag")
+    })
+    @GetMapping("/credits/summary-by-type")
+    public ResponseEntity<Map<String, Object>> getCreditSummaryByType(WebRequest request) {
+        return report(request, "summary-by-type", reportingService::getCreditSummaryByType);
+    }
+
+    @Operation(summary = "Credit performance by type", description = "Returns acceptance rates and average terms for each credit type")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the report",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "304", description = "Report unchanged since the given ETag")
+    })
+    @GetMapping("/credits/performance-by-type")
+    public ResponseEntity<Map<String, Object>> getCreditPerformanceByType(WebRequest request) {
+        return report(request, "performance-by-type", reportingService::getCreditPerformanceByType);
+    }
+
+    @Operation(summary = "Monthly credit applications", description = "Returns the credit applications of each month of a year")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the report",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "304", description = "Report unchanged since the given ETag")
+    })
+    @GetMapping("/credits/monthly-applications")
+    public ResponseEntity<List<Map<String, Object>>> getMonthlyCreditApplicationsReport(
+            @Parameter(description = "Year of the report (defaults to the current year)")
+            @RequestParam(required = false) Integer year,
+            WebRequest request) {
+        int reportYear = year != null ? year : LocalDate.now().getYear();
+        return report(request, "monthly-applications:" + reportYear,
+                () -> reportingService.getMonthlyCreditApplicationsReport(reportYear));
+    }
+
+    @Operation(summary = "Delinquent loans", description = "Returns the accepted credits with missed monthly installments, optionally one page at a time")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the report",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "304", description = "Report unchanged since the given ETag"),
+            @ApiResponse(responseCode = "400", description = "Invalid limit")
+    })
+    @GetMapping("/credits/delinquent")
+    public ResponseEntity<List<Map<String, Object>>> getDelinquentLoansReport(
+            @Parameter(description = "Last credit ID already received (omit to start from the beginning)")
+            @RequestParam(required = false) Long afterCreditId,
+            @Parameter(description = "Maximum number of loans to return (omit for the full report)")
+            @RequestParam(required = false) Integer limit,
+            WebRequest request) {
+        if (limit == null) {
+            return report(request, "delinquent", reportingService::getDelinquentLoansReport);
+        }
+        return report(request, "delinquent:" + afterCreditId + ":" + limit,
+                () -> reportingService.getDelinquentLoansReport(afterCreditId, limit));
+    }
+
+    @Operation(summary = "Repayment statistics", description = "Returns the number and amount of repayments by type within an optional date range")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the report",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "304", description = "Report unchanged since the given ETag")
+    })
+    @GetMapping("/repayments/statistics")
+    public ResponseEntity<Map<String, Object>> getRepaymentStatistics(
+            @Parameter(description = "Start date (optional)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "End date (optional)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            WebRequest request) {
+        return report(request, "repayment-statistics:" + startDate + ":" + endDate,
+                () -> reportingService.getRepaymentStatistics(startDate, endDate));
+    }
+
+    @Operation(summary = "Client activity", description = "Returns the credits and repayments activity of a client")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the report",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "304", description = "Report unchanged since the given ETag"),
+            @ApiResponse(responseCode = "404", description = "Client not found")
+    })
+    @GetMapping("/clients/{clientId}/activity")
+    public ResponseEntity<Map<String, Object>> getClientActivityReport(
+            @Parameter(description = "Client ID", required = true)
+            @PathVariable Long clientId,
+            WebRequest request) {
+        return report(request, "client-activity:" + clientId,
+                () -> reportingService.getClientActivityReport(clientId));
+    }
+
+    @Operation(summary = "Dashboard summary", description = "Returns the headline figures of the dashboard")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the report",
+                    content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "304", description = "Report unchanged since the given ETag")
+    })
+    @GetMapping("/dashboard")
+    public ResponseEntity<Map<String, Object>> getDashboardSummary(WebRequest request) {
+        return report(request, "dashboard", reportingService::getDashboardSummary);
+    }
+
+    // Helper methods
+
+    private <T> ResponseEntity<T> report(WebRequest request, String key, Supplier<T> loader) {
+        String eTag = reportCache.getETag();
+        if (request.checkNotModified(eTag)) {
+            // 304 already prepared by checkNotModified
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .body(reportCache.get(key, eTag, loader));
+    }
+}
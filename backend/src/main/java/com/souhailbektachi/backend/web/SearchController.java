@@ -0,0 +1,42 @@
+package com.souhailbektachi.backend.web;
+
+import com.souhailbektachi.backend.dtos.SuggestionDTO;
+import com.souhailbektachi.backend.services.SearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/search")
+@RequiredArgsConstructor
+@Tag(name = "Search", description = "Search API")
+@CrossOrigin(origins = "*")
+public class SearchController {
+
+    private final SearchService searchService;
+
+    @Operation(summary = "Suggest names", description = "Returns the client names and company names starting with the given prefix, in alphabetical order (typeahead)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the suggestions",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = SuggestionDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid limit")
+    })
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDTO>> suggest(
+            @Parameter(description = "Beginning of the name (case and accents ignored)", required = true)
+            @RequestParam String prefix,
+            @Parameter(description = "Maximum number of suggestions to return")
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(searchService.suggest(prefix, limit));
+    }
+}
@@ -0,0 +1,67 @@
+-- Tables of features added since the baseline (delinquency snapshots, installment checkpoints, token
+-- revocation, second-level cache invalidation, pooled identifiers). Databases baselined at V1 may
+-- already have some of them if ddl-auto=update ran with those features, hence IF NOT EXISTS.
+
+CREATE TABLE IF NOT EXISTS delinquency_snapshot (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    actual_payments BIGINT,
+    client_email VARCHAR(255),
+    client_id BIGINT,
+    client_name VARCHAR(255),
+    credit_id BIGINT,
+    credit_type VARCHAR(255),
+    date_acception DATE,
+    date_demande DATE,
+    expected_payments BIGINT,
+    last_payment_date DATE,
+    missed_payments BIGINT,
+    montant DOUBLE,
+    snapshot_date DATE,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_delinquency_snapshot_credit UNIQUE (credit_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS installment_run_checkpoint (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    completed BIT,
+    last_credit_id BIGINT,
+    partition_count INTEGER,
+    partition_index INTEGER,
+    posted_count BIGINT,
+    run_date DATE,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_installment_run_checkpoint UNIQUE (run_date, partition_index, partition_count)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS revoked_token (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    expires_at DATETIME(6),
+    revocation_key VARCHAR(255) NOT NULL,
+    revoked_at DATETIME(6),
+    username VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_revoked_token_key UNIQUE (revocation_key)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS l2_cache_invalidation (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6),
+    entity_id BIGINT,
+    region VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'CREATE INDEX idx_l2_cache_invalidation_created_at ON l2_cache_invalidation (created_at)', 'DO 0')
+            FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'l2_cache_invalidation'
+              AND index_name = 'idx_l2_cache_invalidation_created_at');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- Identifier generators of the pooled-ids profile
+CREATE TABLE IF NOT EXISTS id_generators (
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val BIGINT,
+    PRIMARY KEY (sequence_name)
+) ENGINE = InnoDB;
@@ -0,0 +1,67 @@
+-- Schema as created by spring.jpa.hibernate.ddl-auto=update before migrations were introduced.
+-- Databases created that way are baselined at this version (spring.flyway.baseline-on-migrate).
+
+CREATE TABLE client (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    email VARCHAR(255),
+    nom VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE credit (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    date_acception DATE,
+    date_demande DATE,
+    duree_remboursement INTEGER,
+    montant DOUBLE,
+    statut ENUM ('EN_COURS', 'ACCEPTE', 'REJETE'),
+    taux_interet DOUBLE,
+    client_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_credit_client FOREIGN KEY (client_id) REFERENCES client (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE credit_personnel (
+    id BIGINT NOT NULL,
+    motif VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_credit_personnel_credit FOREIGN KEY (id) REFERENCES credit (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE credit_immobilier (
+    id BIGINT NOT NULL,
+    type_bien_finance ENUM ('APPARTEMENT', 'MAISON', 'LOCAL_COMMERCIAL'),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_credit_immobilier_credit FOREIGN KEY (id) REFERENCES credit (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE credit_professionnel (
+    id BIGINT NOT NULL,
+    motif VARCHAR(255),
+    raison_sociale_entreprise VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_credit_professionnel_credit FOREIGN KEY (id) REFERENCES credit (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE remboursement (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    date DATE,
+    montant DOUBLE,
+    type ENUM ('MENSUALITE', 'REMBOURSEMENT_ANTICIPE'),
+    credit_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_remboursement_credit FOREIGN KEY (credit_id) REFERENCES credit (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    email VARCHAR(255),
+    enabled BIT NOT NULL,
+    full_name VARCHAR(255),
+    password VARCHAR(255),
+    role ENUM ('ROLE_CLIENT', 'ROLE_EMPLOYE', 'ROLE_ADMIN'),
+    username VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
@@ -0,0 +1,25 @@
+-- Indexes of the hot query paths (ddl-auto only created the primary keys, unique and foreign keys).
+-- Each composite index leads with the foreign key column it extends, so it also serves the FK.
+
+-- Repayments of a credit, by date: installment posting, delinquency, schedules, client activity
+CREATE INDEX idx_remboursement_credit_date ON remboursement (credit_id, date);
+
+-- Repayments by type (statistics, early repayments)
+CREATE INDEX idx_remboursement_type ON remboursement (type, date);
+
+-- Credits by status within a date range: dashboards, monthly applications, pending credits
+CREATE INDEX idx_credit_statut_date_demande ON credit (statut, date_demande);
+
+-- Credits of a client by status: eligibility checks, client activity
+CREATE INDEX idx_credit_client_statut ON credit (client_id, statut);
+
+-- Client lookup by email, which must be unique (already enforced by ClientService). Clients created
+-- before that check may share an email: the unique key would abort the migration, so such databases
+-- get a plain index until the duplicates are merged (reported at startup by ClientEmailDuplicateCheck).
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+                      'ALTER TABLE client ADD CONSTRAINT uk_client_email UNIQUE (email)',
+                      'CREATE INDEX idx_client_email ON client (email)')
+            FROM (SELECT email FROM client WHERE email IS NOT NULL GROUP BY email HAVING COUNT(*) > 1) duplicate_email);
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
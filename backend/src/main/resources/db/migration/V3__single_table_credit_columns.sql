@@ -0,0 +1,30 @@
+-- Columns of the SINGLE_TABLE mapping of the credit hierarchy (single-table profile), unused by
+-- the default JOINED mapping. Added only when missing: ddl-auto may have created them already.
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'ALTER TABLE credit ADD COLUMN credit_type VARCHAR(31)', 'DO 0')
+            FROM information_schema.columns
+            WHERE table_schema = DATABASE() AND table_name = 'credit' AND column_name = 'credit_type');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'ALTER TABLE credit ADD COLUMN motif VARCHAR(255)', 'DO 0')
+            FROM information_schema.columns
+            WHERE table_schema = DATABASE() AND table_name = 'credit' AND column_name = 'motif');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'ALTER TABLE credit ADD COLUMN raison_sociale_entreprise VARCHAR(255)', 'DO 0')
+            FROM information_schema.columns
+            WHERE table_schema = DATABASE() AND table_name = 'credit' AND column_name = 'raison_sociale_entreprise');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'ALTER TABLE credit ADD COLUMN type_bien_finance ENUM (''APPARTEMENT'', ''MAISON'', ''LOCAL_COMMERCIAL'')', 'DO 0')
+            FROM information_schema.columns
+            WHERE table_schema = DATABASE() AND table_name = 'credit' AND column_name = 'type_bien_finance');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
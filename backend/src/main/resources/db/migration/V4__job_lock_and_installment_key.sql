@@ -0,0 +1,21 @@
+-- Cluster-wide job locks (see JobLocks): one row per job, claimed by the instance running it
+CREATE TABLE job_lock (
+    name VARCHAR(64) NOT NULL,
+    locked_by VARCHAR(255),
+    locked_until DATETIME(6),
+    PRIMARY KEY (name)
+) ENGINE = InnoDB;
+
+-- At most one monthly installment per credit and month, whichever instance or path posts it.
+-- mois_echeance is the first day of the month of a MENSUALITE and NULL for other repayments.
+ALTER TABLE remboursement ADD COLUMN mois_echeance DATE;
+
+-- Existing duplicates (if any) keep a NULL month on all but the first installment of the month
+UPDATE remboursement r
+    JOIN (SELECT MIN(id) AS id
+          FROM remboursement
+          WHERE type = 'MENSUALITE' AND date IS NOT NULL
+          GROUP BY credit_id, YEAR(date), MONTH(date)) first_installment ON first_installment.id = r.id
+SET r.mois_echeance = DATE_FORMAT(r.date, '%Y-%m-01');
+
+ALTER TABLE remboursement ADD CONSTRAINT uk_remboursement_installment UNIQUE (credit_id, type, mois_echeance);
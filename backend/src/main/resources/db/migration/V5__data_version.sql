@@ -0,0 +1,9 @@
+-- Versions of data sets shared by all instances (see ReportCache): bumped in the transaction
+-- that changes the data, so every instance derives the same ETag from it
+CREATE TABLE data_version (
+    name VARCHAR(64) NOT NULL,
+    version BIGINT NOT NULL,
+    PRIMARY KEY (name)
+) ENGINE = InnoDB;
+
+INSERT INTO data_version (name, version) VALUES ('reporting', 0);
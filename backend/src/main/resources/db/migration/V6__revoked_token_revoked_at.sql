@@ -0,0 +1,2 @@
+-- Recent revocations, polled by every instance (see TokenRevocationStore)
+CREATE INDEX idx_revoked_token_revoked_at ON revoked_token (revoked_at);
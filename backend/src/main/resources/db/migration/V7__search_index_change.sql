@@ -0,0 +1,11 @@
+-- Clients and professional credits written by one instance, polled by the others to update their
+-- in-memory search indexes (see SearchIndexSync)
+CREATE TABLE search_index_change (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    created_at DATETIME(6),
+    entity_id BIGINT,
+    entity_type VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_search_index_change_created_at ON search_index_change (created_at);
@@ -0,0 +1,41 @@
+-- ddl-auto named the unique keys of users after a hash (UK...); the entity now names them
+-- uk_users_username and uk_users_email as V1 does, and ddl-auto=update would add them a second time.
+-- A generated key is renamed, or dropped when ddl-auto already added the named one.
+
+SET @generated = (SELECT MIN(s.index_name)
+                  FROM information_schema.statistics s
+                  WHERE s.table_schema = DATABASE() AND s.table_name = 'users' AND s.column_name = 'username'
+                    AND s.non_unique = 0 AND s.index_name NOT IN ('PRIMARY', 'uk_users_username')
+                    AND (SELECT COUNT(*)
+                         FROM information_schema.statistics c
+                         WHERE c.table_schema = s.table_schema AND c.table_name = s.table_name
+                           AND c.index_name = s.index_name) = 1);
+SET @ddl = (SELECT CASE
+                       WHEN @generated IS NULL THEN 'DO 0'
+                       WHEN COUNT(*) > 0 THEN CONCAT('ALTER TABLE users DROP INDEX `', @generated, '`')
+                       ELSE CONCAT('ALTER TABLE users RENAME INDEX `', @generated, '` TO uk_users_username')
+                   END
+            FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'users' AND index_name = 'uk_users_username');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @generated = (SELECT MIN(s.index_name)
+                  FROM information_schema.statistics s
+                  WHERE s.table_schema = DATABASE() AND s.table_name = 'users' AND s.column_name = 'email'
+                    AND s.non_unique = 0 AND s.index_name NOT IN ('PRIMARY', 'uk_users_email')
+                    AND (SELECT COUNT(*)
+                         FROM information_schema.statistics c
+                         WHERE c.table_schema = s.table_schema AND c.table_name = s.table_name
+                           AND c.index_name = s.index_name) = 1);
+SET @ddl = (SELECT CASE
+                       WHEN @generated IS NULL THEN 'DO 0'
+                       WHEN COUNT(*) > 0 THEN CONCAT('ALTER TABLE users DROP INDEX `', @generated, '`')
+                       ELSE CONCAT('ALTER TABLE users RENAME INDEX `', @generated, '` TO uk_users_email')
+                   END
+            FROM information_schema.statistics
+            WHERE table_schema = DATABASE() AND table_name = 'users' AND index_name = 'uk_users_email');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
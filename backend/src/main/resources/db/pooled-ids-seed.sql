@@ -0,0 +1,22 @@
+-- Aligns the id_generators rows with the ids already allocated by the IDENTITY columns,
+-- so that switching an existing database to the pooled-ids profile never reuses an id.
+-- Runs at every startup of the profile and only ever moves a generator forward.
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'client', COALESCE(MAX(id), 0) + 1 FROM client
+ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'credit', COALESCE(MAX(id), 0) + 1 FROM credit
+ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'remboursement', COALESCE(MAX(id), 0) + 1 FROM remboursement
+ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'users', COALESCE(MAX(id), 0) + 1 FROM users
+ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
+
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'delinquency_snapshot', COALESCE(MAX(id), 0) + 1 FROM delinquency_snapshot
+ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val));
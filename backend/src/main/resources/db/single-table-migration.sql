@@ -0,0 +1,57 @@
+-- Copies the JOINED subclass rows into the single credit table used by the single-table profile.
+-- Runs at every startup of the profile, once the credit_type and subclass columns exist
+-- (V3 migration); only credits without a discriminator are touched, so it is a no-op once migrated.
+-- Every statement first checks information_schema: a database created in single-table mode may
+-- have no subclass tables at all, and then there is nothing to copy.
+-- The subclass tables are kept for single-table-rollback.sql, but their foreign keys to credit
+-- are dropped: the copies are no longer maintained and would prevent deleting migrated credits.
+-- They are looked up by table and referenced table, since ddl-auto gave them generated names.
+-- Any credit still without a discriminator afterwards stops the startup (SingleTableMigrationCheck).
+
+SET @ddl = (SELECT IF(COUNT(*) = 1, 'UPDATE credit c JOIN credit_personnel p ON p.id = c.id SET c.credit_type = ''PERSONNEL'', c.motif = p.motif WHERE c.credit_type IS NULL', 'DO 0')
+            FROM information_schema.tables
+            WHERE table_schema = DATABASE() AND table_name = 'credit_personnel');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 1, 'UPDATE credit c JOIN credit_immobilier p ON p.id = c.id SET c.credit_type = ''IMMOBILIER'', c.type_bien_finance = p.type_bien_finance WHERE c.credit_type IS NULL', 'DO 0')
+            FROM information_schema.tables
+            WHERE table_schema = DATABASE() AND table_name = 'credit_immobilier');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 1, 'UPDATE credit c JOIN credit_professionnel p ON p.id = c.id SET c.credit_type = ''PROFESSIONNEL'', c.motif = p.motif, c.raison_sociale_entreprise = p.raison_sociale_entreprise WHERE c.credit_type IS NULL', 'DO 0')
+            FROM information_schema.tables
+            WHERE table_schema = DATABASE() AND table_name = 'credit_professionnel');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'DO 0',
+                      CONCAT('ALTER TABLE credit_personnel ',
+                             GROUP_CONCAT(CONCAT('DROP FOREIGN KEY `', constraint_name, '`') SEPARATOR ', ')))
+            FROM information_schema.referential_constraints
+            WHERE constraint_schema = DATABASE() AND table_name = 'credit_personnel' AND referenced_table_name = 'credit');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'DO 0',
+                      CONCAT('ALTER TABLE credit_immobilier ',
+                             GROUP_CONCAT(CONCAT('DROP FOREIGN KEY `', constraint_name, '`') SEPARATOR ', ')))
+            FROM information_schema.referential_constraints
+            WHERE constraint_schema = DATABASE() AND table_name = 'credit_immobilier' AND referenced_table_name = 'credit');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'DO 0',
+                      CONCAT('ALTER TABLE credit_professionnel ',
+                             GROUP_CONCAT(CONCAT('DROP FOREIGN KEY `', constraint_name, '`') SEPARATOR ', ')))
+            FROM information_schema.referential_constraints
+            WHERE constraint_schema = DATABASE() AND table_name = 'credit_professionnel' AND referenced_table_name = 'credit');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,50 @@
+-- Switches a database used with the single-table profile back to the default JOINED mapping.
+-- Run it manually, with the application stopped, before restarting without the profile:
+-- it writes the subclass columns back to the subclass tables (inserting the credits created in
+-- single-table mode) and clears the discriminator, so that a later switch migrates everything again.
+-- Subclass rows of credits deleted in single-table mode are removed first, then the foreign keys
+-- dropped by single-table-migration.sql are restored, unless a foreign key to credit remains under
+-- another name (as ddl-auto generated them).
+DELETE p FROM credit_personnel p LEFT JOIN credit c ON c.id = p.id
+WHERE c.id IS NULL OR c.credit_type <> 'PERSONNEL';
+
+DELETE p FROM credit_immobilier p LEFT JOIN credit c ON c.id = p.id
+WHERE c.id IS NULL OR c.credit_type <> 'IMMOBILIER';
+
+DELETE p FROM credit_professionnel p LEFT JOIN credit c ON c.id = p.id
+WHERE c.id IS NULL OR c.credit_type <> 'PROFESSIONNEL';
+
+INSERT INTO credit_personnel (id, motif)
+SELECT c.id, c.motif FROM credit c WHERE c.credit_type = 'PERSONNEL'
+ON DUPLICATE KEY UPDATE motif = VALUES(motif);
+
+INSERT INTO credit_immobilier (id, type_bien_finance)
+SELECT c.id, c.type_bien_finance FROM credit c WHERE c.credit_type = 'IMMOBILIER'
+ON DUPLICATE KEY UPDATE type_bien_finance = VALUES(type_bien_finance);
+
+INSERT INTO credit_professionnel (id, motif, raison_sociale_entreprise)
+SELECT c.id, c.motif, c.raison_sociale_entreprise FROM credit c WHERE c.credit_type = 'PROFESSIONNEL'
+ON DUPLICATE KEY UPDATE motif = VALUES(motif), raison_sociale_entreprise = VALUES(raison_sociale_entreprise);
+
+UPDATE credit SET credit_type = NULL WHERE credit_type IS NOT NULL;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'ALTER TABLE credit_personnel ADD CONSTRAINT fk_credit_personnel_credit FOREIGN KEY (id) REFERENCES credit (id)', 'DO 0')
+            FROM information_schema.referential_constraints
+            WHERE constraint_schema = DATABASE() AND table_name = 'credit_personnel' AND referenced_table_name = 'credit');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'ALTER TABLE credit_immobilier ADD CONSTRAINT fk_credit_immobilier_credit FOREIGN KEY (id) REFERENCES credit (id)', 'DO 0')
+            FROM information_schema.referential_constraints
+            WHERE constraint_schema = DATABASE() AND table_name = 'credit_immobilier' AND referenced_table_name = 'credit');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'ALTER TABLE credit_professionnel ADD CONSTRAINT fk_credit_professionnel_credit FOREIGN KEY (id) REFERENCES credit (id)', 'DO 0')
+            FROM information_schema.referential_constraints
+            WHERE constraint_schema = DATABASE() AND table_name = 'credit_professionnel' AND referenced_table_name = 'credit');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
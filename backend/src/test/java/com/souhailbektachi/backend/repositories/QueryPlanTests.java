@@ -0,0 +1,261 @@
+package com.souhailbektachi.backend.repositories;
+
+import com.souhailbektachi.backend.dtos.CreditSearchCriteria;
+import com.souhailbektachi.backend.entities.StatutCredit;
+import com.souhailbektachi.backend.entities.TypeRemboursement;
+import com.souhailbektachi.backend.repositories.SqlCapture.CapturedStatement;
+import com.souhailbektachi.backend.services.CreditService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs EXPLAIN on the SQL that Hibernate generates for the hot repository methods, captured while
+ * the methods run against the migrated MySQL schema, and fails on full table scans. Selective
+ * lookups and keyset chunks must not scan any table; whole-table reads (aggregates and unpaged
+ * listings by a low-selectivity value) may scan their driving table only, every join and subquery
+ * going through a key. The data is seeded in the test transaction and rolled back.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(locations = "classpath:application.properties")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional
+class QueryPlanTests {
+
+    private static final int CLIENTS = 500;
+    private static final int CREDITS_PER_CLIENT = 10;
+    private static final int REPAYMENTS_PER_CREDIT = 6;
+    private static final int USERS = 200;
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    enum Access {
+        /** No table may be scanned */
+        SELECTIVE,
+        /** Only the driving table may be scanned */
+        WHOLE_TABLE
+    }
+
+    @TestConfiguration
+    static class CaptureConfiguration {
+        @Bean
+        static SqlCapture sqlCapture() {
+            return new SqlCapture();
+        }
+    }
+
+    @Autowired
+    private SqlCapture sqlCapture;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CreditRepository creditRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private RemboursementRepository remboursementRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private CreditService creditService;
+
+    private long clientId;
+    private long creditId;
+    private List<Long> clientPage;
+
+    static Stream<Arguments> repositoryCalls() {
+        List<Arguments> calls = new ArrayList<>(List.of(
+                call("RemboursementRepository.findByCreditId", Access.SELECTIVE,
+                        t -> t.remboursementRepository.findByCreditId(t.creditId)),
+                call("RemboursementRepository.existsInstallment", Access.SELECTIVE,
+                        t -> t.remboursementRepository.existsInstallment(t.creditId, START.plusMonths(2), null)),
+                call("CreditRepository.findByClientId", Access.SELECTIVE,
+                        t -> t.creditRepository.findByClientId(t.clientId)),
+                call("CreditRepository.findWithClientAndRemboursementsById", Access.SELECTIVE,
+                        t -> t.creditRepository.findWithClientAndRemboursementsById(t.creditId)),
+                call("ClientRepository.findWithCreditsById", Access.SELECTIVE,
+                        t -> t.clientRepository.findWithCreditsById(t.clientId)),
+                call("ClientRepository.countCreditsByClientId", Access.SELECTIVE,
+                        t -> t.clientRepository.countCreditsByClientId(t.clientId)),
+                call("ClientRepository.countCreditsByClientIds (a page of clients)", Access.SELECTIVE,
+                        t -> t.clientRepository.countCreditsByClientIds(t.clientPage)),
+                call("ClientRepository.findSearchEntriesByIdIn (search index change feed)", Access.SELECTIVE,
+                        t -> t.clientRepository.findSearchEntriesByIdIn(t.clientPage)),
+                call("CreditRepository.findCompanyNamesByIdIn (search index change feed)", Access.SELECTIVE,
+                        t -> t.creditRepository.findCompanyNamesByIdIn(List.of(t.creditId))),
+                call("ClientRepository.findByEmail", Access.SELECTIVE,
+                        t -> t.clientRepository.findByEmail("client-42@example.com")),
+                call("UserRepository.findByUsername", Access.SELECTIVE,
+                        t -> t.userRepository.findByUsername("user-42")),
+                call("RevokedTokenRepository.findByRevocationKey", Access.SELECTIVE,
+                        t -> t.revokedTokenRepository.findByRevocationKey("user:user-42")),
+                call("RevokedTokenRepository.findRevocationKeysSince (revocation poll)", Access.SELECTIVE,
+                        t -> t.revokedTokenRepository.findRevocationKeysSince(Instant.now().minusSeconds(15), Instant.now())),
+
+                // Keyset scrolls, first chunk with the configured chunk sizes
+                call("CreditRepository.findByIdGreaterThan (scroll)", Access.SELECTIVE,
+                        t -> t.creditRepository.findByIdGreaterThan(0L, PageRequest.of(0, 1000))),
+                call("ClientRepository.findSearchEntries (search index rebuild)", Access.SELECTIVE,
+                        t -> t.clientRepository.findSearchEntries(0L, PageRequest.of(0, 5000))),
+                call("CreditRepository.findCompanyNames (suggestion index rebuild)", Access.SELECTIVE,
+                        t -> t.creditRepository.findCompanyNames(0L, PageRequest.of(0, 5000))),
+                call("CreditRepository.findDelinquencyCandidates (snapshot rebuild)", Access.SELECTIVE,
+                        t -> t.creditRepository.findDelinquencyCandidates(0L, PageRequest.of(0, 1000))),
+                call("CreditRepository.findAcceptedCreditTerms (cash-flow projection)", Access.SELECTIVE,
+                        t -> t.creditRepository.findAcceptedCreditTerms(0L, PageRequest.of(0, 5000))),
+                call("CreditRepository.findInstallmentCandidates (month-end run)", Access.SELECTIVE,
+                        t -> t.creditRepository.findInstallmentCandidates(0L, 4, 0, START.plusMonths(6).minusDays(1),
+                                START.plusMonths(6), START.plusMonths(7).minusDays(1), PageRequest.of(0, 500))),
+
+                // Specification search as sent by the credits screen: one month, accepted professional credits
+                call("CreditService.searchCredits (specifications)", Access.SELECTIVE,
+                        t -> t.creditService.searchCredits(new CreditSearchCriteria(20000.0, null,
+                                        START.plusMonths(2), START.plusMonths(3).minusDays(1), StatutCredit.ACCEPTE, "PROFESSIONNEL", null),
+                                PageRequest.of(0, 20, Sort.by("id")))),
+
+                // Aggregates over the whole portfolio
+                call("CreditRepository.aggregateByStatut", Access.WHOLE_TABLE,
+                        t -> t.creditRepository.aggregateByStatut()),
+                call("CreditRepository.aggregateByTypeAndStatut", Access.WHOLE_TABLE,
+                        t -> t.creditRepository.aggregateByTypeAndStatut()),
+                call("CreditRepository.aggregatePerformanceByType", Access.WHOLE_TABLE,
+                        t -> t.creditRepository.aggregatePerformanceByType()),
+                call("RemboursementRepository.aggregateByType", Access.WHOLE_TABLE,
+                        t -> t.remboursementRepository.aggregateByType())
+        ));
+        // Unpaged listings, for every value: the frequent ones legitimately read most of the table
+        for (StatutCredit statut : StatutCredit.values()) {
+            calls.add(call("CreditRepository.findByStatut(" + statut + ")", Access.WHOLE_TABLE,
+                    t -> t.creditRepository.findByStatut(statut)));
+        }
+        for (TypeRemboursement type : TypeRemboursement.values()) {
+            calls.add(call("RemboursementRepository.findByType(" + type + ")", Access.WHOLE_TABLE,
+                    t -> t.remboursementRepository.findByType(type)));
+        }
+        return calls.stream();
+    }
+
+    private static Arguments call(String name, Access access, Consumer<QueryPlanTests> call) {
+        return Arguments.of(name, access, call);
+    }
+
+    @BeforeEach
+    void seed() {
+        String[] types = {"credit_personnel", "credit_immobilier", "credit_professionnel"};
+        List<Long> clientIds = new ArrayList<>();
+        for (int c = 0; c < CLIENTS; c++) {
+            jdbcTemplate.update("INSERT INTO client (nom, email) VALUES (?, ?)",
+                    "Client " + c, "client-" + c + "@example.com");
+            long client = jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+            clientIds.add(client);
+
+            for (int i = 0; i < CREDITS_PER_CLIENT; i++) {
+                // Mostly accepted credits, as in production
+                String statut = i == 0 ? "EN_COURS" : i == 1 ? "REJETE" : "ACCEPTE";
+                LocalDate demande = START.plusDays((c * CREDITS_PER_CLIENT + i) % 365);
+                jdbcTemplate.update("INSERT INTO credit (client_id, statut, date_demande, date_acception, montant, "
+                                + "duree_remboursement, taux_interet) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                        client, statut, demande, statut.equals("ACCEPTE") ? demande.plusDays(10) : null,
+                        5000.0 + 1000 * ((c + i) % 200), 24, 3.5);
+                long credit = jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+                String table = types[i % types.length];
+                switch (table) {
+                    case "credit_personnel" -> jdbcTemplate.update(
+                            "INSERT INTO credit_personnel (id, motif) VALUES (?, ?)", credit, "Achat de voiture");
+                    case "credit_immobilier" -> jdbcTemplate.update(
+                            "INSERT INTO credit_immobilier (id, type_bien_finance) VALUES (?, ?)", credit, "APPARTEMENT");
+                    default -> jdbcTemplate.update(
+                            "INSERT INTO credit_professionnel (id, motif, raison_sociale_entreprise) VALUES (?, ?, ?)",
+                            credit, "Investissement", "Entreprise " + c);
+                }
+            }
+        }
+        clientId = clientIds.get(CLIENTS / 2);
+        clientPage = clientIds.subList(0, 20);
+
+        List<Long> creditIds = jdbcTemplate.queryForList("SELECT id FROM credit WHERE statut = 'ACCEPTE' ORDER BY id", Long.class);
+        creditId = creditIds.get(creditIds.size() / 2);
+        List<Object[]> repayments = new ArrayList<>();
+        for (Long credit : creditIds) {
+            for (int m = 0; m < REPAYMENTS_PER_CREDIT; m++) {
+                boolean anticipated = m == 0 && credit % 10 == 0;
+                LocalDate date = START.plusMonths(m);
+                repayments.add(new Object[]{credit, date, 450.0, anticipated ? "REMBOURSEMENT_ANTICIPE" : "MENSUALITE",
+                        anticipated ? null : date.withDayOfMonth(1)});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO remboursement (credit_id, date, montant, type, mois_echeance) "
+                + "VALUES (?, ?, ?, ?, ?)", repayments);
+
+        Instant now = Instant.now();
+        List<Object[]> users = new ArrayList<>();
+        List<Object[]> revocations = new ArrayList<>();
+        for (int u = 0; u < USERS; u++) {
+            users.add(new Object[]{"user-" + u, "user-" + u + "@example.com", "ROLE_CLIENT"});
+            revocations.add(new Object[]{"user:user-" + u, "user-" + u,
+                    Timestamp.from(now.minus(u, ChronoUnit.MINUTES)), Timestamp.from(now.plus(1, ChronoUnit.DAYS))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (username, email, role, enabled, password) VALUES (?, ?, ?, 1, 'x')", users);
+        jdbcTemplate.batchUpdate("INSERT INTO revoked_token (revocation_key, username, revoked_at, expires_at) "
+                + "VALUES (?, ?, ?, ?)", revocations);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryCalls")
+    void generatedSqlDoesNotScanFullTables(String name, Access access, Consumer<QueryPlanTests> call) {
+        List<CapturedStatement> statements = sqlCapture.capture(() -> call.accept(this));
+        assertFalse(statements.isEmpty(), () -> name + " executed no statement");
+
+        for (CapturedStatement statement : statements) {
+            List<Map<String, Object>> plan = explain(statement);
+            for (int i = 0; i < plan.size(); i++) {
+                Map<String, Object> row = plan.get(i);
+                boolean drivingTable = i == 0 && access == Access.WHOLE_TABLE;
+                assertTrue(drivingTable || !"ALL".equals(row.get("type")),
+                        () -> name + " scans the whole " + row.get("table") + " table: " + row
+                                + "\n" + statement.sql() + "\n" + statement.parameters());
+            }
+        }
+    }
+
+    private List<Map<String, Object>> explain(CapturedStatement statement) {
+        return jdbcTemplate.queryForList("EXPLAIN " + statement.sql(), statement.parameters().entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(Map.Entry::getValue)
+                .toArray());
+    }
+}
@@ -0,0 +1,98 @@
+package com.souhailbektachi.backend.repositories;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Wraps the application DataSource to record the prepared statements executed during
+ * {@link #capture(Runnable)}, as generated by Hibernate, together with their bound parameters
+ */
+class SqlCapture implements BeanPostProcessor {
+
+    /**
+     * An executed statement; {@code parameters} maps each JDBC parameter index to its bound value
+     */
+    record CapturedStatement(String sql, Map<Integer, Object> parameters) {
+    }
+
+    private final List<CapturedStatement> statements = new CopyOnWriteArrayList<>();
+    private volatile boolean capturing;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        return bean instanceof DataSource dataSource ? proxy(DataSource.class, dataSource, this::wrapConnection) : bean;
+    }
+
+    /**
+     * Run {@code work} and return the statements it executed, in order
+     */
+    List<CapturedStatement> capture(Runnable work) {
+        statements.clear();
+        capturing = true;
+        try {
+            work.run();
+        } finally {
+            capturing = false;
+        }
+        return new ArrayList<>(statements);
+    }
+
+    private Object wrapConnection(String method, Object[] args, Object result) {
+        return result instanceof Connection connection ? proxy(Connection.class, connection, this::wrapStatement) : result;
+    }
+
+    private Object wrapStatement(String method, Object[] args, Object result) {
+        if (!method.equals("prepareStatement") || !(result instanceof PreparedStatement statement)) {
+            return result;
+        }
+        String sql = (String) args[0];
+        Map<Integer, Object> parameters = new TreeMap<>();
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                (proxy, invoked, invokedArgs) -> {
+                    String name = invoked.getName();
+                    if (name.equals("setNull")) {
+                        parameters.put((Integer) invokedArgs[0], null);
+                    } else if (name.startsWith("set") && invokedArgs != null && invokedArgs.length >= 2
+                            && invokedArgs[0] instanceof Integer index) {
+                        parameters.put(index, invokedArgs[1]);
+                    } else if (name.equals("clearParameters")) {
+                        parameters.clear();
+                    } else if (capturing && (name.equals("executeQuery") || name.equals("execute"))
+                            && (invokedArgs == null || invokedArgs.length == 0)) {
+                        statements.add(new CapturedStatement(sql, new TreeMap<>(parameters)));
+                    }
+                    return invoke(statement, invoked, invokedArgs);
+                });
+    }
+
+    private static <T> T proxy(Class<T> type, T target, ResultWrapper wrapper) {
+        InvocationHandler handler = (proxy, method, args) ->
+                wrapper.wrap(method.getName(), args, invoke(target, method, args));
+        return type.cast(Proxy.newProxyInstance(SqlCapture.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ResultWrapper {
+        Object wrap(String method, Object[] args, Object result);
+    }
+}
@@ -0,0 +1,74 @@
+package com.souhailbektachi.backend.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    // One token per second
+    private static final double REFILL_PER_NANO = 1.0 / SECOND;
+
+    @Test
+    void bucketAllowsItsCapacityThenReportsTheWait() {
+        LoginRateLimiter.TokenBucket bucket = new LoginRateLimiter.TokenBucket(3, REFILL_PER_NANO, 0);
+
+        assertThat(bucket.tryConsume(0)).isZero();
+        assertThat(bucket.tryConsume(0)).isZero();
+        assertThat(bucket.tryConsume(0)).isZero();
+        assertThat(bucket.tryConsume(0)).isEqualTo(SECOND);
+        // Half a token refilled
+        assertThat(bucket.tryConsume(SECOND / 2)).isEqualTo(SECOND / 2);
+    }
+
+    @Test
+    void bucketRefillsContinuouslyUpToItsCapacity() {
+        LoginRateLimiter.TokenBucket bucket = new LoginRateLimiter.TokenBucket(2, REFILL_PER_NANO, 0);
+        bucket.tryConsume(0);
+        bucket.tryConsume(0);
+
+        assertThat(bucket.tryConsume(SECOND)).isZero();
+        assertThat(bucket.tryConsume(SECOND)).isPositive();
+
+        // Ten seconds idle refill two tokens, not ten
+        assertThat(bucket.isFull(11 * SECOND)).isTrue();
+        assertThat(bucket.tryConsume(11 * SECOND)).isZero();
+        assertThat(bucket.tryConsume(11 * SECOND)).isZero();
+        assertThat(bucket.tryConsume(11 * SECOND)).isPositive();
+    }
+
+    @Test
+    void bucketWithoutRefillNeverRecovers() {
+        LoginRateLimiter.TokenBucket bucket = new LoginRateLimiter.TokenBucket(1, 0, 0);
+
+        assertThat(bucket.tryConsume(0)).isZero();
+        assertThat(bucket.tryConsume(100 * SECOND)).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void usernameLimitIgnoresCaseAndIsSeparateFromTheIpLimit() {
+        LoginRateLimiter limiter = new LoginRateLimiter(100, 1, 2, 1);
+
+        assertThat(limiter.tryAcquire("Alice", "10.0.0.1")).isZero();
+        assertThat(limiter.tryAcquire("alice", "10.0.0.2")).isZero();
+        assertThat(limiter.tryAcquire("ALICE", "10.0.0.3")).isPositive();
+        assertThat(limiter.tryAcquire("bob", "10.0.0.3")).isZero();
+        assertThat(limiter.getStats()).containsEntry("rejectedByUsername", 1L);
+    }
+
+    @Test
+    void registrationsShareTheIpBucketOfLogins() {
+        LoginRateLimiter limiter = new LoginRateLimiter(2, 1, 100, 1);
+
+        assertThat(limiter.tryAcquire("10.0.0.1")).isZero();
+        assertThat(limiter.tryAcquire("alice", "10.0.0.1")).isZero();
+        // Retry-After in whole seconds: one token a minute
+        assertThat(limiter.tryAcquire("10.0.0.1")).isBetween(59L, 60L);
+        assertThat(limiter.tryAcquire("bob", "10.0.0.1")).isPositive();
+        assertThat(limiter.tryAcquire("10.0.0.2")).isZero();
+        assertThat(limiter.getStats()).containsEntry("rejectedByIp", 2L);
+    }
+}
@@ -0,0 +1,140 @@
+package com.souhailbektachi.backend.security;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.souhailbektachi.backend.entities.RevokedToken;
+import com.souhailbektachi.backend.repositories.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationStoreTest {
+
+    private static final Instant REVOKED_AT = Instant.parse("2024-03-01T12:00:00Z");
+
+    private final RevokedTokenRepository revokedTokenRepository = mock(RevokedTokenRepository.class);
+    private final JwtConfig jwtConfig = mock(JwtConfig.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+    private TokenRevocationStore store;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(jwtConfig.getTokenExpirationMs()).thenReturn(86_400_000L);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(revokedTokenRepository.findByRevocationKey(anyString())).thenReturn(Optional.empty());
+        store = new TokenRevocationStore(revokedTokenRepository, jwtConfig, transactionTemplate);
+    }
+
+    @Test
+    void bloomFilterHasNoFalseNegatives() {
+        TokenRevocationStore.BloomFilter filter = new TokenRevocationStore.BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.add("jti:", "token-" + i);
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(filter.mightContain("jti:", "token-" + i)).isTrue();
+        }
+    }
+
+    @Test
+    void bloomFilterKeepsTheFalsePositiveRateNearTheTarget() {
+        TokenRevocationStore.BloomFilter filter = new TokenRevocationStore.BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.add("jti:", "token-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("jti:", "other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+
+    @Test
+    void bloomFilterHashesThePrefixAndTheValueAsOneKey() {
+        TokenRevocationStore.BloomFilter filter = new TokenRevocationStore.BloomFilter(16, 0.01);
+        filter.add("", "user:alice");
+
+        assertThat(filter.mightContain("user:", "alice")).isTrue();
+    }
+
+    @Test
+    void tokensOutsideTheFilterDoNotReadTheTable() {
+        when(revokedTokenRepository.findActiveRevocationKeys(any())).thenReturn(List.of("jti:revoked"));
+        store.rebuild();
+        clearInvocations(revokedTokenRepository);
+
+        assertThat(store.isRevoked(jwt("not-revoked", "bob", REVOKED_AT))).isFalse();
+        verify(revokedTokenRepository, never()).findByRevocationKey(anyString());
+    }
+
+    @Test
+    void revokedTokenIsFoundThroughTheFilter() {
+        when(revokedTokenRepository.findActiveRevocationKeys(any())).thenReturn(List.of("jti:revoked"));
+        when(revokedTokenRepository.findByRevocationKey("jti:revoked")).thenReturn(Optional.of(new RevokedToken()));
+        store.rebuild();
+
+        assertThat(store.isRevoked(jwt("revoked", "bob", REVOKED_AT))).isTrue();
+    }
+
+    @Test
+    void userRevocationCoversTokensIssuedUpToTheEndOfItsSecond() {
+        RevokedToken revocation = new RevokedToken(1L, "user:bob", "bob", REVOKED_AT, REVOKED_AT.plus(1, ChronoUnit.DAYS));
+        when(revokedTokenRepository.findByRevocationKey("user:bob")).thenReturn(Optional.of(revocation));
+
+        // iat has second precision: a token issued in the revocation's second may predate it
+        assertThat(store.isRevoked(jwt(null, "bob", REVOKED_AT.minusSeconds(1)))).isTrue();
+        assertThat(store.isRevoked(jwt(null, "bob", REVOKED_AT))).isTrue();
+        assertThat(store.isRevoked(jwt(null, "bob", REVOKED_AT.plusSeconds(1)))).isFalse();
+    }
+
+    @Test
+    void revocationTimesAreTruncatedToTheSecond() {
+        store.revokeUser("bob");
+
+        ArgumentCaptor<RevokedToken> saved = ArgumentCaptor.forClass(RevokedToken.class);
+        verify(revokedTokenRepository).save(saved.capture());
+        assertThat(saved.getValue().getRevocationKey()).isEqualTo("user:bob");
+        assertThat(saved.getValue().getRevokedAt().getNano()).isZero();
+    }
+
+    @Test
+    void pollAddsTheRecentRevocationsOfOtherInstances() {
+        when(revokedTokenRepository.findActiveRevocationKeys(any())).thenReturn(List.of());
+        store.rebuild();
+        when(revokedTokenRepository.findRevocationKeysSince(any(), any())).thenReturn(List.of("jti:elsewhere"));
+        when(revokedTokenRepository.findByRevocationKey("jti:elsewhere")).thenReturn(Optional.of(new RevokedToken()));
+
+        store.pollRecent();
+
+        assertThat(store.isRevoked(jwt("elsewhere", "bob", REVOKED_AT))).isTrue();
+    }
+
+    // Helper methods
+
+    private static DecodedJWT jwt(String id, String subject, Instant issuedAt) {
+        DecodedJWT jwt = mock(DecodedJWT.class);
+        when(jwt.getId()).thenReturn(id);
+        when(jwt.getSubject()).thenReturn(subject);
+        when(jwt.getIssuedAt()).thenReturn(Date.from(issuedAt));
+        return jwt;
+    }
+}
@@ -0,0 +1,96 @@
+package com.souhailbektachi.backend.services.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AmortizationEngineTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 31);
+
+    @Test
+    void interestIsRoundedToTheCentEachMonth() {
+        // 1,000.00 at 12% (1% a month) over 3 months: payment 100000 * 0.01 * 1.030301 / 0.030301 = 34002.21
+        AmortizationEngine.Schedule schedule = AmortizationEngine.schedule(100_000, 12.0, 3, START);
+
+        assertThat(schedule.getMonthlyPaymentCents()).isEqualTo(34_002);
+        assertThat(schedule.getInterestCents(0)).isEqualTo(1_000);
+        assertThat(schedule.getPrincipalCents(0)).isEqualTo(33_002);
+        assertThat(schedule.getBalanceCents(0)).isEqualTo(66_998);
+        // 669.98 and 336.66 cents of interest
+        assertThat(schedule.getInterestCents(1)).isEqualTo(670);
+        assertThat(schedule.getInterestCents(2)).isEqualTo(337);
+        assertThat(schedule.getTotalInterestCents()).isEqualTo(2_007);
+    }
+
+    @Test
+    void lastInstallmentAbsorbsTheRemainingBalance() {
+        AmortizationEngine.Schedule schedule = AmortizationEngine.schedule(100_000, 12.0, 3, START);
+
+        assertThat(schedule.getPrincipalCents(2)).isEqualTo(33_666);
+        assertThat(schedule.getPaymentCents(2)).isEqualTo(34_003);
+        assertThat(schedule.getBalanceCents(2)).isZero();
+    }
+
+    @Test
+    void lastPaymentIsTheOneOfTheSchedule() {
+        assertThat(AmortizationEngine.lastPaymentCents(100_000, 12.0, 3)).isEqualTo(34_003);
+        assertThat(AmortizationEngine.lastPaymentCents(100_000, 0.0, 3)).isEqualTo(33_334);
+        assertThat(AmortizationEngine.lastPaymentCents(100_000, 12.0, 0)).isZero();
+    }
+
+    @Test
+    void lastInstallmentAbsorbsTheRemainderWithoutInterest() {
+        AmortizationEngine.Schedule schedule = AmortizationEngine.schedule(100_000, 0.0, 3, START);
+
+        assertThat(schedule.getMonthlyPaymentCents()).isEqualTo(33_333);
+        assertThat(schedule.getPaymentCents(0)).isEqualTo(33_333);
+        assertThat(schedule.getPaymentCents(1)).isEqualTo(33_333);
+        assertThat(schedule.getPaymentCents(2)).isEqualTo(33_334);
+        assertThat(schedule.getTotalInterestCents()).isZero();
+    }
+
+    @Test
+    void principalPartsAddUpToTheBorrowedAmount() {
+        long principal = 12_345_678;
+        AmortizationEngine.Schedule schedule = AmortizationEngine.schedule(principal, 4.35, 240, START);
+
+        long repaid = 0;
+        long paid = 0;
+        for (int i = 0; i < schedule.size(); i++) {
+            repaid += schedule.getPrincipalCents(i);
+            paid += schedule.getPaymentCents(i);
+            assertThat(schedule.getPaymentCents(i))
+                    .isEqualTo(schedule.getPrincipalCents(i) + schedule.getInterestCents(i));
+        }
+        assertThat(repaid).isEqualTo(principal);
+        assertThat(paid).isEqualTo(principal + schedule.getTotalInterestCents());
+        assertThat(schedule.getBalanceCents(schedule.size() - 1)).isZero();
+        assertThat(AmortizationEngine.totalInterestCents(principal, 4.35, 240))
+                .isEqualTo(schedule.getTotalInterestCents());
+    }
+
+    @Test
+    void paymentDatesFollowTheStartDateMonthly() {
+        AmortizationEngine.Schedule schedule = AmortizationEngine.schedule(100_000, 12.0, 3, START);
+
+        assertThat(schedule.getPaymentDate(0)).isEqualTo(LocalDate.of(2024, 2, 29));
+        assertThat(schedule.getPaymentDate(2)).isEqualTo(LocalDate.of(2024, 4, 30));
+    }
+
+    @Test
+    void emptyScheduleWithoutInstallments() {
+        assertThat(AmortizationEngine.monthlyPaymentCents(100_000, 12.0, 0)).isZero();
+        assertThat(AmortizationEngine.schedule(100_000, 12.0, 0, START).size()).isZero();
+    }
+
+    @Test
+    void amountsConvertToTheNearestCent() {
+        assertThat(AmortizationEngine.toCents(19.99)).isEqualTo(1_999);
+        assertThat(AmortizationEngine.toCents(0.1 + 0.2)).isEqualTo(30);
+        assertThat(AmortizationEngine.toCents(null)).isZero();
+        assertThat(AmortizationEngine.fromCents(1_999)).isEqualTo(19.99);
+    }
+}
@@ -0,0 +1,146 @@
+package com.souhailbektachi.backend.services.impl;
+
+import com.souhailbektachi.backend.entities.Client;
+import com.souhailbektachi.backend.repositories.ClientRepository;
+import com.souhailbektachi.backend.repositories.projections.ClientSearchEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.souhailbektachi.backend.services.impl.ClientSearchIndex.Field.EMAIL;
+import static com.souhailbektachi.backend.services.impl.ClientSearchIndex.Field.NOM;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ClientSearchIndexTest {
+
+    private final SpelAwareProxyProjectionFactory projections = new SpelAwareProxyProjectionFactory();
+    private final ClientRepository clientRepository = mock(ClientRepository.class);
+    private final List<ClientSearchEntry> database = new ArrayList<>();
+
+    private ClientSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(clientRepository.findSearchEntries(anyLong(), any())).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            return database.stream().filter(entry -> entry.getId() > afterId).toList();
+        });
+        index = new ClientSearchIndex(clientRepository);
+        ReflectionTestUtils.setField(index, "chunkSize", 5000);
+    }
+
+    @Test
+    void keywordMustContainEveryTrigramContiguously() {
+        add(1L, "abcd", "one@example.com");
+        // Contains the trigrams abc and bcd, but not abcd
+        add(2L, "abcxbcd", "two@example.com");
+        add(3L, "xyz", "three@example.com");
+        index.rebuild();
+
+        assertThat(index.search(NOM, "abcd", 10)).containsExactly(1L);
+        assertThat(index.search(NOM, "bcd", 10)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.search(NOM, "abz", 10)).isEmpty();
+    }
+
+    @Test
+    void matchesAreRankedByPositionThenLength() {
+        add(1L, "Jean Martin", "a@example.com");
+        add(2L, "Martine", "b@example.com");
+        add(3L, "Martin", "c@example.com");
+        add(4L, "Anne-Martin Dupont", "d@example.com");
+        index.rebuild();
+
+        assertThat(index.search(NOM, "martin", 10)).containsExactly(3L, 2L, 1L, 4L);
+        assertThat(index.search(NOM, "martin", 2)).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void caseAndAccentsAreIgnored() {
+        add(1L, "Hélène Lefèvre", "helene.lefevre@example.com");
+        index.rebuild();
+
+        assertThat(index.search(NOM, "HELENE", 10)).containsExactly(1L);
+        assertThat(index.search(NOM, "lefèv", 10)).containsExactly(1L);
+        assertThat(index.search(EMAIL, "LEFEVRE@", 10)).containsExactly(1L);
+    }
+
+    @Test
+    void indexCannotAnswerShortKeywordsOrBeforeItIsLoaded() {
+        assertThat(index.search(NOM, "martin", 10)).isNull();
+
+        index.rebuild();
+        assertThat(index.search(NOM, "ma", 10)).isNull();
+        assertThat(index.search(NOM, "mar", 10)).isEmpty();
+    }
+
+    @Test
+    void savedAndDeletedClientsAreReindexed() {
+        add(1L, "Martin", "martin@example.com");
+        add(2L, "Durand", "durand@example.com");
+        index.rebuild();
+
+        index.clientSaved(client(1L, "Bernard", "bernard@example.com"));
+        index.clientDeleted(2L);
+        index.clientSaved(client(3L, "Martinez", "martinez@example.com"));
+
+        assertThat(index.search(NOM, "martin", 10)).containsExactly(3L);
+        assertThat(index.search(NOM, "bernard", 10)).containsExactly(1L);
+        assertThat(index.search(NOM, "durand", 10)).isEmpty();
+        assertThat(index.getStats()).containsEntry("clients", 2).containsEntry("staleEntries", 2);
+    }
+
+    @Test
+    void changesOfOtherInstancesAreApplied() {
+        add(1L, "Martin", "martin@example.com");
+        add(2L, "Durand", "durand@example.com");
+        index.rebuild();
+
+        // Client 1 renamed, client 2 deleted elsewhere
+        index.clientsChanged(List.of(1L, 2L), List.of(entry(1L, "Bernard", "bernard@example.com")));
+
+        assertThat(index.search(NOM, "martin", 10)).isEmpty();
+        assertThat(index.search(NOM, "durand", 10)).isEmpty();
+        assertThat(index.search(NOM, "bernard", 10)).containsExactly(1L);
+    }
+
+    @Test
+    void rebuildCompactsReplacedEntries() {
+        add(1L, "Martin", "martin@example.com");
+        index.rebuild();
+        index.clientSaved(client(1L, "Martine", "martin@example.com"));
+        assertThat(index.getStats()).containsEntry("staleEntries", 1);
+
+        database.set(0, entry(1L, "Martine", "martin@example.com"));
+        index.rebuild();
+
+        assertThat(index.getStats()).containsEntry("staleEntries", 0);
+        assertThat(index.search(NOM, "martine", 10)).containsExactly(1L);
+    }
+
+    // Helper methods
+
+    private void add(Long id, String nom, String email) {
+        database.add(entry(id, nom, email));
+    }
+
+    private ClientSearchEntry entry(Long id, String nom, String email) {
+        return projections.createProjection(ClientSearchEntry.class, Map.of("id", id, "nom", nom, "email", email));
+    }
+
+    private static Client client(Long id, String nom, String email) {
+        Client client = new Client();
+        client.setId(id);
+        client.setNom(nom);
+        client.setEmail(email);
+        return client;
+    }
+}
@@ -0,0 +1,217 @@
+package com.souhailbektachi.backend.services.impl;
+
+import com.souhailbektachi.backend.entities.*;
+import com.souhailbektachi.backend.repositories.ClientRepository;
+import com.souhailbektachi.backend.repositories.CreditRepository;
+import com.souhailbektachi.backend.repositories.RemboursementRepository;
+import com.souhailbektachi.backend.repositories.projections.CreditTypeStatusAggregate;
+import com.souhailbektachi.backend.repositories.projections.RemboursementTypeAggregate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class DashboardCountersTest {
+
+    private final SpelAwareProxyProjectionFactory projections = new SpelAwareProxyProjectionFactory();
+
+    private final ClientRepository clientRepository = mock(ClientRepository.class);
+    private final CreditRepository creditRepository = mock(CreditRepository.class);
+    private final RemboursementRepository remboursementRepository = mock(RemboursementRepository.class);
+    private final ReportCache reportCache = mock(ReportCache.class);
+
+    // Committed database content, as seen by the aggregate queries
+    private final List<Credit> database = new ArrayList<>();
+
+    private DashboardCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        when(clientRepository.count()).thenReturn(2L);
+        when(creditRepository.aggregateByTypeAndStatut()).thenAnswer(invocation -> aggregate(database));
+        when(remboursementRepository.aggregateByType()).thenReturn(List.of(projections.createProjection(
+                RemboursementTypeAggregate.class,
+                Map.of("type", TypeRemboursement.MENSUALITE, "count", 3L, "totalAmount", 301.5))));
+        counters = new DashboardCounters(clientRepository, creditRepository, remboursementRepository, reportCache);
+    }
+
+    @Test
+    void seedLoadsTheDatabaseFigures() {
+        database.add(credit(new CreditPersonnel(), StatutCredit.ACCEPTE, 1000.10));
+        database.add(credit(new CreditImmobilier(), StatutCredit.EN_COURS, 250000.0));
+
+        counters.seed();
+
+        assertThat(counters.isReady()).isTrue();
+        assertThat(counters.getClientCount()).isEqualTo(2);
+        assertThat(counters.getCreditCount()).isEqualTo(2);
+        assertThat(counters.getCreditAmount()).isEqualTo(251000.10);
+        assertThat(counters.getCreditCount(StatutCredit.ACCEPTE)).isEqualTo(1);
+        assertThat(counters.getCreditCount("IMMOBILIER")).isEqualTo(1);
+        assertThat(counters.getRepaymentCount(TypeRemboursement.MENSUALITE)).isEqualTo(3);
+        assertThat(counters.getRepaymentAmount()).isEqualTo(301.5);
+        verify(reportCache, never()).markChanged();
+    }
+
+    @Test
+    void hooksApplyOnCommitOnly() {
+        counters.seed();
+
+        commit(() -> counters.creditCreated(credit(new CreditProfessionnel(), StatutCredit.EN_COURS, 20000.0)));
+        rollback(() -> counters.creditCreated(credit(new CreditPersonnel(), StatutCredit.EN_COURS, 5000.0)));
+
+        assertThat(counters.getCreditCount()).isEqualTo(1);
+        assertThat(counters.getCreditCount("PROFESSIONNEL")).isEqualTo(1);
+        assertThat(counters.getCreditAmount()).isEqualTo(20000.0);
+    }
+
+    @Test
+    void commitDuringTheReadIsCountedOnce() {
+        counters.seed();
+        Credit credit = credit(new CreditPersonnel(), StatutCredit.EN_COURS, 5000.0);
+        AtomicBoolean committed = new AtomicBoolean();
+        // The aggregate query misses a credit committed (and applied) while it runs
+        when(creditRepository.aggregateByTypeAndStatut()).thenAnswer(invocation -> {
+            List<CreditTypeStatusAggregate> rows = aggregate(database);
+            if (committed.compareAndSet(false, true)) {
+                runOnAnotherThread(() -> commit(() -> {
+                    database.add(credit);
+                    counters.creditCreated(credit);
+                }));
+            }
+            return rows;
+        });
+
+        counters.reconcile();
+
+        assertThat(counters.getCreditCount()).isEqualTo(1);
+        verify(reportCache, never()).markChanged();
+    }
+
+    @Test
+    void commitAppliedAfterTheReadIsWaitedFor() throws Exception {
+        counters.seed();
+        Credit credit = credit(new CreditPersonnel(), StatutCredit.ACCEPTE, 5000.0);
+        CountDownLatch committing = new CountDownLatch(1);
+        CountDownLatch reconciling = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                counters.creditCreated(credit);
+                List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+                synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+                // Committed in the database, counters not updated yet
+                database.add(credit);
+                committing.countDown();
+                reconciling.await();
+                Thread.sleep(100);
+                synchronizations.forEach(TransactionSynchronization::afterCommit);
+                synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        });
+        writer.start();
+        committing.await();
+
+        reconciling.countDown();
+        counters.reconcile();
+        writer.join();
+
+        assertThat(counters.getCreditCount()).isEqualTo(1);
+        assertThat(counters.getCreditCount(StatutCredit.ACCEPTE)).isEqualTo(1);
+        verify(reportCache, never()).markChanged();
+    }
+
+    @Test
+    void driftIsCorrectedAndInvalidatesTheReports() {
+        counters.seed();
+        // Written without going through the services
+        database.add(credit(new CreditImmobilier(), StatutCredit.ACCEPTE, 120000.0));
+
+        counters.reconcile();
+
+        assertThat(counters.getCreditCount()).isEqualTo(1);
+        assertThat(counters.getCreditAmount()).isEqualTo(120000.0);
+        verify(reportCache).markChanged();
+    }
+
+    @Test
+    void changeOfAnotherInstanceIsReconciledBeforeTheCountersAreServed() {
+        when(reportCache.getCurrentVersion()).thenReturn(4L);
+        counters.seed();
+        assertThat(counters.catchUp()).isTrue();
+        verify(creditRepository, times(1)).aggregateByTypeAndStatut();
+
+        // Committed by another instance: the data version moved without a local hook
+        database.add(credit(new CreditPersonnel(), StatutCredit.EN_COURS, 5000.0));
+        when(reportCache.getRemoteVersion()).thenReturn(5L);
+        when(reportCache.getCurrentVersion()).thenReturn(5L);
+
+        assertThat(counters.catchUp()).isTrue();
+        assertThat(counters.getCreditCount()).isEqualTo(1);
+        assertThat(counters.catchUp()).isTrue();
+        verify(creditRepository, times(2)).aggregateByTypeAndStatut();
+    }
+
+    private List<CreditTypeStatusAggregate> aggregate(List<Credit> credits) {
+        return credits.stream()
+                .collect(Collectors.groupingBy(credit -> List.of(credit.getClass(), credit.getStatut())))
+                .values().stream()
+                .map(group -> projections.createProjection(CreditTypeStatusAggregate.class, Map.of(
+                        "creditType", group.get(0).getClass(),
+                        "statut", group.get(0).getStatut(),
+                        "count", (long) group.size(),
+                        "totalAmount", group.stream().mapToDouble(Credit::getMontant).sum())))
+                .toList();
+    }
+
+    private static Credit credit(Credit credit, StatutCredit statut, double montant) {
+        credit.setStatut(statut);
+        credit.setMontant(montant);
+        return credit;
+    }
+
+    private static void commit(Runnable work) {
+        complete(work, true);
+    }
+
+    private static void rollback(Runnable work) {
+        complete(work, false);
+    }
+
+    private static void complete(Runnable work, boolean commit) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            if (commit) {
+                synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+                synchronizations.forEach(TransactionSynchronization::afterCommit);
+            }
+            int status = commit ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK;
+            synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void runOnAnotherThread(Runnable work) throws InterruptedException {
+        Thread thread = new Thread(work);
+        thread.start();
+        thread.join();
+    }
+}
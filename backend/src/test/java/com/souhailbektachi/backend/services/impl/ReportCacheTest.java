@@ -0,0 +1,73 @@
+package com.souhailbektachi.backend.services.impl;
+
+import com.souhailbektachi.backend.repositories.DataVersionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ReportCacheTest {
+
+    private final DataVersionRepository dataVersionRepository = mock(DataVersionRepository.class);
+    // Committed 'reporting' version
+    private final AtomicLong database = new AtomicLong(3);
+
+    private ReportCache reportCache;
+
+    @BeforeEach
+    void setUp() {
+        when(dataVersionRepository.findVersion(ReportCache.DATA_SET)).thenAnswer(invocation -> database.get());
+        doAnswer(invocation -> database.incrementAndGet()).when(dataVersionRepository).increment(ReportCache.DATA_SET);
+        reportCache = new ReportCache(dataVersionRepository, mock(PlatformTransactionManager.class), 60_000, 16);
+    }
+
+    @Test
+    void versionIsReadOncePerIntervalAndRightAfterALocalChange() {
+        String eTag = reportCache.getETag();
+        assertThat(eTag).startsWith("\"3-");
+
+        // Committed by another instance, not seen before the interval ends
+        database.incrementAndGet();
+        assertThat(reportCache.getETag()).isEqualTo(eTag);
+
+        reportCache.markChanged();
+        assertThat(reportCache.getETag()).startsWith("\"5-");
+    }
+
+    @Test
+    void localChangesAreNotRemote() {
+        assertThat(reportCache.getCurrentVersion()).isEqualTo(3);
+        long remote = reportCache.getRemoteVersion();
+
+        reportCache.markChanged();
+        reportCache.markChanged();
+
+        assertThat(reportCache.getCurrentVersion()).isEqualTo(5);
+        assertThat(reportCache.getRemoteVersion()).isEqualTo(remote);
+    }
+
+    @Test
+    void versionMovingPastTheLocalChangesRevealsARemoteChange() {
+        reportCache.getCurrentVersion();
+
+        reportCache.markChanged();
+        // Committed by another instance
+        database.incrementAndGet();
+
+        assertThat(reportCache.getCurrentVersion()).isEqualTo(5);
+        assertThat(reportCache.getRemoteVersion()).isEqualTo(5);
+    }
+
+    @Test
+    void reportIsComputedOncePerETag() {
+        AtomicLong computed = new AtomicLong();
+
+        assertThat(reportCache.get("dashboard", "\"1-a\"", computed::incrementAndGet)).isEqualTo(1L);
+        assertThat(reportCache.get("dashboard", "\"1-a\"", computed::incrementAndGet)).isEqualTo(1L);
+        assertThat(reportCache.get("dashboard", "\"2-a\"", computed::incrementAndGet)).isEqualTo(2L);
+    }
+}
@@ -0,0 +1,206 @@
+package com.souhailbektachi.backend.services.impl;
+
+import com.souhailbektachi.backend.dtos.SuggestionDTO;
+import com.souhailbektachi.backend.entities.Client;
+import com.souhailbektachi.backend.entities.Credit;
+import com.souhailbektachi.backend.entities.CreditProfessionnel;
+import com.souhailbektachi.backend.repositories.ClientRepository;
+import com.souhailbektachi.backend.repositories.CreditRepository;
+import com.souhailbektachi.backend.repositories.projections.ClientSearchEntry;
+import com.souhailbektachi.backend.repositories.projections.CompanyNameEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.souhailbektachi.backend.dtos.SuggestionType.CLIENT;
+import static com.souhailbektachi.backend.dtos.SuggestionType.ENTREPRISE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SuggestionIndexTest {
+
+    private final SpelAwareProxyProjectionFactory projections = new SpelAwareProxyProjectionFactory();
+    private final ClientRepository clientRepository = mock(ClientRepository.class);
+    private final CreditRepository creditRepository = mock(CreditRepository.class);
+    private final List<ClientSearchEntry> clients = new ArrayList<>();
+    private final List<CompanyNameEntry> companies = new ArrayList<>();
+
+    private SuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(clientRepository.findSearchEntries(anyLong(), any())).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            return clients.stream().filter(entry -> entry.getId() > afterId).toList();
+        });
+        when(creditRepository.findCompanyNames(anyLong(), any())).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            return companies.stream().filter(entry -> entry.getCreditId() > afterId).toList();
+        });
+        index = new SuggestionIndex(clientRepository, creditRepository);
+        ReflectionTestUtils.setField(index, "chunkSize", 5000);
+        ReflectionTestUtils.setField(index, "mergeThreshold", 1000);
+    }
+
+    @Test
+    void prefixReturnsNamesInAlphabeticalOrderUpToTheLimit() {
+        addClient(1L, "Martin");
+        addClient(2L, "Bernard");
+        addClient(3L, "Marchand");
+        addClient(4L, "Émile Marais");
+        addCompany(10L, 2L, "Marbrerie du Sud");
+        index.rebuild();
+
+        assertThat(labels("mar", 10)).containsExactly("Marbrerie du Sud", "Marchand", "Martin");
+        assertThat(labels("MAR", 2)).containsExactly("Marbrerie du Sud", "Marchand");
+        assertThat(labels("emile", 10)).containsExactly("Émile Marais");
+        assertThat(labels("zzz", 10)).isEmpty();
+    }
+
+    @Test
+    void namesAddedSinceTheMergeAreInterleavedWithTheArray() {
+        addClient(1L, "Martin");
+        addClient(2L, "Marchand");
+        index.rebuild();
+
+        index.clientSaved(client(3L, "Marais"));
+        index.clientSaved(client(4L, "Marius"));
+
+        assertThat(index.getStats()).containsEntry("pendingNames", 2);
+        assertThat(labels("mar", 10)).containsExactly("Marais", "Marchand", "Marius", "Martin");
+    }
+
+    @Test
+    void replacedAndRemovedNamesAreHiddenUntilTheMerge() {
+        addClient(1L, "Martin");
+        addClient(2L, "Marchand");
+        index.rebuild();
+
+        index.clientSaved(client(1L, "Bernard"));
+        index.clientDeleted(client(2L, "Marchand"));
+
+        assertThat(labels("mar", 10)).isEmpty();
+        assertThat(labels("ber", 10)).containsExactly("Bernard");
+        assertThat(index.getStats()).containsEntry("names", 2).containsEntry("hiddenNames", 2);
+    }
+
+    @Test
+    void deltaIsMergedOnceItReachesTheThreshold() {
+        ReflectionTestUtils.setField(index, "mergeThreshold", 6);
+        addClient(1L, "Martin");
+        index.rebuild();
+
+        index.clientSaved(client(2L, "Marais"));
+        index.clientSaved(client(3L, "Marius"));
+        assertThat(index.getStats()).containsEntry("names", 1).containsEntry("pendingNames", 2);
+
+        // A name added since the merge is both pending and hidden (it may replace one in the array):
+        // three pending and three hidden names reach the threshold
+        index.clientSaved(client(1L, "Martine"));
+
+        assertThat(index.getStats()).containsEntry("names", 3).containsEntry("pendingNames", 0)
+                .containsEntry("hiddenNames", 0);
+        assertThat(labels("mar", 10)).containsExactly("Marais", "Marius", "Martine");
+    }
+
+    @Test
+    void companyIsSuggestedOncePerClientUntilItsLastCreditIsRemoved() {
+        addClient(1L, "Bernard");
+        addClient(2L, "Durand");
+        addCompany(10L, 1L, "Acme");
+        addCompany(11L, 1L, "ACME ");
+        addCompany(12L, 2L, "Acme");
+        index.rebuild();
+
+        List<SuggestionDTO> suggestions = index.suggest("acm", 10);
+        assertThat(suggestions).extracting(SuggestionDTO::getType).containsOnly(ENTREPRISE);
+        assertThat(suggestions).extracting(SuggestionDTO::getClientId).containsExactly(1L, 2L);
+
+        index.creditDeleted(10L);
+        assertThat(index.suggest("acm", 10)).extracting(SuggestionDTO::getClientId).containsExactly(1L, 2L);
+
+        index.creditDeleted(11L);
+        assertThat(index.suggest("acm", 10)).extracting(SuggestionDTO::getClientId).containsExactly(2L);
+    }
+
+    @Test
+    void deletedClientTakesItsCompaniesWithIt() {
+        addClient(1L, "Bernard");
+        addCompany(10L, 1L, "Acme");
+        index.rebuild();
+
+        Client client = client(1L, "Bernard");
+        CreditProfessionnel credit = new CreditProfessionnel();
+        credit.setId(10L);
+        client.setCredits(new ArrayList<>(List.<Credit>of(credit)));
+        index.clientDeleted(client);
+
+        assertThat(index.suggest("acm", 10)).isEmpty();
+        assertThat(index.suggest("ber", 10)).isEmpty();
+    }
+
+    @Test
+    void changesOfOtherInstancesAreApplied() {
+        addClient(1L, "Bernard");
+        addClient(2L, "Durand");
+        addCompany(10L, 1L, "Acme");
+        index.rebuild();
+
+        index.clientsChanged(List.of(1L, 2L), List.of(clientEntry(1L, "Bertrand")));
+        index.companyCreditsChanged(List.of(10L, 11L), List.of(companyEntry(11L, 1L, "Globex")));
+
+        assertThat(labels("ber", 10)).containsExactly("Bertrand");
+        assertThat(labels("dur", 10)).isEmpty();
+        assertThat(labels("acm", 10)).isEmpty();
+        assertThat(labels("glo", 10)).containsExactly("Globex");
+        assertThat(index.suggest("ber", 10)).extracting(SuggestionDTO::getType).containsExactly(CLIENT);
+    }
+
+    @Test
+    void lookupsWaitForTheFirstRebuild() {
+        assertThat(index.suggest("mar", 10)).isNull();
+    }
+
+    // Helper methods
+
+    private List<String> labels(String prefix, int limit) {
+        return index.suggest(prefix, limit).stream().map(SuggestionDTO::getLabel).toList();
+    }
+
+    private void addClient(Long id, String nom) {
+        clients.add(clientEntry(id, nom));
+    }
+
+    private void addCompany(Long creditId, Long clientId, String company) {
+        companies.add(companyEntry(creditId, clientId, company));
+    }
+
+    private ClientSearchEntry clientEntry(Long id, String nom) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("id", id);
+        values.put("nom", nom);
+        values.put("email", null);
+        return projections.createProjection(ClientSearchEntry.class, values);
+    }
+
+    private CompanyNameEntry companyEntry(Long creditId, Long clientId, String company) {
+        return projections.createProjection(CompanyNameEntry.class,
+                Map.of("creditId", creditId, "clientId", clientId, "raisonSocialeEntreprise", company));
+    }
+
+    private static Client client(Long id, String nom) {
+        Client client = new Client();
+        client.setId(id);
+        client.setNom(nom);
+        return client;
+    }
+}
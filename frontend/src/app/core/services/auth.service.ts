@@ -94,6 +94,10 @@ export class AuthService {  private apiUrl = `${environment.apiUrl}/api/auth`;
     return this.http.post(`${this.apiUrl}/register`, userData);
   }
   logout(): void {
+    // Revoke the token server-side (the interceptor attaches it before it is removed below)
+    if (localStorage.getItem(this.authTokenKey)) {
+      this.http.post(`${this.apiUrl}/logout`, {}, { responseType: 'text' }).subscribe({ error: () => {} });
+    }
     localStorage.removeItem(this.authTokenKey);
     localStorage.removeItem('current_user');
     this.currentUserSubject.next(null);
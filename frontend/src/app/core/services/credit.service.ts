@@ -4,6 +4,7 @@ import { Observable, throwError } from 'rxjs';
 import { catchError } from 'rxjs/operators';
 import { CreditSummary } from '../models/credit-summary.model';
 import { Credit } from '../models/credit.model';
+import { Page } from '../models/page.model';
 import { environment } from '../../../environments/environment';
 import { StatutCredit } from '../models/enums/statut-credit.enum';
 
@@ -15,8 +16,8 @@ export class CreditService {
 
   constructor(private http: HttpClient) { }
 
-  getAllCredits(): Observable<CreditSummary[]> {
-    return this.http.get<CreditSummary[]>(this.apiUrl);
+  getCreditsPage(page = 0, size = 20): Observable<Page<CreditSummary>> {
+    return this.http.get<Page<CreditSummary>>(this.apiUrl, { params: { page, size } });
   }
 
   getCreditById(id: number): Observable<Credit> {
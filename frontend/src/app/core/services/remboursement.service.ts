@@ -2,6 +2,7 @@ import { Injectable } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
 import { Observable } from 'rxjs';
 import { Remboursement } from '../models/remboursement.model';
+import { Page } from '../models/page.model';
 import { environment } from '../../../environments/environment';
 
 @Injectable({
@@ -12,8 +13,8 @@ export class RemboursementService {
 
   constructor(private http: HttpClient) { }
 
-  getAllRemboursements(): Observable<Remboursement[]> {
-    return this.http.get<Remboursement[]>(this.apiUrl);
+  getRemboursementsPage(page = 0, size = 20): Observable<Page<Remboursement>> {
+    return this.http.get<Page<Remboursement>>(this.apiUrl, { params: { page, size } });
   }
 
   getRemboursementById(id: number): Observable<Remboursement> {
@@ -7,7 +7,7 @@ import { environment } from '../../../environments/environment';
   providedIn: 'root'
 })
 export class ReportingService {
-  private apiUrl = `${environment.apiUrl}/reporting`;
+  private apiUrl = `${environment.apiUrl}/api/reports`;
 
   constructor(private http: HttpClient) { }
 
@@ -19,5 +19,11 @@ export class ReportingService {
     return this.http.get<any>(`${this.apiUrl}/credits/summary-by-type`);
   }
 
-  // Add other reporting methods if they exist in the backend
+  getCreditPerformanceByType(): Observable<any> {
+    return this.http.get<any>(`${this.apiUrl}/credits/performance-by-type`);
+  }
+
+  getDashboardSummary(): Observable<any> {
+    return this.http.get<any>(`${this.apiUrl}/dashboard`);
+  }
 }
@@ -39,6 +39,11 @@ import { ClientService } from '../client.service';
         </tr>
       </tbody>
     </table>
+    <div class="pager" *ngIf="totalPages > 1">
+      <button (click)="loadClients(page - 1)" [disabled]="page === 0">Previous</button>
+      <span>Page {{ page + 1 }} of {{ totalPages }} ({{ totalElements }} clients)</span>
+      <button (click)="loadClients(page + 1)" [disabled]="page + 1 >= totalPages">Next</button>
+    </div>
     <p *ngIf="errorMessage" style="color: red;">{{ errorMessage }}</p>
   `,
   styles: [`
@@ -46,11 +51,16 @@ import { ClientService } from '../client.service';
     th, td { border: 1px solid #ddd; padding: 8px; text-align: left; }
     th { background-color: #f2f2f2; }
     button { margin-right: 5px; }
+    .pager { display: flex; align-items: center; gap: 1em; margin-top: 1em; }
   `]
 })
 export class ClientListComponent implements OnInit {
   clients: Client[] = [];
   errorMessage: string | null = null;
+  page = 0;
+  pageSize = 20;
+  totalPages = 0;
+  totalElements = 0;
 
   constructor(private clientService: ClientService) { }
 
@@ -58,11 +68,19 @@ export class ClientListComponent implements OnInit {
     this.loadClients();
   }
 
-  loadClients(): void {
+  loadClients(page = this.page): void {
     this.errorMessage = null;
-    this.clientService.getClients().subscribe({
-      next: (data) => {
-        this.clients = data;
+    this.clientService.getClientsPage(page, this.pageSize).subscribe({
+      next: (result) => {
+        // Deleting the last client of the last page leaves an empty page: show the previous one
+        if (result.content.length === 0 && page > 0) {
+          this.loadClients(page - 1);
+          return;
+        }
+        this.clients = result.content;
+        this.page = result.number;
+        this.totalPages = result.totalPages;
+        this.totalElements = result.totalElements;
       },
       error: (err) => {
         console.error('Error fetching clients', err);
@@ -1,7 +1,9 @@
 import { Injectable } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
-import { Observable } from 'rxjs';
+import { EMPTY, Observable } from 'rxjs';
+import { expand, reduce } from 'rxjs/operators';
 import { Client } from './client.model';
+import { Page } from '../../core/models/page.model';
 import { environment } from '../../../environments/environment';
 
 @Injectable({
@@ -12,8 +14,16 @@ export class ClientService {
 
   constructor(private http: HttpClient) { }
 
-  getClients(): Observable<Client[]> {
-    return this.http.get<Client[]>(this.apiUrl);
+  // Every client, fetched page after page (for pickers that need the full list)
+  getAllClients(size = 100): Observable<Client[]> {
+    return this.getClientsPage(0, size).pipe(
+      expand(result => result.last ? EMPTY : this.getClientsPage(result.number + 1, size)),
+      reduce((clients: Client[], result) => clients.concat(result.content), [])
+    );
+  }
+
+  getClientsPage(page = 0, size = 20): Observable<Page<Client>> {
+    return this.http.get<Page<Client>>(this.apiUrl, { params: { page, size } });
   }
 
   getClient(id: number): Observable<Client> {
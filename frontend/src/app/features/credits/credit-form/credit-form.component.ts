@@ -50,7 +50,7 @@ export class CreditFormComponent implements OnInit {
 
   ngOnInit(): void {
     // Fetch clients from the API
-    this.clientService.getClients().subscribe({
+    this.clientService.getAllClients().subscribe({
       next: (clients) => {
         this.clients = clients;
       },
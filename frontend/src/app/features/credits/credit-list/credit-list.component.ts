@@ -4,6 +4,7 @@ import { RouterModule, Router } from '@angular/router';
 import { FormsModule } from '@angular/forms';
 import { CreditService } from '../../../core/services/credit.service';
 import { CreditSummary } from '../../../core/models/credit-summary.model';
+import { Page } from '../../../core/models/page.model';
 import { StatutCredit } from '../../../core/models/enums/statut-credit.enum';
 
 @Component({
@@ -147,6 +148,19 @@ import { StatutCredit } from '../../../core/models/enums/statut-credit.enum';
                 </div>
               </div>
             </div>
+            <div *ngIf="totalPages > 1" class="mt-4 flex items-center justify-between">
+              <p class="text-sm text-gray-700">
+                Page {{ page + 1 }} of {{ totalPages }} ({{ totalElements }} credits)
+              </p>
+              <div class="flex space-x-3">
+                <button (click)="loadCredits(page - 1)" [disabled]="page === 0" class="inline-flex items-center px-4 py-2 border border-gray-300 text-sm font-medium rounded-md text-gray-700 bg-white hover:bg-gray-50 disabled:opacity-50 disabled:cursor-not-allowed">
+                  Previous
+                </button>
+                <button (click)="loadCredits(page + 1)" [disabled]="page + 1 >= totalPages" class="inline-flex items-center px-4 py-2 border border-gray-300 text-sm font-medium rounded-md text-gray-700 bg-white hover:bg-gray-50 disabled:opacity-50 disabled:cursor-not-allowed">
+                  Next
+                </button>
+              </div>
+            </div>
           </div>
         </div>
       </div>
@@ -161,6 +175,10 @@ export class CreditListComponent implements OnInit {
   error: string | null = null;
   selectedStatus: StatutCredit | null = null;
   selectedType: string | null = null;
+  page = 0;
+  pageSize = 20;
+  totalPages = 0; // 0 while a filter is applied: the filtered lists are not paged
+  totalElements = 0;
   StatutCredit = StatutCredit; // Make enum available to template
 
   constructor(
@@ -172,13 +190,16 @@ export class CreditListComponent implements OnInit {
     this.loadCredits();
   }
 
-  loadCredits(): void {
+  loadCredits(page = this.page): void {
     this.loading = true;
     this.error = null;
     
-    this.creditService.getAllCredits().subscribe({
-      next: (data: CreditSummary[]) => {
-        this.credits = data;
+    this.creditService.getCreditsPage(page, this.pageSize).subscribe({
+      next: (result: Page<CreditSummary>) => {
+        this.credits = result.content;
+        this.page = result.number;
+        this.totalPages = result.totalPages;
+        this.totalElements = result.totalElements;
         this.loading = false;
       },
       error: (err: any) => {
@@ -200,6 +221,7 @@ export class CreditListComponent implements OnInit {
     this.creditService.getCreditsByStatus(this.selectedStatus).subscribe({
       next: (data: CreditSummary[]) => {
         this.credits = data;
+        this.totalPages = 0;
         this.loading = false;
       },
       error: (err: any) => {
@@ -221,6 +243,7 @@ export class CreditListComponent implements OnInit {
     this.creditService.getCreditsByType(this.selectedType).subscribe({
       next: (data: CreditSummary[]) => {
         this.credits = data;
+        this.totalPages = 0;
         this.loading = false;
       },
       error: (err: any) => {
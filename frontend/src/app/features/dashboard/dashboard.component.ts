@@ -5,6 +5,7 @@ import { AuthService } from '../../core/services/auth.service';
 import { CreditService } from '../../core/services/credit.service';
 import { StatutCredit } from '../../core/models/enums/statut-credit.enum';
 import { CreditSummary } from '../../core/models/credit-summary.model';
+import { Page } from '../../core/models/page.model';
 import { Router } from '@angular/router';
 import { HttpErrorResponse } from '@angular/common/http';
 
@@ -210,9 +211,9 @@ export class DashboardComponent implements OnInit {
     });
   }
   fetchLatestCredits(): void {
-    this.creditService.getAllCredits().subscribe({
-      next: (credits: CreditSummary[]) => {
-        this.latestCredits = credits.slice(0, 5); // Take just the first 5 credits
+    this.creditService.getCreditsPage(0, 5).subscribe({
+      next: (page: Page<CreditSummary>) => {
+        this.latestCredits = page.content; // Just the first 5 credits
         this.isLoading = false;
       },
       error: (err: any) => this.handleError(err)